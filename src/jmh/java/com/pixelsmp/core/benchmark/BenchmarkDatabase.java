@@ -0,0 +1,133 @@
+package com.pixelsmp.core.benchmark;
+
+import com.pixelsmp.core.database.sql.SQLConnectionManager;
+import com.pixelsmp.core.database.sql.SQLExecutionMode;
+import com.pixelsmp.core.permissions.PermissionRank;
+import com.pixelsmp.core.permissions.PermissionStatements;
+import com.pixelsmp.core.permissions.SQLRankStore;
+import com.pixelsmp.core.util.UUIDUtils;
+import com.zaxxer.hikari.HikariConfig;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+final class BenchmarkDatabase
+{
+    private BenchmarkDatabase()
+    {
+    }
+
+    /**
+     * Creates a connection manager backed by a private in-memory H2 database running in MySQL mode, so the
+     * production statements run unchanged.
+     */
+    static SQLConnectionManager create(String name, int hikariPoolSize, int threadPoolSize)
+    {
+        return create(name, hikariPoolSize, threadPoolSize, SQLExecutionMode.PLATFORM);
+    }
+
+    /**
+     * Creates a connection manager like {@link #create(String, int, int)} that runs statements in the given mode.
+     */
+    static SQLConnectionManager create(String name, int hikariPoolSize, int threadPoolSize,
+                                       SQLExecutionMode executionMode)
+    {
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setJdbcUrl("jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        hikariConfig.setMaximumPoolSize(hikariPoolSize);
+        hikariConfig.setConnectionTimeout(5000);
+
+        return new SQLConnectionManager(hikariConfig, threadPoolSize, executionMode);
+    }
+
+    /**
+     * Creates a connection manager backed by an embedded H2 database file in a fresh temporary directory, configured
+     * exactly like permissions.storage.type: embedded.
+     */
+    static SQLConnectionManager createEmbedded(String name, int hikariPoolSize, int threadPoolSize)
+    {
+        try
+        {
+            return createEmbedded(Files.createTempDirectory("pixelsmp-benchmark").resolve(name).toFile(),
+                    hikariPoolSize, threadPoolSize);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Creates a connection manager for the given embedded H2 database file. Managers created for the same file in
+     * one JVM share the database, like several servers sharing a MySQL server.
+     */
+    static SQLConnectionManager createEmbedded(File databaseFile, int hikariPoolSize, int threadPoolSize)
+    {
+        return new SQLConnectionManager(SQLConnectionManager.createEmbeddedConfig(databaseFile, hikariPoolSize, 5000),
+                threadPoolSize);
+    }
+
+    /**
+     * Creates a connection manager for a real MySQL server when -Dpixelsmp.benchmark.mysqlUrl is set, with the
+     * same driver-side statement caching as production when requested, or null when no server is configured.
+     */
+    static SQLConnectionManager createMySQL(boolean statementCaching, int hikariPoolSize, int threadPoolSize)
+    {
+        String jdbcUrl = System.getProperty("pixelsmp.benchmark.mysqlUrl");
+
+        if (jdbcUrl == null)
+        {
+            return null;
+        }
+
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setJdbcUrl(jdbcUrl);
+        hikariConfig.setUsername(System.getProperty("pixelsmp.benchmark.mysqlUsername", "root"));
+        hikariConfig.setPassword(System.getProperty("pixelsmp.benchmark.mysqlPassword", ""));
+        hikariConfig.setMaximumPoolSize(hikariPoolSize);
+        hikariConfig.setConnectionTimeout(5000);
+
+        if (statementCaching)
+        {
+            SQLConnectionManager.configureStatementCaching(hikariConfig);
+        }
+
+        return new SQLConnectionManager(hikariConfig, threadPoolSize);
+    }
+
+    /**
+     * Inserts the given number of players, spread across every rank, and returns their UUIDs.
+     */
+    static UUID[] seedPlayers(SQLConnectionManager sqlConnectionManager, int playerCount)
+    {
+        new SQLRankStore(sqlConnectionManager, 1).initialize().join();
+
+        UUID[] playerUUIDs = new UUID[playerCount];
+        List<Object[]> parameterSets = new ArrayList<>(playerCount);
+
+        for (int i = 0; i < playerCount; i++)
+        {
+            playerUUIDs[i] = UUID.randomUUID();
+
+            int rankId = PermissionRank.values()[i % PermissionRank.values().length].getId();
+            parameterSets.add(new Object[]{UUIDUtils.toBytes(playerUUIDs[i]), rankId});
+        }
+
+        sqlConnectionManager.executeBatchAsync(PermissionStatements.UPSERT_RANK, parameterSets).join();
+
+        return playerUUIDs;
+    }
+
+    /**
+     * Closes the pool; the daemon query threads are left to die with the fork.
+     */
+    static void close(SQLConnectionManager sqlConnectionManager)
+    {
+        sqlConnectionManager.getDataSource().close();
+    }
+}
@@ -0,0 +1,81 @@
+package com.pixelsmp.core.benchmark;
+
+import com.pixelsmp.core.chat.ChatFormatter;
+import com.pixelsmp.core.chat.MessageRegistry;
+import com.pixelsmp.core.chat.MessageTemplate;
+import com.pixelsmp.core.permissions.PermissionRank;
+import org.bukkit.ChatColor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Message rendering through ChatFormatter, compared against the concatenate-then-translate approach it replaced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChatFormatterBenchmark
+{
+    private final MessageTemplate template = MessageTemplate.compile("&3&L{sender}&R &8// &7{message}", true);
+
+    public String sender = "Permissions";
+    public String message = "&aSteve&7's rank has successfully been updated to &aMVP+&7.";
+    public String playerName = "Steve";
+
+    @Benchmark
+    public String chatMessage()
+    {
+        return ChatFormatter.formatChatMessage(sender, message, false);
+    }
+
+    @Benchmark
+    public String chatMessageLegacy()
+    {
+        return ChatColor.translateAlternateColorCodes('&', "&3&L" + sender + "&R &8// &7" + message);
+    }
+
+    @Benchmark
+    public String consoleMessage()
+    {
+        return ChatFormatter.formatConsoleMessage(sender, message, true);
+    }
+
+    @Benchmark
+    public String templateRender()
+    {
+        return template.render(sender, message);
+    }
+
+    @Benchmark
+    public String registeredMessage()
+    {
+        return MessageRegistry.get("core.noPermissions");
+    }
+
+    @Benchmark
+    public String rankChatFormat()
+    {
+        return ChatFormatter.formatRankChat(PermissionRank.MVP_PLUS, playerName);
+    }
+
+    @Benchmark
+    public String rankChatFormatLegacy()
+    {
+        PermissionRank rank = PermissionRank.MVP_PLUS;
+
+        return ChatColor.translateAlternateColorCodes('&', "&" + rank.getColorCode() + "&l" + rank.getName() +
+                " &r&7" + playerName + " &r&7// " + message);
+    }
+}
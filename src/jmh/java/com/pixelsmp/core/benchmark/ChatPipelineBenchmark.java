@@ -0,0 +1,97 @@
+package com.pixelsmp.core.benchmark;
+
+import com.pixelsmp.core.chat.ChatCapsStage;
+import com.pixelsmp.core.chat.ChatContext;
+import com.pixelsmp.core.chat.ChatMuteStage;
+import com.pixelsmp.core.chat.ChatPipeline;
+import com.pixelsmp.core.chat.ChatRateLimitStage;
+import com.pixelsmp.core.permissions.PermissionRank;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A chat message through the chat pipeline, with no stages and with the stages the Core installs by default, sent by
+ * a random one of a full server's players from several chat threads at once. The rate limit is set high enough that
+ * every message is let through, so each one runs every stage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ChatPipelineBenchmark
+{
+    private static final int PLAYER_COUNT = 1000;
+
+    @Param({"none", "default"})
+    public String stages;
+
+    @Param({"hello there, how is everyone doing?", "HELLO THERE, HOW IS EVERYONE DOING?"})
+    public String message;
+
+    private ChatPipeline chatPipeline;
+    private UUID[] playerUUIDs;
+
+    @Setup
+    public void setUp()
+    {
+        chatPipeline = new ChatPipeline();
+
+        if (stages.equals("default"))
+        {
+            ChatMuteStage muteStage = new ChatMuteStage();
+
+            // One muted player, so the mute check has to look players up rather than skip an empty map
+            muteStage.mute(new UUID(0, 0), 0);
+
+            chatPipeline.addStage(muteStage);
+            chatPipeline.addStage(new ChatRateLimitStage(1_000_000, 1_000_000_000.0, PermissionRank.HELPER));
+            chatPipeline.addStage(new ChatCapsStage(8, 60, PermissionRank.HELPER));
+        }
+
+        SplittableRandom random = new SplittableRandom(42);
+        playerUUIDs = new UUID[PLAYER_COUNT];
+
+        for (int i = 0; i < PLAYER_COUNT; i++)
+        {
+            playerUUIDs[i] = new UUID(random.nextLong(), random.nextLong());
+        }
+    }
+
+    @Benchmark
+    public String process(Cursor cursor)
+    {
+        ChatContext context = new ChatContext(null, playerUUIDs[cursor.next(PLAYER_COUNT)], PermissionRank.MEMBER,
+                message, System.nanoTime());
+        chatPipeline.process(context);
+
+        return context.getMessage();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor
+    {
+        private final SplittableRandom random = new SplittableRandom();
+
+        public int next(int bound)
+        {
+            return random.nextInt(bound);
+        }
+    }
+}
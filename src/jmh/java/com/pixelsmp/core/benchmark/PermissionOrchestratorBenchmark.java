@@ -0,0 +1,147 @@
+package com.pixelsmp.core.benchmark;
+
+import com.pixelsmp.core.database.sql.SQLConnectionManager;
+import com.pixelsmp.core.permissions.InMemoryRankStore;
+import com.pixelsmp.core.permissions.PermissionOrchestrator;
+import com.pixelsmp.core.permissions.PermissionRank;
+import com.pixelsmp.core.permissions.RankBatchLoader;
+import com.pixelsmp.core.permissions.RankStore;
+import com.pixelsmp.core.permissions.SQLRankStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rank lookups through PermissionOrchestrator, for players that are resident in the cache and for players that
+ * have to be loaded from the rank store, either an embedded database file or memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PermissionOrchestratorBenchmark
+{
+    private static final int PLAYER_COUNT = 10000;
+
+    @Param({"0", "2"})
+    public long batchWindowMillis;
+
+    @Param({"embedded", "memory"})
+    public String storage;
+
+    private SQLConnectionManager sqlConnectionManager;
+    private RankBatchLoader batchLoader;
+    private PermissionOrchestrator orchestrator;
+    private UUID[] playerUUIDs;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        RankStore rankStore;
+
+        if (storage.equals("embedded"))
+        {
+            sqlConnectionManager = BenchmarkDatabase.createEmbedded("orchestrator" + batchWindowMillis, 5, 10);
+            playerUUIDs = BenchmarkDatabase.seedPlayers(sqlConnectionManager, PLAYER_COUNT);
+            rankStore = new SQLRankStore(sqlConnectionManager, 500);
+        }
+        else
+        {
+            rankStore = new InMemoryRankStore();
+            playerUUIDs = seedPlayers(rankStore);
+        }
+
+        batchLoader = new RankBatchLoader(rankStore, batchWindowMillis, 500);
+        orchestrator = new PermissionOrchestrator(rankStore, batchLoader, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        batchLoader.close();
+
+        if (sqlConnectionManager != null)
+        {
+            BenchmarkDatabase.close(sqlConnectionManager);
+        }
+    }
+
+    @Benchmark
+    public PermissionRank cachedHit()
+    {
+        UUID playerUUID = nextPlayer();
+        warm(playerUUID);
+
+        return orchestrator.getCachedPlayerRank(playerUUID);
+    }
+
+    @Benchmark
+    public Optional<PermissionRank> futureHit()
+    {
+        UUID playerUUID = nextPlayer();
+        warm(playerUUID);
+
+        return orchestrator.getPlayerRank(playerUUID).join();
+    }
+
+    @Benchmark
+    public Optional<PermissionRank> miss()
+    {
+        UUID playerUUID = nextPlayer();
+
+        // Evict first so every invocation goes through the batch loader and the rank store
+        orchestrator.purgePermissionCache(playerUUID);
+
+        return orchestrator.getPlayerRank(playerUUID).join();
+    }
+
+    private static UUID[] seedPlayers(RankStore rankStore)
+    {
+        UUID[] playerUUIDs = new UUID[PLAYER_COUNT];
+        Map<UUID, PermissionRank> ranks = new HashMap<>();
+
+        for (int i = 0; i < PLAYER_COUNT; i++)
+        {
+            playerUUIDs[i] = UUID.randomUUID();
+            ranks.put(playerUUIDs[i], PermissionRank.values()[i % PermissionRank.values().length]);
+        }
+
+        rankStore.saveRanks(ranks).join();
+
+        return playerUUIDs;
+    }
+
+    private UUID nextPlayer()
+    {
+        cursor = (cursor + 1) % PLAYER_COUNT;
+
+        return playerUUIDs[cursor];
+    }
+
+    private void warm(UUID playerUUID)
+    {
+        if (orchestrator.getCachedPlayerRank(playerUUID) == null)
+        {
+            orchestrator.getPlayerRank(playerUUID).join();
+        }
+    }
+}
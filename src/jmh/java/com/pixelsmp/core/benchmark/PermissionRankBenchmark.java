@@ -0,0 +1,36 @@
+package com.pixelsmp.core.benchmark;
+
+import com.pixelsmp.core.permissions.PermissionRank;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rank filtering by permission level.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermissionRankBenchmark
+{
+    @Param({"0", "40", "100"})
+    public int level;
+
+    @Benchmark
+    public PermissionRank[] ranksWithLevelGreaterThan()
+    {
+        return PermissionRank.getRanksWithLevelGreaterThan(level);
+    }
+}
@@ -0,0 +1,72 @@
+package com.pixelsmp.core.benchmark;
+
+import com.pixelsmp.core.command.PixelCommand;
+import com.pixelsmp.core.permissions.PermissionRank;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rank authorization in PixelCommand, compared against the linear scan over the allowed ranks it replaced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PixelCommandBenchmark
+{
+    @Param({"OWNER", "HELPER", "MEMBER"})
+    public PermissionRank rank;
+
+    private PermissionRank[] allowedRanks;
+    private PixelCommand command;
+
+    @Setup
+    public void setUp()
+    {
+        allowedRanks = PermissionRank.getRanksWithLevelGreaterThan(PermissionRank.HELPER.getPermissionLevel());
+
+        command = new PixelCommand("benchmark", allowedRanks, true)
+        {
+            @Override
+            public boolean execute(CommandSender commandSender, Command command, String s, String[] strings)
+            {
+                return true;
+            }
+        };
+    }
+
+    @Benchmark
+    public boolean isAuthorized()
+    {
+        return command.isAuthorized(rank);
+    }
+
+    @Benchmark
+    public boolean linearScan()
+    {
+        for (PermissionRank allowedRank : allowedRanks)
+        {
+            if (allowedRank == rank)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
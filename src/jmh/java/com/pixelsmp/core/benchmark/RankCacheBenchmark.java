@@ -0,0 +1,146 @@
+package com.pixelsmp.core.benchmark;
+
+import com.pixelsmp.core.permissions.PermissionRank;
+import com.pixelsmp.core.permissions.RankCache;
+import com.pixelsmp.core.permissions.RankCacheType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rank lookups and rank churn (an eviction followed by a re-insert, as when a player quits and rejoins) against each
+ * rank cache, holding the ranks of a single server's players and of a whole network's. The memory each cache
+ * retains per rank, heap and direct memory together, is printed once it has been filled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-XX:MaxDirectMemorySize=1g"})
+public class RankCacheBenchmark
+{
+    @Param({"10000", "2000000"})
+    public int residentRanks;
+
+    @Param({"concurrent", "primitive", "offheap"})
+    public String cacheType;
+
+    private RankCache rankCache;
+    private UUID[] playerUUIDs;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        SplittableRandom random = new SplittableRandom(42);
+        PermissionRank[] ranks = PermissionRank.values();
+
+        playerUUIDs = new UUID[residentRanks];
+
+        for (int i = 0; i < residentRanks; i++)
+        {
+            playerUUIDs[i] = new UUID(random.nextLong(), random.nextLong());
+        }
+
+        long usedBefore = usedMemory();
+
+        // Grown from its default size, as a cache filled by logins over time would be
+        rankCache = RankCacheType.fromConfig(cacheType).create(16);
+
+        // Copies of the keys, so the cache owns them as it does for players who are not online
+        for (int i = 0; i < residentRanks; i++)
+        {
+            UUID playerUUID = new UUID(playerUUIDs[i].getMostSignificantBits(),
+                    playerUUIDs[i].getLeastSignificantBits());
+
+            rankCache.putIfAbsent(playerUUID, ranks[i % ranks.length]);
+        }
+
+        System.out.printf("%n%s retains %.1f bytes per rank (estimated %.1f)%n", cacheType,
+                (double) (usedMemory() - usedBefore) / residentRanks,
+                (double) rankCache.estimateFootprintBytes() / residentRanks);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public PermissionRank lookup(Cursor cursor)
+    {
+        return rankCache.get(playerUUIDs[cursor.next(residentRanks)]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public PermissionRank churn(Cursor cursor)
+    {
+        UUID playerUUID = playerUUIDs[cursor.next(residentRanks)];
+        PermissionRank rank = rankCache.remove(playerUUID);
+
+        return rankCache.putIfAbsent(playerUUID, rank == null ? PermissionRank.MEMBER : rank);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public PermissionRank mixedLookup(Cursor cursor)
+    {
+        return rankCache.get(playerUUIDs[cursor.next(residentRanks)]);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public PermissionRank mixedChurn(Cursor cursor)
+    {
+        return churn(cursor);
+    }
+
+    private static long usedMemory()
+    {
+        // A few collections, so the garbage of earlier trials does not count against this one
+        for (int i = 0; i < 3; i++)
+        {
+            System.gc();
+        }
+
+        long used = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class))
+        {
+            if (pool.getName().equals("direct"))
+            {
+                used += pool.getMemoryUsed();
+            }
+        }
+
+        return used;
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor
+    {
+        private final SplittableRandom random = new SplittableRandom();
+
+        public int next(int bound)
+        {
+            return random.nextInt(bound);
+        }
+    }
+}
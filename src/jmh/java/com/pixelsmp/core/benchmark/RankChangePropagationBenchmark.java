@@ -0,0 +1,151 @@
+package com.pixelsmp.core.benchmark;
+
+import com.pixelsmp.core.database.sql.SQLConnectionManager;
+import com.pixelsmp.core.permissions.PermissionOrchestrator;
+import com.pixelsmp.core.permissions.PermissionRank;
+import com.pixelsmp.core.permissions.RankBatchLoader;
+import com.pixelsmp.core.permissions.RankChangePoller;
+import com.pixelsmp.core.permissions.SQLRankStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time for a rank change made through one orchestrator to reach the cache of a second orchestrator through the
+ * change log, with both sharing one embedded database like two servers sharing a MySQL server. Each invocation
+ * fails if the change never arrives, so this doubles as an end-to-end check of the change log.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RankChangePropagationBenchmark
+{
+    private static final int PLAYER_COUNT = 1000;
+    private static final long PROPAGATION_TIMEOUT_MILLIS = 10000;
+
+    @Param({"50", "250"})
+    public long pollIntervalMillis;
+
+    private SQLConnectionManager[] nodes;
+    private RankChangePoller[] pollers;
+    private RankBatchLoader[] batchLoaders;
+    private PermissionOrchestrator writer;
+    private PermissionOrchestrator reader;
+    private UUID[] playerUUIDs;
+    private PermissionRank[] ranks;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException
+    {
+        File databaseFile = Files.createTempDirectory("pixelsmp-benchmark").resolve("changes").toFile();
+
+        nodes = new SQLConnectionManager[2];
+        pollers = new RankChangePoller[2];
+        batchLoaders = new RankBatchLoader[2];
+        PermissionOrchestrator[] orchestrators = new PermissionOrchestrator[2];
+
+        for (int i = 0; i < 2; i++)
+        {
+            nodes[i] = BenchmarkDatabase.createEmbedded(databaseFile, 5, 10);
+
+            SQLRankStore rankStore = new SQLRankStore(nodes[i], 500, true);
+            rankStore.initialize().join();
+
+            if (i == 0)
+            {
+                seedPlayers(rankStore);
+            }
+
+            pollers[i] = new RankChangePoller(rankStore, pollIntervalMillis, 500, 1000, 0);
+            batchLoaders[i] = new RankBatchLoader(rankStore, 0, 500);
+            orchestrators[i] = new PermissionOrchestrator(rankStore, batchLoaders[i], null, pollers[i]);
+            pollers[i].start(orchestrators[i]).join();
+        }
+
+        writer = orchestrators[0];
+        reader = orchestrators[1];
+
+        // Changes are only applied to resident players, so make every player resident on the reading node
+        for (UUID playerUUID : playerUUIDs)
+        {
+            reader.retainPlayerRank(playerUUID);
+            reader.getPlayerRank(playerUUID).join();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        for (int i = 0; i < 2; i++)
+        {
+            pollers[i].close();
+            batchLoaders[i].close();
+            BenchmarkDatabase.close(nodes[i]);
+        }
+    }
+
+    @Benchmark
+    public PermissionRank propagate() throws InterruptedException
+    {
+        cursor = (cursor + 1) % PLAYER_COUNT;
+
+        UUID playerUUID = playerUUIDs[cursor];
+        PermissionRank rank = PermissionRank.values()[(ranks[cursor].ordinal() + 1) % PermissionRank.values().length];
+        ranks[cursor] = rank;
+
+        writer.upsertPlayerRank(playerUUID, rank).join();
+
+        long deadline = System.currentTimeMillis() + PROPAGATION_TIMEOUT_MILLIS;
+
+        while (reader.getCachedPlayerRank(playerUUID) != rank)
+        {
+            if (System.currentTimeMillis() > deadline)
+            {
+                throw new IllegalStateException("The rank change for " + playerUUID + " never reached the second " +
+                        "orchestrator!");
+            }
+
+            Thread.sleep(1);
+        }
+
+        return rank;
+    }
+
+    private void seedPlayers(SQLRankStore rankStore)
+    {
+        playerUUIDs = new UUID[PLAYER_COUNT];
+        ranks = new PermissionRank[PLAYER_COUNT];
+        Map<UUID, PermissionRank> seededRanks = new HashMap<>();
+
+        for (int i = 0; i < PLAYER_COUNT; i++)
+        {
+            playerUUIDs[i] = UUID.randomUUID();
+            ranks[i] = PermissionRank.values()[i % PermissionRank.values().length];
+            seededRanks.put(playerUUIDs[i], ranks[i]);
+        }
+
+        rankStore.saveRanks(seededRanks).join();
+    }
+}
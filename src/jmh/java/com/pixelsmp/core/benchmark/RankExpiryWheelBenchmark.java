@@ -0,0 +1,70 @@
+package com.pixelsmp.core.benchmark;
+
+import com.pixelsmp.core.permissions.RankExpiryWheel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One tick of the rank expiry wheel with tens of thousands of temporary ranks pending. Every rank that expires is
+ * given a new expiry at the far end of the horizon, so the number pending stays steady across iterations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RankExpiryWheelBenchmark
+{
+    private static final long TICK_MILLIS = 1000;
+    private static final long HORIZON_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    @Param({"10000", "50000"})
+    public int pendingRanks;
+
+    private RankExpiryWheel wheel;
+    private long nowMillis;
+
+    @Setup(Level.Iteration)
+    public void setUp()
+    {
+        Random random = new Random(42);
+        nowMillis = 0;
+        wheel = new RankExpiryWheel(TICK_MILLIS, HORIZON_MILLIS, nowMillis);
+
+        for (int i = 0; i < pendingRanks; i++)
+        {
+            wheel.schedule(new UUID(random.nextLong(), random.nextLong()),
+                    1 + (long) (random.nextDouble() * HORIZON_MILLIS));
+        }
+    }
+
+    @Benchmark
+    public int tick()
+    {
+        nowMillis += TICK_MILLIS;
+        List<UUID> due = wheel.advance(nowMillis);
+
+        for (UUID playerUUID : due)
+        {
+            wheel.schedule(playerUUID, nowMillis + HORIZON_MILLIS);
+        }
+
+        return due.size();
+    }
+}
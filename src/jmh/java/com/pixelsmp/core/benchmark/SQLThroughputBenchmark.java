@@ -0,0 +1,84 @@
+package com.pixelsmp.core.benchmark;
+
+import com.pixelsmp.core.database.sql.SQLConnectionManager;
+import com.pixelsmp.core.database.sql.SQLExecutionMode;
+import com.pixelsmp.core.permissions.PermissionStatements;
+import com.pixelsmp.core.util.UUIDUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-row query throughput of SQLConnectionManager#executeQueryAsync with 32 concurrent callers, across
+ * executor thread pool and Hikari pool sizes, in both execution modes. The thread pool size has no effect in
+ * virtual mode, so compare a virtual run against the platform runs with the same Hikari pool size. Virtual mode
+ * needs the benchmarks to run on Java 21 or newer; on older runtimes it silently measures the platform pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class SQLThroughputBenchmark
+{
+    private static final int PLAYER_COUNT = 10000;
+
+    @Param({"2", "5", "10"})
+    public int hikariPoolSize;
+
+    @Param({"2", "10", "32"})
+    public int threadPoolSize;
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public SQLExecutionMode executionMode;
+
+    private SQLConnectionManager sqlConnectionManager;
+    private byte[][] playerUUIDs;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        sqlConnectionManager = BenchmarkDatabase.create("throughput" + hikariPoolSize + "x" + threadPoolSize +
+                executionMode, hikariPoolSize, threadPoolSize, executionMode);
+
+        UUID[] uuids = BenchmarkDatabase.seedPlayers(sqlConnectionManager, PLAYER_COUNT);
+        playerUUIDs = new byte[uuids.length][];
+
+        for (int i = 0; i < uuids.length; i++)
+        {
+            playerUUIDs[i] = UUIDUtils.toBytes(uuids[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        BenchmarkDatabase.close(sqlConnectionManager);
+    }
+
+    @Benchmark
+    public Integer selectRank()
+    {
+        byte[] playerUUID = playerUUIDs[ThreadLocalRandom.current().nextInt(PLAYER_COUNT)];
+
+        return sqlConnectionManager.executeQueryAsync(PermissionStatements.SELECT_RANK,
+                rs -> rs.next() ? rs.getInt("rank_id") : null, playerUUID).join();
+    }
+}
@@ -0,0 +1,83 @@
+package com.pixelsmp.core.benchmark;
+
+import com.pixelsmp.core.database.sql.SQLConnectionManager;
+import com.pixelsmp.core.permissions.PermissionStatements;
+import com.pixelsmp.core.util.UUIDUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the single-player rank lookup (permissions.selectRank) with and without prepared statement caching.
+ *
+ * Against a scratch MySQL database (-Dpixelsmp.benchmark.mysqlUrl=jdbc:mysql://host/db, plus mysqlUsername and
+ * mysqlPassword; 10,000 players are inserted into its core_permissions table) this toggles Connector/J's
+ * client-side statement cache and server-side prepares, as configured in production. Without a server it falls
+ * back to embedded H2 and toggles H2's own parsed-statement cache, which only approximates the effect, so publish
+ * MySQL numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatementCachingBenchmark
+{
+    private static final int PLAYER_COUNT = 10000;
+
+    @Param({"false", "true"})
+    public boolean statementCaching;
+
+    private SQLConnectionManager sqlConnectionManager;
+    private byte[][] playerUUIDs;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        sqlConnectionManager = BenchmarkDatabase.createMySQL(statementCaching, 5, 10);
+
+        if (sqlConnectionManager == null)
+        {
+            sqlConnectionManager = BenchmarkDatabase.create("statementCaching" + statementCaching +
+                    (statementCaching ? "" : ";QUERY_CACHE_SIZE=0"), 5, 10);
+        }
+
+        UUID[] uuids = BenchmarkDatabase.seedPlayers(sqlConnectionManager, PLAYER_COUNT);
+        playerUUIDs = new byte[uuids.length][];
+
+        for (int i = 0; i < uuids.length; i++)
+        {
+            playerUUIDs[i] = UUIDUtils.toBytes(uuids[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        BenchmarkDatabase.close(sqlConnectionManager);
+    }
+
+    @Benchmark
+    public Integer selectRank()
+    {
+        byte[] playerUUID = playerUUIDs[cursor++ % PLAYER_COUNT];
+
+        return sqlConnectionManager.executeQueryAsync(PermissionStatements.SELECT_RANK,
+                rs -> rs.next() ? rs.getInt("rank_id") : null, playerUUID).join();
+    }
+}
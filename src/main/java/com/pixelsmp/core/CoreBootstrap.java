@@ -0,0 +1,171 @@
+package com.pixelsmp.core;
+
+import com.pixelsmp.core.chat.ChatFormatter;
+import com.pixelsmp.core.database.sql.SQLConnectionManager;
+import com.pixelsmp.core.permissions.PermissionOrchestrator;
+import org.bukkit.Bukkit;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+public class CoreBootstrap
+{
+    private final CompletableFuture<Void> readiness = new CompletableFuture<>();
+    private final SQLConnectionManager sqlConnectionManager;
+    private final PermissionOrchestrator permissionOrchestrator;
+    private final ExecutorService bootstrapExecutor;
+
+    /**
+     * Initializes a new bootstrap for the parts of the Core that need the database. Nothing is started until
+     * {@link #start()} is called.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     *
+     * @param sqlConnectionManager Connection manager whose pool is warmed up, or null if ranks are stored in memory
+     * @param permissionOrchestrator Orchestrator whose rank store is prepared and whose cache is seeded
+     */
+    public CoreBootstrap(SQLConnectionManager sqlConnectionManager, PermissionOrchestrator permissionOrchestrator)
+    {
+        this.sqlConnectionManager = sqlConnectionManager;
+        this.permissionOrchestrator = permissionOrchestrator;
+
+        this.bootstrapExecutor = Executors.newSingleThreadExecutor(runnable ->
+        {
+            Thread thread = new Thread(runnable, "PixelSMP-Core-Bootstrap");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    /**
+     * Starts the bootstrap phases without waiting for any of them. The connection pool is warmed up while the schema
+     * is created, and the cache is seeded as soon as the schema exists. Ranks warmed from a snapshot are served from
+     * then on, so the Core is ready without waiting for them to be reconciled against the store; that runs in the
+     * background afterwards. The time spent in each phase is logged.
+     *
+     * @return CompletableFuture that completes once the Core is ready, or completes exceptionally with the first
+     *         failure
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public CompletableFuture<Void> start()
+    {
+        long startedAtNanos = System.nanoTime();
+
+        CompletableFuture<Void> poolWarmUp = phase("connection pool warm-up", this::warmUpPool);
+        CompletableFuture<Void> schemaCreation = phase("schema creation", permissionOrchestrator::createSchema);
+
+        // Seeding reads the tables the schema phase creates, so it is the only phase that has to wait
+        CompletableFuture<Void> cacheSeeding = schemaCreation.thenCompose(result ->
+                phase("cache seeding", permissionOrchestrator::seedCache));
+
+        CompletableFuture.allOf(poolWarmUp, cacheSeeding).whenComplete((result, ex) ->
+        {
+            bootstrapExecutor.shutdown();
+
+            if (ex != null)
+            {
+                readiness.completeExceptionally(ex);
+                return;
+            }
+
+            Bukkit.getLogger().info(ChatFormatter.formatConsoleMessage("Core", "Bootstrap completed in " +
+                    elapsedMillis(startedAtNanos) + "ms.", false));
+            readiness.complete(null);
+
+            // Stale snapshot ranks are corrected on sessions through the rank listeners, so nobody waits on this
+            phase("snapshot reconciliation", () -> permissionOrchestrator.reconcileWarmCache().thenApply(
+                    corrected -> null));
+        });
+
+        return readiness;
+    }
+
+    /**
+     * Returns whether every bootstrap phase the Core depends on has finished successfully. Until then, logins and
+     * commands are refused.
+     *
+     * @return True if the Core is ready
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public boolean isReady()
+    {
+        return readiness.isDone() && !readiness.isCompletedExceptionally();
+    }
+
+    /**
+     * Returns the future that completes once the Core is ready.
+     *
+     * @return CompletableFuture that completes once the Core is ready
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public CompletableFuture<Void> getReadiness()
+    {
+        return readiness;
+    }
+
+    private CompletableFuture<Void> warmUpPool()
+    {
+        if (sqlConnectionManager == null)
+        {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // The health check waits for the pool's first connection, which may take up to the connection timeout
+        return CompletableFuture.runAsync(() ->
+        {
+            if (!sqlConnectionManager.isConnectionHealthy())
+            {
+                throw new IllegalStateException("Database connection initialization failed. Please review " +
+                        "stacktrace and try again.");
+            }
+
+            Bukkit.getLogger().info(ChatFormatter.formatConsoleMessage("Core", "Database connection " +
+                    "initialized successfully!", false));
+        }, bootstrapExecutor);
+    }
+
+    private CompletableFuture<Void> phase(String name, Supplier<CompletableFuture<Void>> action)
+    {
+        long startedAtNanos = System.nanoTime();
+        CompletableFuture<Void> future;
+
+        try
+        {
+            future = action.get();
+        }
+        catch (RuntimeException e)
+        {
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        return future.whenComplete((result, ex) ->
+        {
+            if (ex == null)
+            {
+                Bukkit.getLogger().info(ChatFormatter.formatConsoleMessage("Core", "Bootstrap phase " + name +
+                        " completed in " + elapsedMillis(startedAtNanos) + "ms.", false));
+            }
+            else
+            {
+                Bukkit.getLogger().warning(ChatFormatter.formatConsoleMessage("Core", "Bootstrap phase " + name +
+                        " failed after " + elapsedMillis(startedAtNanos) + "ms.", true));
+            }
+        });
+    }
+
+    private static long elapsedMillis(long startedAtNanos)
+    {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAtNanos);
+    }
+}
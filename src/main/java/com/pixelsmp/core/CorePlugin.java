@@ -1,22 +1,69 @@
 package com.pixelsmp.core;
 
+import com.pixelsmp.core.chat.ChatCapsStage;
 import com.pixelsmp.core.chat.ChatFormatter;
+import com.pixelsmp.core.chat.ChatMuteStage;
+import com.pixelsmp.core.chat.ChatPipeline;
+import com.pixelsmp.core.chat.ChatRateLimitStage;
+import com.pixelsmp.core.command.PixelCommand;
+import com.pixelsmp.core.command.chat.MuteCommand;
+import com.pixelsmp.core.command.chat.UnmuteCommand;
+import com.pixelsmp.core.command.metrics.CoreMetricsCommand;
+import com.pixelsmp.core.command.permissions.RankBroadcastCommand;
 import com.pixelsmp.core.command.permissions.SetRankCommand;
+import com.pixelsmp.core.command.permissions.StaffCommand;
+import com.pixelsmp.core.database.sql.SQLCircuitBreaker;
 import com.pixelsmp.core.database.sql.SQLConnectionManager;
+import com.pixelsmp.core.database.sql.SQLExecutionMode;
+import com.pixelsmp.core.database.sql.SQLWorkScheduler;
 import com.pixelsmp.core.listener.ChatEventListener;
 import com.pixelsmp.core.listener.PlayerJoinListener;
 import com.pixelsmp.core.listener.PlayerLeaveListener;
+import com.pixelsmp.core.listener.PlayerLoginListener;
+import com.pixelsmp.core.metrics.MetricsRegistry;
+import com.pixelsmp.core.metrics.PrometheusFileExporter;
+import com.pixelsmp.core.permissions.InMemoryRankStore;
+import com.pixelsmp.core.permissions.PermissionAttachmentManager;
+import com.pixelsmp.core.permissions.PermissionNodeTable;
 import com.pixelsmp.core.permissions.PermissionOrchestrator;
+import com.pixelsmp.core.permissions.PermissionRank;
+import com.pixelsmp.core.permissions.RankBatchLoader;
+import com.pixelsmp.core.permissions.RankCache;
+import com.pixelsmp.core.permissions.RankCacheSnapshot;
+import com.pixelsmp.core.permissions.RankCacheType;
+import com.pixelsmp.core.permissions.RankChangePoller;
+import com.pixelsmp.core.permissions.RankExpiryScheduler;
+import com.pixelsmp.core.permissions.RankStorageType;
+import com.pixelsmp.core.permissions.RankStore;
+import com.pixelsmp.core.permissions.SQLRankStore;
+import com.pixelsmp.core.permissions.RankWriteBehindQueue;
+import com.pixelsmp.core.util.BulkProfileLookup;
+import com.pixelsmp.core.util.PlayerUUIDResolver;
+import com.pixelsmp.core.util.PlayerUtils;
+import com.pixelsmp.core.util.TokenBucket;
 import org.bukkit.Bukkit;
 import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.permissions.Permission;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
 
 public final class CorePlugin extends JavaPlugin {
     private static CorePlugin instance;
     private static SQLConnectionManager sqlConnectionManager;
     private static PermissionOrchestrator permissionOrchestrator;
+    private static BulkProfileLookup bulkProfileLookup;
+    private static CoreBootstrap bootstrap;
+    private static PermissionAttachmentManager permissionAttachmentManager;
+    private static ChatPipeline chatPipeline;
 
     @Override
     public void onEnable() {
@@ -43,46 +90,238 @@ public final class CorePlugin extends JavaPlugin {
         // Load the configuration file
         FileConfiguration config = getConfig();
 
-        // Initialize the MySQL connection orchestrator
-        sqlConnectionManager = new SQLConnectionManager(
-                config.getString("mysql.host"),
-                config.getString("mysql.username"),
-                config.getString("mysql.password"),
-                config.getString("mysql.database"),
-                config.getInt("mysql.port"),
-                config.getInt("hikaricp.maximumPoolSize"),
-                config.getLong("hikaricp.timeoutMillis"),
-                config.getInt("threading.sql.maximumPoolSize")
-        );
-
-        // Verify the connection
-        if(!sqlConnectionManager.isConnectionHealthy())
-        {
-            // Connection is not valid -- send error and shut down
-            Bukkit.getLogger().warning(ChatFormatter.formatConsoleMessage("Core", "Database connection " +
-                    "initialization failed. Please review stacktrace and try again.", true));
-            Bukkit.getServer().shutdown();
-            return;
+        // Read the rank cache saved on the last shutdown first, since it needs nothing but the local disk
+        RankCacheSnapshot snapshot = null;
+
+        if(config.getBoolean("permissions.snapshot.enabled", true))
+        {
+            try
+            {
+                snapshot = RankCacheSnapshot.load(getSnapshotFile(config));
+            }
+            catch(IOException e)
+            {
+                Bukkit.getLogger().warning(ChatFormatter.formatConsoleMessage("Core", "Ignoring the rank cache " +
+                        "snapshot: " + e.getMessage(), true));
+            }
+        }
+
+        // Ranks are stored on the MySQL server, in an embedded database file or only in memory
+        RankStorageType storageType = RankStorageType.fromConfig(
+                config.getString("permissions.storage.type", "mysql"));
+        SQLExecutionMode executionMode = SQLExecutionMode.fromConfig(
+                config.getString("threading.sql.mode", "platform"));
+        SQLWorkScheduler workScheduler = new SQLWorkScheduler(
+                config.getInt("threading.sql.queue.interactiveCapacity", 1000),
+                config.getInt("threading.sql.queue.joinCriticalCapacity", 1000),
+                config.getInt("threading.sql.queue.backgroundCapacity", 200));
+        SQLCircuitBreaker circuitBreaker = new SQLCircuitBreaker(
+                config.getInt("threading.sql.circuitBreaker.failureThreshold", 5),
+                config.getLong("threading.sql.circuitBreaker.slowCallMillis", 2000),
+                config.getLong("threading.sql.circuitBreaker.openMillis", 5000));
+
+        if(storageType == RankStorageType.MYSQL)
+        {
+            // Initialize the MySQL connection orchestrator
+            sqlConnectionManager = new SQLConnectionManager(
+                    config.getString("mysql.host"),
+                    config.getString("mysql.username"),
+                    config.getString("mysql.password"),
+                    config.getString("mysql.database"),
+                    config.getInt("mysql.port"),
+                    config.getInt("hikaricp.maximumPoolSize"),
+                    config.getLong("hikaricp.timeoutMillis"),
+                    config.getInt("threading.sql.maximumPoolSize"),
+                    executionMode,
+                    workScheduler,
+                    circuitBreaker
+            );
+        }
+        else if(storageType == RankStorageType.EMBEDDED)
+        {
+            // Initialize the embedded database, stored relative to the plugin's data folder
+            sqlConnectionManager = new SQLConnectionManager(
+                    SQLConnectionManager.createEmbeddedConfig(
+                            new File(getDataFolder(), config.getString("permissions.storage.embedded.file", "ranks")),
+                            config.getInt("hikaricp.maximumPoolSize"),
+                            config.getLong("hikaricp.timeoutMillis")),
+                    config.getInt("threading.sql.maximumPoolSize"),
+                    executionMode,
+                    workScheduler,
+                    circuitBreaker
+            );
+        }
+
+        // The connection is verified by the bootstrap, off the main thread
+        if(sqlConnectionManager == null)
+        {
+            // Nothing to connect to, but make sure nobody mistakes this for persistent storage
+            Bukkit.getLogger().warning(ChatFormatter.formatConsoleMessage("Core", "Ranks are stored in memory " +
+                    "only and will be lost when the server stops.", true));
+        }
+
+        // Only a MySQL server can be shared with other servers, so only then are rank changes logged and polled
+        boolean changeLogEnabled = storageType == RankStorageType.MYSQL &&
+                config.getBoolean("permissions.changeLog.enabled", true);
+        int maxBatchSize = config.getInt("permissions.batchLoader.maxBatchSize", 500);
+        RankStore rankStore = sqlConnectionManager != null
+                ? new SQLRankStore(sqlConnectionManager, maxBatchSize, changeLogEnabled)
+                : new InMemoryRankStore();
+        RankChangePoller changePoller = changeLogEnabled
+                ? new RankChangePoller(rankStore,
+                        config.getLong("permissions.changeLog.pollIntervalMillis", 1000),
+                        config.getInt("permissions.changeLog.batchSize", 500),
+                        config.getLong("permissions.changeLog.gapTimeoutMillis", 10000),
+                        config.getLong("permissions.changeLog.retentionHours", 24) * 3600 * 1000)
+                : null;
+        RankExpiryScheduler expiryScheduler = config.getBoolean("permissions.expiry.enabled", true)
+                ? new RankExpiryScheduler(rankStore,
+                        config.getLong("permissions.expiry.tickMillis", 1000),
+                        config.getLong("permissions.expiry.horizonMinutes", 60) * 60 * 1000,
+                        config.getLong("permissions.expiry.refreshSeconds", 60) * 1000,
+                        config.getInt("permissions.expiry.batchSize", 500))
+                : null;
+
+        // Rank lookups are always batched; rank writes are batched unless write-behind has been switched off
+        RankBatchLoader batchLoader = new RankBatchLoader(rankStore,
+                config.getLong("permissions.batchLoader.windowMillis", 5), maxBatchSize);
+        RankWriteBehindQueue writeBehindQueue = config.getBoolean("permissions.writeBehind.enabled", true)
+                ? new RankWriteBehindQueue(rankStore,
+                        config.getInt("permissions.writeBehind.batchSize", 100),
+                        config.getLong("permissions.writeBehind.flushIntervalMillis", 250))
+                : null;
+
+        // Resident ranks are kept in a ConcurrentHashMap unless a more compact primitive map has been configured
+        RankCache rankCache = RankCacheType.fromConfig(config.getString("permissions.cache.type", "concurrent"))
+                .create(config.getInt("permissions.cache.expectedSize", 1000));
+
+        permissionOrchestrator = new PermissionOrchestrator(rankStore, batchLoader, writeBehindQueue, changePoller,
+                expiryScheduler, rankCache);
+
+        // Compile the permission nodes of every rank, and keep each online player's attachment in step with their rank
+        permissionAttachmentManager = new PermissionAttachmentManager(this, compilePermissionNodes());
+        permissionOrchestrator.addRankListener(permissionAttachmentManager::updateRank);
+
+        // Plugins enabled after the Core register their permissions later; recompile once all of them are known
+        Bukkit.getScheduler().runTask(this, () -> permissionAttachmentManager.setNodeTable(compilePermissionNodes()));
+
+        // While the database is unreachable, serve ranks from memory and keep rank changes until it is back
+        if(sqlConnectionManager != null)
+        {
+            sqlConnectionManager.getCircuitBreaker().addStateListener(state ->
+                    permissionOrchestrator.setStoreAvailable(state == SQLCircuitBreaker.State.CLOSED));
+        }
+
+        // Serve the snapshot's ranks right away; they are reconciled against the store in the background
+        if(snapshot != null)
+        {
+            int warmed = permissionOrchestrator.warmCache(snapshot.getRanks());
+
+            Bukkit.getLogger().info(ChatFormatter.formatConsoleMessage("Core", "Warmed the rank cache with " +
+                    warmed + " ranks from the snapshot.", false));
+            Bukkit.getScheduler().runTaskLaterAsynchronously(this, permissionOrchestrator::evictWarmEntries,
+                    Math.max(1, config.getLong("permissions.snapshot.graceSeconds", 300)) * 20);
         }
 
-        // Connection is valid -- send success message
-        Bukkit.getLogger().info(ChatFormatter.formatConsoleMessage("Core", "Database connection " +
-                "initialized successfully!", false));
+        // Configure the name to UUID resolver used by player lookups, with bulk lookups paced by a token bucket
+        bulkProfileLookup = new BulkProfileLookup(PlayerUtils.getHttpClient(),
+                config.getString("mojang.bulkProfileEndpoint", BulkProfileLookup.DEFAULT_BULK_PROFILE_ENDPOINT),
+                config.getLong("mojang.requestTimeoutMillis", 5000),
+                config.getLong("mojang.bulk.windowMillis", 50),
+                config.getInt("mojang.bulk.maxNamesPerRequest", 10),
+                new TokenBucket(config.getInt("mojang.rateLimit.capacity", 10),
+                        config.getDouble("mojang.rateLimit.refillPerSecond", 1.0)));
+        PlayerUUIDResolver resolver = new PlayerUUIDResolver(PlayerUtils.getHttpClient(), bulkProfileLookup,
+                config.getString("mojang.profileEndpoint", PlayerUUIDResolver.DEFAULT_PROFILE_ENDPOINT),
+                config.getLong("mojang.requestTimeoutMillis", 5000),
+                config.getInt("mojang.cache.maximumSize", 1000),
+                config.getLong("mojang.cache.ttlSeconds", 600) * 1000,
+                config.getLong("mojang.cache.negativeTtlSeconds", 60) * 1000);
+        PlayerUtils.setResolver(resolver);
 
-        permissionOrchestrator = new PermissionOrchestrator();
+        // Chat runs through ordered stages: mutes first, then spam throttling, then filters that rewrite the message
+        PermissionRank chatBypassRank = parseRank(config.getString("chat.bypassRank", "HELPER"), PermissionRank.HELPER);
+        ChatMuteStage muteStage = new ChatMuteStage();
+        chatPipeline = new ChatPipeline();
+        chatPipeline.addStage(muteStage);
+
+        if(config.getBoolean("chat.rateLimit.enabled", true))
+        {
+            chatPipeline.addStage(new ChatRateLimitStage(config.getInt("chat.rateLimit.capacity", 5),
+                    config.getDouble("chat.rateLimit.refillPerSecond", 1.0), chatBypassRank));
+        }
+
+        if(config.getBoolean("chat.caps.enabled", true))
+        {
+            chatPipeline.addStage(new ChatCapsStage(config.getInt("chat.caps.minimumLetters", 8),
+                    config.getInt("chat.caps.maximumUppercasePercent", 60), chatBypassRank));
+        }
+
+        // Register metrics sources, and export them for the node exporter if configured
+        if(sqlConnectionManager != null)
+        {
+            MetricsRegistry.register(sqlConnectionManager.getMetrics());
+        }
+
+        if(changePoller != null)
+        {
+            MetricsRegistry.register(changePoller);
+        }
+
+        if(expiryScheduler != null)
+        {
+            MetricsRegistry.register(expiryScheduler);
+        }
+
+        MetricsRegistry.register(permissionOrchestrator);
+        MetricsRegistry.register(resolver);
+        MetricsRegistry.register(chatPipeline);
+
+        if(config.getBoolean("metrics.prometheus.enabled", false))
+        {
+            long intervalTicks = Math.max(1, config.getLong("metrics.prometheus.intervalSeconds", 15)) * 20;
+
+            Bukkit.getScheduler().runTaskTimerAsynchronously(this, new PrometheusFileExporter(Paths.get(
+                    config.getString("metrics.prometheus.file", "plugins/PixelSMP-Core/metrics.prom"))),
+                    intervalTicks, intervalTicks);
+        }
 
         // Register Event Listeners
+        Bukkit.getServer().getPluginManager().registerEvents(new PlayerLoginListener(
+                config.getLong("permissions.preLoginTimeoutMillis", 5000),
+                config.getLong("permissions.loginHoldTimeoutMillis", 60000)), this);
         Bukkit.getServer().getPluginManager().registerEvents(new PlayerJoinListener(), this);
-        Bukkit.getServer().getPluginManager().registerEvents(new ChatEventListener(), this);
+        Bukkit.getServer().getPluginManager().registerEvents(new ChatEventListener(chatPipeline), this);
         Bukkit.getServer().getPluginManager().registerEvents(new PlayerLeaveListener(), this);
 
         // Register Commands
         getCommand("setrank").setExecutor(new SetRankCommand());
+        getCommand("coremetrics").setExecutor(new CoreMetricsCommand());
+        getCommand("mute").setExecutor(new MuteCommand(muteStage));
+        getCommand("unmute").setExecutor(new UnmuteCommand(muteStage));
+        getCommand("staff").setExecutor(new StaffCommand());
+        getCommand("rankbroadcast").setExecutor(new RankBroadcastCommand());
 
-        // As of right now, that's all we have! We'll add more features later.
-        // Send a successful startup notice
-        Bukkit.getLogger().info(ChatFormatter.formatConsoleMessage("Plugin Manager",
-                "PixelSMP Core has been successfully initialized!", false));
+        // Warm up the pool, create the schema and seed the cache in the background; until that has finished,
+        // logins and commands are refused rather than blocking the server thread
+        bootstrap = new CoreBootstrap(sqlConnectionManager, permissionOrchestrator);
+        bootstrap.start().whenComplete((result, ex) -> Bukkit.getScheduler().runTask(this, () ->
+        {
+            if(ex != null)
+            {
+                // The Core cannot run without its database -- send error and shut down
+                Bukkit.getLogger().warning(ChatFormatter.formatConsoleMessage("Core", "Initialization failed: " +
+                        ex.getMessage(), true));
+                ex.printStackTrace();
+                Bukkit.getServer().shutdown();
+                return;
+            }
+
+            // As of right now, that's all we have! We'll add more features later.
+            // Send a successful startup notice
+            Bukkit.getLogger().info(ChatFormatter.formatConsoleMessage("Plugin Manager",
+                    "PixelSMP Core has been successfully initialized!", false));
+        }));
     }
 
     @Override
@@ -90,6 +329,32 @@ public final class CorePlugin extends JavaPlugin {
         Bukkit.getLogger().info(ChatFormatter.formatConsoleMessage("Plugin Manager",
                 "Beginning deinitialization of PixelSMP Core...", false));
 
+        // Stop sending profile lookups
+        if(bulkProfileLookup != null)
+        {
+            bulkProfileLookup.close();
+        }
+
+        // Flush any pending rank writes while the database is still reachable
+        if(permissionOrchestrator != null)
+        {
+            permissionOrchestrator.shutdown(getConfig().getLong("permissions.writeBehind.shutdownTimeoutMillis", 10000));
+
+            // Save the rank cache so the next start can serve ranks before the database is reachable
+            if(getConfig().getBoolean("permissions.snapshot.enabled", true))
+            {
+                try
+                {
+                    RankCacheSnapshot.save(getSnapshotFile(getConfig()), permissionOrchestrator.getResidentRanks());
+                }
+                catch(IOException e)
+                {
+                    Bukkit.getLogger().warning(ChatFormatter.formatConsoleMessage("Core", "Failed to save the " +
+                            "rank cache snapshot: " + e.getMessage(), true));
+                }
+            }
+        }
+
         // Close the connection to the database
         if(sqlConnectionManager != null)
         {
@@ -101,8 +366,60 @@ public final class CorePlugin extends JavaPlugin {
                 "PixelSMP Core has been successfully deinitialized!", false));
     }
 
+    private PermissionNodeTable compilePermissionNodes() {
+        File file = new File(getDataFolder(), "permissions.yml");
+
+        if(!file.exists()) {
+            saveResource("permissions.yml", false);
+        }
+
+        // Intern every permission the server knows of, so checks against them are bit tests as well
+        Set<String> knownNodes = new HashSet<>();
+
+        for(Permission permission : Bukkit.getPluginManager().getPermissions()) {
+            knownNodes.add(permission.getName());
+        }
+
+        for(String command : getDescription().getCommands().keySet()) {
+            knownNodes.add(PixelCommand.getPermissionNode(command));
+        }
+
+        PermissionNodeTable nodeTable;
+
+        try {
+            nodeTable = PermissionNodeTable.fromConfig(
+                    YamlConfiguration.loadConfiguration(file).getConfigurationSection("ranks"), knownNodes);
+        } catch(IllegalArgumentException e) {
+            // Grant nothing rather than guess; commands still authorize by rank
+            Bukkit.getLogger().warning(ChatFormatter.formatConsoleMessage("Core", "Ignoring the permissions file: " +
+                    e.getMessage(), true));
+            nodeTable = new PermissionNodeTable(Collections.emptyMap(), knownNodes);
+        }
+
+        Bukkit.getLogger().info(ChatFormatter.formatConsoleMessage("Core", "Compiled " + nodeTable.getNodeCount() +
+                " permission nodes.", false));
+
+        return nodeTable;
+    }
+
+    private Path getSnapshotFile(FileConfiguration config) {
+        return getDataFolder().toPath().resolve(config.getString("permissions.snapshot.file", "rank-cache.bin"));
+    }
+
+    private static PermissionRank parseRank(String rank, PermissionRank defaultRank) {
+        try {
+            return PermissionRank.valueOf(rank.trim().toUpperCase(Locale.ROOT));
+        }
+        catch(IllegalArgumentException | NullPointerException e) {
+            Bukkit.getLogger().warning(ChatFormatter.formatConsoleMessage("Core", "Unknown rank " + rank +
+                    "; using " + defaultRank + " instead.", true));
+
+            return defaultRank;
+        }
+    }
+
     /**
-     * Returns the SQL Connection Orchestrator.
+     * Returns the SQL Connection Orchestrator, or null if ranks are stored in memory only.
      *
      * @author Bradley Hooten (bradleyah02@gmail.com)
      *
@@ -128,6 +445,45 @@ public final class CorePlugin extends JavaPlugin {
         return permissionOrchestrator;
     }
 
+    /**
+     * Returns the Permission Attachment Manager, which holds the compiled permission nodes of every rank.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @return Permission Attachment Manager instance
+     */
+    public static PermissionAttachmentManager getPermissionAttachmentManager() {
+        return permissionAttachmentManager;
+    }
+
+    /**
+     * Returns the Chat Pipeline every chat message is processed by, for adding stages of your own.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @return Chat Pipeline instance
+     */
+    public static ChatPipeline getChatPipeline() {
+        return chatPipeline;
+    }
+
+    /**
+     * Returns whether the Core has finished bootstrapping. Logins and commands are refused until it has.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @return True if the Core is ready
+     */
+    public static boolean isReady() {
+        return bootstrap != null && bootstrap.isReady();
+    }
+
     /**
      * Returns the Core Plugin instance.
      *
@@ -0,0 +1,76 @@
+package com.pixelsmp.core.chat;
+
+import com.pixelsmp.core.permissions.PermissionRank;
+
+import java.util.Locale;
+
+public class ChatCapsStage implements ChatStage
+{
+    private final int minimumLetters;
+    private final int maximumUppercasePercent;
+    private final int bypassLevel;
+
+    /**
+     * Initializes a new stage that lower-cases messages written mostly in capitals. Short messages, such as "GG" or
+     * "OK", are left alone.
+     *
+     * @param minimumLetters Number of letters a message needs before it is checked at all
+     * @param maximumUppercasePercent Largest share of capital letters, in percent, a message may have
+     * @param bypassRank Lowest rank whose messages are never checked
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public ChatCapsStage(int minimumLetters, int maximumUppercasePercent, PermissionRank bypassRank)
+    {
+        this.minimumLetters = Math.max(1, minimumLetters);
+        this.maximumUppercasePercent = maximumUppercasePercent;
+        this.bypassLevel = bypassRank.getPermissionLevel();
+    }
+
+    @Override
+    public String getName()
+    {
+        return "caps";
+    }
+
+    @Override
+    public void process(ChatContext context)
+    {
+        if (context.getRank().getPermissionLevel() >= bypassLevel)
+        {
+            return;
+        }
+
+        String message = context.getMessage();
+        int letters = 0;
+        int uppercaseLetters = 0;
+
+        for (int i = 0; i < message.length(); i++)
+        {
+            char c = message.charAt(i);
+
+            // Skip color codes, which are letters but not part of what the player wrote
+            if (c == '&' && i + 1 < message.length())
+            {
+                i++;
+                continue;
+            }
+
+            if (Character.isLetter(c))
+            {
+                letters++;
+
+                if (Character.isUpperCase(c))
+                {
+                    uppercaseLetters++;
+                }
+            }
+        }
+
+        if (letters >= minimumLetters && uppercaseLetters * 100 > letters * maximumUppercasePercent)
+        {
+            context.rewrite(message.toLowerCase(Locale.ROOT));
+        }
+    }
+}
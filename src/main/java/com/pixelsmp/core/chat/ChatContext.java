@@ -0,0 +1,158 @@
+package com.pixelsmp.core.chat;
+
+import com.pixelsmp.core.permissions.PermissionRank;
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+
+public final class ChatContext
+{
+    private final Player player;
+    private final UUID playerUUID;
+    private final PermissionRank rank;
+    private final long receivedNanos;
+    private String message;
+    private String feedback;
+    private boolean cancelled;
+
+    /**
+     * Initializes the context a single chat message is passed through the {@link ChatPipeline} in. A context is
+     * only ever touched by the thread handling its message, so it needs no synchronization.
+     *
+     * @param player The chatting player
+     * @param playerUUID The chatting player's UUID
+     * @param rank The chatting player's rank
+     * @param message The message as the player sent it
+     * @param receivedNanos The System.nanoTime() at which the message was received
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public ChatContext(Player player, UUID playerUUID, PermissionRank rank, String message, long receivedNanos)
+    {
+        this.player = player;
+        this.playerUUID = playerUUID;
+        this.rank = rank;
+        this.message = message;
+        this.receivedNanos = receivedNanos;
+    }
+
+    /**
+     * Returns the chatting player.
+     *
+     * @return The chatting player
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public Player getPlayer()
+    {
+        return player;
+    }
+
+    /**
+     * Returns the chatting player's UUID.
+     *
+     * @return The chatting player's UUID
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public UUID getPlayerUUID()
+    {
+        return playerUUID;
+    }
+
+    /**
+     * Returns the chatting player's rank.
+     *
+     * @return The chatting player's rank
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public PermissionRank getRank()
+    {
+        return rank;
+    }
+
+    /**
+     * Returns the System.nanoTime() at which the message was received. Stages should use this rather than reading
+     * the clock again.
+     *
+     * @return The time the message was received, in nanoseconds
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public long getReceivedNanos()
+    {
+        return receivedNanos;
+    }
+
+    /**
+     * Returns the message as rewritten by the stages so far.
+     *
+     * @return The current message
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public String getMessage()
+    {
+        return message;
+    }
+
+    /**
+     * Replaces the message passed on to the remaining stages and, eventually, to chat.
+     *
+     * @param message The rewritten message
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public void rewrite(String message)
+    {
+        this.message = message;
+    }
+
+    /**
+     * Cancels the message. No further stages run and the message is not sent.
+     *
+     * @param feedback Pre-rendered message telling the player why, or null to drop the message silently
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public void cancel(String feedback)
+    {
+        this.cancelled = true;
+        this.feedback = feedback;
+    }
+
+    /**
+     * Returns whether a stage has cancelled the message.
+     *
+     * @return True if the message was cancelled
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public boolean isCancelled()
+    {
+        return cancelled;
+    }
+
+    /**
+     * Returns the message telling the player why their message was cancelled.
+     *
+     * @return The pre-rendered feedback, or null if there is none
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public String getFeedback()
+    {
+        return feedback;
+    }
+}
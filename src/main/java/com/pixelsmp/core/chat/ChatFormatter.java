@@ -1,13 +1,34 @@
 package com.pixelsmp.core.chat;
 
+import com.pixelsmp.core.permissions.PermissionRank;
 import org.bukkit.ChatColor;
 
 public class ChatFormatter
 {
-    public static final String NO_PERMISSIONS_ERROR = formatChatMessage("Permissions",
+    // Translated "&{color}&l{RANK} &r&7" prefixes, indexed by PermissionRank ordinal and built once on class load
+    private static final String[] RANK_CHAT_PREFIXES = buildRankChatPrefixes();
+    // Separator between the player's name and their message; %2$s is where Bukkit inserts the message
+    private static final String RANK_CHAT_SUFFIX = ChatColor.translateAlternateColorCodes('&', " &r&7// ") + "%2$s";
+
+    // Templates are compiled once; rendering only substitutes values into pre-translated literal segments
+    private static final MessageTemplate CHAT_MESSAGE = MessageTemplate.compile("&3&L{sender}&R &8// &7{message}", true);
+    private static final MessageTemplate CHAT_ERROR = MessageTemplate.compile(
+            "&4&LERROR &R&8// &7{sender} &8// &7{message}", true);
+    private static final MessageTemplate CONSOLE_MESSAGE = MessageTemplate.compile("{sender} // {message}", false);
+    private static final MessageTemplate CONSOLE_ERROR = MessageTemplate.compile("ERROR // {sender} // {message}", false);
+    private static final MessageTemplate COMMAND_USAGE = MessageTemplate.compile("&4&LERROR &R&8// &7Command Usage " +
+            "&8// &7Incorrect usage. The correct usage is: &c{usage}&7.", true);
+
+    public static final String NO_PERMISSIONS_ERROR = MessageRegistry.register("core.noPermissions", "Permissions",
             "You do not have permission to execute this command.", true);
-    public static final String UNKNOWN_ERROR = formatChatMessage("Core",
+    public static final String UNKNOWN_ERROR = MessageRegistry.register("core.unknownError", "Core",
             "We were unable to process your request due to an unknown error.", true);
+    public static final String PLAYER_ONLY_ERROR = MessageRegistry.register("core.playerOnly", "Command Orchestrator",
+            "This command can only be executed by a player.", true);
+    public static final String PROFILE_ERROR = MessageRegistry.register("core.profileError", "Core",
+            "An error occurred while trying to initialize your profile. Please contact an administrator.", true);
+    public static final String NOT_READY_ERROR = MessageRegistry.register("core.notReady", "Core",
+            "The server is still starting up. Please try again in a moment.", true);
 
     /**
      * This method formats a chat message with the given sender and message.
@@ -28,14 +49,12 @@ public class ChatFormatter
         if(error)
         {
             // Effective Format is &4&lERROR &r&8// &7{sender} &8// &7{message}
-            return ChatColor.translateAlternateColorCodes('&', "&4&LERROR &R&8// &7" +
-                    sender + " &8// &7" + message);
+            return CHAT_ERROR.render(sender, message);
         }
         else
         {
             // Effective Format is &3&l{sender} &r&8// &7{message}
-            return ChatColor.translateAlternateColorCodes('&', "&3&L" +
-                    sender + "&R &8// &7" + message);
+            return CHAT_MESSAGE.render(sender, message);
         }
     }
 
@@ -54,7 +73,7 @@ public class ChatFormatter
      */
     public static String formatConsoleMessage(String sender, String message, boolean error)
     {
-        return (error ? "ERROR // " : "") + sender + " // " + message;
+        return (error ? CONSOLE_ERROR : CONSOLE_MESSAGE).render(sender, message);
     }
 
     /**
@@ -68,6 +87,57 @@ public class ChatFormatter
      */
     public static String formatCommandUsage(String commandUsage)
     {
-        return formatChatMessage("Command Usage", "Incorrect usage. The correct usage is: &c" + commandUsage + "&7.", true);
+        return COMMAND_USAGE.render(commandUsage);
+    }
+
+    /**
+     * This method returns the chat format for a player of the given rank, built from the precompiled rank prefix.
+     * The player's message is not part of the format; Bukkit substitutes it for the %2$s placeholder, so it can
+     * never be interpreted as a format string.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @param rank The rank of the chatting player
+     * @param playerName The name of the chatting player
+     *
+     * @return The format to pass to AsyncPlayerChatEvent#setFormat
+     */
+    public static String formatRankChat(PermissionRank rank, String playerName)
+    {
+        return RANK_CHAT_PREFIXES[rank.ordinal()].concat(playerName).concat(RANK_CHAT_SUFFIX);
+    }
+
+    /**
+     * This method translates '&' color codes in a player's chat message. Messages without an '&' are returned
+     * as-is, so the common case costs a single scan and no allocation.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @param message The chat message to translate
+     *
+     * @return The translated chat message
+     */
+    public static String translateChatMessage(String message)
+    {
+        return message.indexOf('&') < 0 ? message : ChatColor.translateAlternateColorCodes('&', message);
+    }
+
+    private static String[] buildRankChatPrefixes()
+    {
+        PermissionRank[] ranks = PermissionRank.values();
+        String[] prefixes = new String[ranks.length];
+
+        for (PermissionRank rank : ranks)
+        {
+            // Escape '%' so the prefix is safe to use inside a format string
+            prefixes[rank.ordinal()] = ChatColor.translateAlternateColorCodes('&', "&" + rank.getColorCode() +
+                    "&l" + rank.getName() + " &r&7").replace("%", "%%");
+        }
+
+        return prefixes;
     }
 }
@@ -0,0 +1,82 @@
+package com.pixelsmp.core.chat;
+
+import com.pixelsmp.core.util.DurationUtils;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ChatMuteStage implements ChatStage
+{
+    private static final String MUTED = MessageRegistry.register("chat.muted", "Chat",
+            "You are muted and cannot chat.", true);
+
+    // Expiry of each mute in milliseconds since the epoch, Long.MAX_VALUE for mutes that never expire
+    private final ConcurrentHashMap<UUID, Long> _mutes = new ConcurrentHashMap<>();
+
+    @Override
+    public String getName()
+    {
+        return "mute";
+    }
+
+    @Override
+    public void process(ChatContext context)
+    {
+        // Nobody is muted almost all of the time, so this is usually the only check
+        if (_mutes.isEmpty())
+        {
+            return;
+        }
+
+        Long expiresAtMillis = _mutes.get(context.getPlayerUUID());
+
+        if (expiresAtMillis == null)
+        {
+            return;
+        }
+
+        long remainingMillis = expiresAtMillis - System.currentTimeMillis();
+
+        if (remainingMillis <= 0)
+        {
+            // Only drop the mute that expired, not one placed meanwhile
+            _mutes.remove(context.getPlayerUUID(), expiresAtMillis);
+            return;
+        }
+
+        context.cancel(expiresAtMillis == Long.MAX_VALUE ? MUTED : ChatFormatter.formatChatMessage("Chat",
+                "You are muted for another &c" + DurationUtils.format(remainingMillis) + "&7.", true));
+    }
+
+    /**
+     * Mutes a player, replacing any mute they already have. Mutes are kept in memory and are lost when the server
+     * stops; they survive the player leaving.
+     *
+     * @param playerUUID Player to mute
+     * @param expiresAtMillis Time the mute expires, in milliseconds since the epoch, or 0 for a mute that never does
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public void mute(UUID playerUUID, long expiresAtMillis)
+    {
+        _mutes.put(playerUUID, expiresAtMillis > 0 ? expiresAtMillis : Long.MAX_VALUE);
+    }
+
+    /**
+     * Lifts a player's mute.
+     *
+     * @param playerUUID Player to unmute
+     *
+     * @return True if the player was muted
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public boolean unmute(UUID playerUUID)
+    {
+        Long expiresAtMillis = _mutes.remove(playerUUID);
+
+        return expiresAtMillis != null && expiresAtMillis > System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,270 @@
+package com.pixelsmp.core.chat;
+
+import com.pixelsmp.core.metrics.MetricsSource;
+import com.pixelsmp.core.metrics.PrometheusTextBuilder;
+import com.pixelsmp.core.permissions.PermissionRank;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ChatPipeline implements MetricsSource
+{
+    private final LongAdder messages = new LongAdder();
+    private final LongAdder cancelledMessages = new LongAdder();
+    private final LongAdder pipelineNanos = new LongAdder();
+
+    // Copied on write, so processing a message reads the stages without taking a lock
+    private volatile StageEntry[] stages = new StageEntry[0];
+
+    /**
+     * Appends a stage to the pipeline. Messages already being processed are not affected.
+     *
+     * @param stage The stage to add
+     *
+     * @throws IllegalArgumentException If a stage with the same name has already been added
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public synchronized void addStage(ChatStage stage)
+    {
+        for (StageEntry entry : stages)
+        {
+            if (entry.stage.getName().equals(stage.getName()))
+            {
+                throw new IllegalArgumentException("A chat stage named " + stage.getName() + " already exists!");
+            }
+        }
+
+        StageEntry[] grownStages = Arrays.copyOf(stages, stages.length + 1);
+        grownStages[stages.length] = new StageEntry(stage);
+        stages = grownStages;
+    }
+
+    /**
+     * Removes the stage with the given name from the pipeline.
+     *
+     * @param name The name of the stage to remove
+     *
+     * @return True if a stage was removed
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public synchronized boolean removeStage(String name)
+    {
+        List<StageEntry> remainingStages = new ArrayList<>(Arrays.asList(stages));
+
+        if (!remainingStages.removeIf(entry -> entry.stage.getName().equals(name)))
+        {
+            return false;
+        }
+
+        stages = remainingStages.toArray(new StageEntry[0]);
+
+        return true;
+    }
+
+    /**
+     * Returns the names of the stages, in the order they run.
+     *
+     * @return The stage names
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public List<String> getStageNames()
+    {
+        List<String> names = new ArrayList<>();
+
+        for (StageEntry entry : stages)
+        {
+            names.add(entry.stage.getName());
+        }
+
+        return names;
+    }
+
+    /**
+     * Passes a chat message through every stage, in order, until one cancels it.
+     *
+     * @param player The chatting player
+     * @param rank The chatting player's rank
+     * @param message The message as the player sent it
+     *
+     * @return The processed context, holding the rewritten message or the reason it was cancelled
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public ChatContext process(Player player, PermissionRank rank, String message)
+    {
+        ChatContext context = new ChatContext(player, player.getUniqueId(), rank, message, System.nanoTime());
+        process(context);
+
+        return context;
+    }
+
+    /**
+     * Passes a chat message through every stage, in order, until one cancels it.
+     *
+     * @param context Context of the message to process
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public void process(ChatContext context)
+    {
+        // One clock read per stage; each stage is timed from the end of the one before it
+        long stageStart = context.getReceivedNanos();
+
+        for (StageEntry entry : stages)
+        {
+            String message = context.getMessage();
+
+            try
+            {
+                entry.stage.process(context);
+            }
+            catch (RuntimeException e)
+            {
+                // A broken stage must not take chat down with it; the message carries on to the next one
+                entry.errors.increment();
+
+                if (Bukkit.getServer() != null)
+                {
+                    Bukkit.getLogger().warning(ChatFormatter.formatConsoleMessage("Chat", "The chat stage " +
+                            entry.stage.getName() + " failed: " + e, true));
+                }
+            }
+
+            long stageEnd = System.nanoTime();
+            entry.invocations.increment();
+            entry.nanos.add(stageEnd - stageStart);
+            stageStart = stageEnd;
+
+            if (context.isCancelled())
+            {
+                entry.cancelled.increment();
+                cancelledMessages.increment();
+                break;
+            }
+
+            if (context.getMessage() != message)
+            {
+                entry.rewritten.increment();
+            }
+        }
+
+        messages.increment();
+        pipelineNanos.add(stageStart - context.getReceivedNanos());
+    }
+
+    /**
+     * Drops the state every stage keeps for a player who has left the server.
+     *
+     * @param playerUUID Player who left
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public void forgetPlayer(UUID playerUUID)
+    {
+        for (StageEntry entry : stages)
+        {
+            entry.stage.forgetPlayer(playerUUID);
+        }
+    }
+
+    /**
+     * Returns the number of messages processed.
+     *
+     * @return The counter value since the pipeline was created
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public long getMessages()
+    {
+        return messages.sum();
+    }
+
+    /**
+     * Returns the number of messages cancelled by a stage.
+     *
+     * @return The counter value since the pipeline was created
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public long getCancelledMessages()
+    {
+        return cancelledMessages.sum();
+    }
+
+    /**
+     * Returns the total time spent processing messages.
+     *
+     * @return The time spent in every stage, in nanoseconds
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public long getPipelineNanos()
+    {
+        return pipelineNanos.sum();
+    }
+
+    @Override
+    public void collectMetrics(PrometheusTextBuilder builder)
+    {
+        builder.counter("pixelsmp_chat_messages_total", "Chat messages processed by the chat pipeline.",
+                        messages.sum())
+                .counter("pixelsmp_chat_messages_cancelled_total", "Chat messages cancelled by a chat stage.",
+                        cancelledMessages.sum())
+                .counter("pixelsmp_chat_pipeline_seconds_total", "Time spent processing chat messages.",
+                        toSeconds(pipelineNanos.sum()));
+
+        for (StageEntry entry : stages)
+        {
+            String name = entry.stage.getName();
+
+            builder.counter("pixelsmp_chat_stage_invocations_total", "Chat messages processed by each chat stage.",
+                            entry.invocations.sum(), "stage", name)
+                    .counter("pixelsmp_chat_stage_seconds_total", "Time spent in each chat stage.",
+                            toSeconds(entry.nanos.sum()), "stage", name)
+                    .counter("pixelsmp_chat_stage_cancelled_total", "Chat messages cancelled by each chat stage.",
+                            entry.cancelled.sum(), "stage", name)
+                    .counter("pixelsmp_chat_stage_rewritten_total", "Chat messages rewritten by each chat stage.",
+                            entry.rewritten.sum(), "stage", name)
+                    .counter("pixelsmp_chat_stage_errors_total", "Chat stage invocations that threw an exception.",
+                            entry.errors.sum(), "stage", name);
+        }
+    }
+
+    private static double toSeconds(long nanos)
+    {
+        return nanos / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    private static final class StageEntry
+    {
+        private final ChatStage stage;
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder cancelled = new LongAdder();
+        private final LongAdder rewritten = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        private StageEntry(ChatStage stage)
+        {
+            this.stage = stage;
+        }
+    }
+}
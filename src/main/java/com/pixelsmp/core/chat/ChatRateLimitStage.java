@@ -0,0 +1,111 @@
+package com.pixelsmp.core.chat;
+
+import com.pixelsmp.core.permissions.PermissionRank;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ChatRateLimitStage implements ChatStage
+{
+    private static final String RATE_LIMITED = MessageRegistry.register("chat.rateLimited", "Chat",
+            "You are sending messages too quickly. Please slow down.", true);
+
+    // Each bucket is a single long: the time at which it will be full again, as System.nanoTime()
+    private final ConcurrentHashMap<UUID, AtomicLong> _buckets = new ConcurrentHashMap<>();
+    private final long refillNanos;
+    private final long burstNanos;
+    private final int bypassLevel;
+
+    /**
+     * Initializes a new stage that gives every player their own token bucket for chat messages, each starting full.
+     * Unlike {@link com.pixelsmp.core.util.TokenBucket}, a bucket is not a token count and a refill time behind a
+     * lock, but a single atomic long holding the time the bucket is full again. Taking a token is one
+     * compare-and-set that pushes that time on by a token's worth, and is refused if it would end up more than the
+     * capacity's worth ahead of now. Chat threads therefore never block on one another.
+     *
+     * @param capacity Maximum number of tokens each bucket can hold, i.e. messages that may be sent back to back
+     * @param refillPerSecond Number of tokens added back to each bucket every second
+     * @param bypassRank Lowest rank that is never rate limited
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public ChatRateLimitStage(long capacity, double refillPerSecond, PermissionRank bypassRank)
+    {
+        if (capacity < 1 || refillPerSecond <= 0)
+        {
+            throw new IllegalArgumentException("A token bucket needs a positive capacity and refill rate!");
+        }
+
+        this.refillNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond));
+        this.burstNanos = refillNanos * (capacity - 1);
+        this.bypassLevel = bypassRank.getPermissionLevel();
+    }
+
+    @Override
+    public String getName()
+    {
+        return "rateLimit";
+    }
+
+    @Override
+    public void process(ChatContext context)
+    {
+        if (context.getRank().getPermissionLevel() >= bypassLevel)
+        {
+            return;
+        }
+
+        if (!tryAcquire(context.getPlayerUUID(), context.getReceivedNanos()))
+        {
+            context.cancel(RATE_LIMITED);
+        }
+    }
+
+    @Override
+    public void forgetPlayer(UUID playerUUID)
+    {
+        _buckets.remove(playerUUID);
+    }
+
+    /**
+     * Takes a token from the player's bucket, if one is left.
+     *
+     * @param playerUUID Player whose bucket to take the token from
+     * @param nowNanos The current System.nanoTime()
+     *
+     * @return True if a token was taken and the message may be sent
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public boolean tryAcquire(UUID playerUUID, long nowNanos)
+    {
+        AtomicLong bucket = _buckets.get(playerUUID);
+
+        if (bucket == null)
+        {
+            bucket = _buckets.computeIfAbsent(playerUUID, key -> new AtomicLong(nowNanos));
+        }
+
+        while (true)
+        {
+            long fullAtNanos = bucket.get();
+
+            // A bucket that filled up in the past is simply full; compared by difference, as nanoTime may wrap
+            long fromNanos = fullAtNanos - nowNanos > 0 ? fullAtNanos : nowNanos;
+
+            if (fromNanos - nowNanos > burstNanos)
+            {
+                return false;
+            }
+
+            if (bucket.compareAndSet(fullAtNanos, fromNanos + refillNanos))
+            {
+                return true;
+            }
+        }
+    }
+}
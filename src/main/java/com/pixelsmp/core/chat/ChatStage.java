@@ -0,0 +1,36 @@
+package com.pixelsmp.core.chat;
+
+import java.util.UUID;
+
+/**
+ * A single step of the {@link ChatPipeline}, such as a mute check or a spam filter. Stages run in the order they
+ * were added, on whichever thread delivers the chat event, and must therefore be thread-safe and must never block.
+ *
+ * @author Bradley Hooten (bradleyah02@gmail.com)
+ * @since 1.2.0
+ */
+public interface ChatStage
+{
+    /**
+     * Returns the name the stage's metrics are labelled with.
+     *
+     * @return The stage's name, for example "rateLimit"
+     */
+    String getName();
+
+    /**
+     * Processes a chat message, optionally rewriting or cancelling it.
+     *
+     * @param context Context of the message being processed
+     */
+    void process(ChatContext context);
+
+    /**
+     * Drops any state kept for a player who has left the server.
+     *
+     * @param playerUUID Player who left
+     */
+    default void forgetPlayer(UUID playerUUID)
+    {
+    }
+}
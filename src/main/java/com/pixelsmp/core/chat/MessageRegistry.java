@@ -0,0 +1,74 @@
+package com.pixelsmp.core.chat;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class MessageRegistry
+{
+    private static final ConcurrentHashMap<String, String> _messages = new ConcurrentHashMap<>();
+
+    private MessageRegistry()
+    {
+    }
+
+    /**
+     * This method renders a chat message once and stores it under the given key, so it can be sent repeatedly
+     * without being formatted again. Registering an existing key replaces its message.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @param key The key to store the message under; for example, "core.noPermissions"
+     * @param sender The sending service to present to the player; for example, "Punishments" or "Chat"
+     * @param message The message to send to the player
+     * @param error Whether the message is an error message
+     *
+     * @return The pre-rendered chat message
+     */
+    public static String register(String key, String sender, String message, boolean error)
+    {
+        String rendered = ChatFormatter.formatChatMessage(sender, message, error);
+        _messages.put(key, rendered);
+
+        return rendered;
+    }
+
+    /**
+     * This method returns the pre-rendered message stored under the given key.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @param key The key the message was registered under
+     *
+     * @return The pre-rendered chat message
+     */
+    public static String get(String key)
+    {
+        String rendered = _messages.get(key);
+
+        if (rendered == null)
+        {
+            throw new IllegalArgumentException("No message has been registered under the key " + key + "!");
+        }
+
+        return rendered;
+    }
+
+    /**
+     * This method checks whether a message has been registered under the given key.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @param key The key to check
+     *
+     * @return True if a message is registered under the key
+     */
+    public static boolean contains(String key)
+    {
+        return _messages.containsKey(key);
+    }
+}
@@ -0,0 +1,161 @@
+package com.pixelsmp.core.chat;
+
+import org.bukkit.ChatColor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public final class MessageTemplate
+{
+    private static final String COLOR_CODES = "0123456789AaBbCcDdEeFfKkLlMmNnOoRrXx";
+    private static final int MAX_RETAINED_BUILDER_CAPACITY = 1024;
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private final String[] literals;
+    private final String[] placeholders;
+    private final boolean translateValues;
+    private final int literalLength;
+
+    private MessageTemplate(String[] literals, String[] placeholders, boolean translateValues)
+    {
+        this.literals = literals;
+        this.placeholders = placeholders;
+        this.translateValues = translateValues;
+
+        int length = 0;
+
+        for (String literal : literals)
+        {
+            length += literal.length();
+        }
+
+        this.literalLength = length;
+    }
+
+    /**
+     * This method parses a message template into literal and placeholder segments. Placeholders are written as
+     * {name}; '&' color codes in the literal segments are translated here, once, rather than on every render.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @param template The template to compile; for example, "&3&L{sender}&R &8// &7{message}"
+     * @param translateValues Whether '&' color codes in the values passed to render should be translated
+     *
+     * @return The compiled template
+     */
+    public static MessageTemplate compile(String template, boolean translateValues)
+    {
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        int literalStart = 0;
+        int index = 0;
+
+        while ((index = template.indexOf('{', index)) >= 0)
+        {
+            int end = template.indexOf('}', index);
+
+            // An unterminated or empty brace is kept as literal text
+            if (end < 0 || end == index + 1)
+            {
+                break;
+            }
+
+            literals.add(ChatColor.translateAlternateColorCodes('&', template.substring(literalStart, index)));
+            placeholders.add(template.substring(index + 1, end));
+
+            literalStart = end + 1;
+            index = literalStart;
+        }
+
+        literals.add(ChatColor.translateAlternateColorCodes('&', template.substring(literalStart)));
+
+        return new MessageTemplate(literals.toArray(new String[0]), placeholders.toArray(new String[0]),
+                translateValues);
+    }
+
+    /**
+     * This method renders the template with the given values, using a builder reused by the calling thread.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @param values The values to substitute, in the order their placeholders appear in the template
+     *
+     * @return The rendered message
+     */
+    public String render(String... values)
+    {
+        if (values.length != placeholders.length)
+        {
+            throw new IllegalArgumentException("Template expects " + placeholders.length + " values " +
+                    Arrays.toString(placeholders) + " but received " + values.length + ".");
+        }
+
+        StringBuilder builder = BUILDER.get();
+        builder.setLength(0);
+        builder.ensureCapacity(literalLength + 64);
+
+        for (int i = 0; i < values.length; i++)
+        {
+            builder.append(literals[i]);
+
+            if (translateValues)
+            {
+                appendTranslated(builder, values[i]);
+            }
+            else
+            {
+                builder.append(values[i]);
+            }
+        }
+
+        String rendered = builder.append(literals[values.length]).toString();
+
+        // Don't let one unusually long message pin a large buffer to the thread forever
+        if (builder.capacity() > MAX_RETAINED_BUILDER_CAPACITY)
+        {
+            BUILDER.remove();
+        }
+
+        return rendered;
+    }
+
+    /**
+     * Returns the placeholder names of this template, in the order their values are expected by render.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @return The placeholder names
+     */
+    public String[] getPlaceholders()
+    {
+        return placeholders.clone();
+    }
+
+    private static void appendTranslated(StringBuilder builder, String value)
+    {
+        String text = String.valueOf(value);
+        int length = text.length();
+
+        // Single pass equivalent of ChatColor#translateAlternateColorCodes that writes straight into the builder
+        for (int i = 0; i < length; i++)
+        {
+            char c = text.charAt(i);
+
+            if (c == '&' && i + 1 < length && COLOR_CODES.indexOf(text.charAt(i + 1)) >= 0)
+            {
+                builder.append(ChatColor.COLOR_CHAR).append(Character.toLowerCase(text.charAt(++i)));
+            }
+            else
+            {
+                builder.append(c);
+            }
+        }
+    }
+}
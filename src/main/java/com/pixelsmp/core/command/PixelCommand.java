@@ -2,25 +2,59 @@ package com.pixelsmp.core.command;
 
 import com.pixelsmp.core.CorePlugin;
 import com.pixelsmp.core.chat.ChatFormatter;
+import com.pixelsmp.core.permissions.PermissionAttachmentManager;
 import com.pixelsmp.core.permissions.PermissionRank;
+import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.ConsoleCommandSender;
 import org.bukkit.entity.Player;
 
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Locale;
+
 public abstract class PixelCommand implements CommandExecutor
 {
     private final String baseCommand;
-    private final PermissionRank[] allowedRanks;
+    private final EnumSet<PermissionRank> allowedRanks;
+    private final String permissionNode;
     private final boolean consoleExecutionAllowed;
 
     public PixelCommand(String baseCommand, PermissionRank[] allowedRanks,
                         boolean consoleExecutionAllowed)
     {
         this.baseCommand = baseCommand;
-        this.allowedRanks = allowedRanks;
+        this.permissionNode = getPermissionNode(baseCommand);
         this.consoleExecutionAllowed = consoleExecutionAllowed;
+
+        // EnumSet is a single-word bitmask for our rank count, so authorization is one bit test
+        this.allowedRanks = EnumSet.noneOf(PermissionRank.class);
+
+        if (allowedRanks != null)
+        {
+            this.allowedRanks.addAll(Arrays.asList(allowedRanks));
+        }
+    }
+
+    /**
+     * Creates a command that every rank at or above the given permission level may execute.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @param baseCommand The command this executor handles
+     * @param minimumPermissionLevel The lowest permission level allowed to execute the command
+     * @param consoleExecutionAllowed Whether the console may execute the command
+     *
+     * @see PermissionRank#getPermissionLevel()
+     */
+    public PixelCommand(String baseCommand, int minimumPermissionLevel, boolean consoleExecutionAllowed)
+    {
+        this(baseCommand, PermissionRank.getRanksWithLevelGreaterThan(minimumPermissionLevel),
+                consoleExecutionAllowed);
     }
 
     @Override
@@ -28,6 +62,13 @@ public abstract class PixelCommand implements CommandExecutor
     {
         if(command.getName().equalsIgnoreCase(baseCommand))
         {
+            // Ranks cannot be trusted until the Core has finished bootstrapping, so nobody may execute anything yet
+            if(!CorePlugin.isReady())
+            {
+                commandSender.sendMessage(ChatFormatter.NOT_READY_ERROR);
+                return true;
+            }
+
             // Check if the sender is a player or console (and do not include command blocks)
             if(consoleExecutionAllowed && commandSender instanceof ConsoleCommandSender)
             {
@@ -36,44 +77,38 @@ public abstract class PixelCommand implements CommandExecutor
             }
             else if(commandSender instanceof Player)
             {
-                // The sender is a player, fetch rank and check against allowed ranks
-                CorePlugin.getPermissionOrchestrator().getPlayerRank(((Player) commandSender).getUniqueId()).thenApply(rank ->
-                {
-                    // The player does not have a rank, set it to MEMBER
-                    // Something is clearly wrong, as any player should get the rank upon join.
-                    return rank.orElse(PermissionRank.MEMBER);
-                }).thenAccept(rank ->
+                // Online players are always resident, so this is the path virtually every command takes
+                PermissionRank cachedRank = CorePlugin.getPermissionOrchestrator()
+                        .getCachedPlayerRank(((Player) commandSender).getUniqueId());
+
+                if(cachedRank != null)
                 {
-                    // Check if the rank is allowed to execute the command
-                    if(rank != null && allowedRanks != null)
-                    {
-                        for(PermissionRank allowedRank : allowedRanks)
+                    authorizeAndExecute(cachedRank, commandSender, command, s, strings);
+                    return true;
+                }
+
+                // Cache miss -- load the rank, then hand the result back to the server thread before executing
+                CorePlugin.getPermissionOrchestrator().getPlayerRank(((Player) commandSender).getUniqueId())
+                        .whenComplete((rank, ex) -> Bukkit.getScheduler().runTask(CorePlugin.getInstance(), () ->
                         {
-                            if(allowedRank == rank)
+                            if(ex != null)
                             {
-                                // The rank is allowed to execute the command, pass it!
-                                execute(commandSender, command, s, strings);
+                                // Something went wrong while fetching the rank, send a message
+                                commandSender.sendMessage(ChatFormatter.UNKNOWN_ERROR);
+                                ex.printStackTrace();
                                 return;
                             }
-                        }
-                    }
 
-                    // The rank is not allowed to execute the command, send a message
-                    commandSender.sendMessage(ChatFormatter.NO_PERMISSIONS_ERROR);
-                }).exceptionally(ex ->
-                {
-                    // Something went wrong while fetching the rank, send a message
-                    commandSender.sendMessage(ChatFormatter.UNKNOWN_ERROR);
-                    ex.printStackTrace();
-
-                    return null;
-                });
+                            // The player does not have a rank, set it to MEMBER
+                            // Something is clearly wrong, as any player should get the rank upon join.
+                            authorizeAndExecute(rank.orElse(PermissionRank.MEMBER), commandSender, command, s,
+                                    strings);
+                        }));
             }
             else
             {
                 // The sender is not a player and console execution is not allowed, send a message
-                commandSender.sendMessage(ChatFormatter.formatChatMessage("Command Orchestrator",
-                        "This command can only be executed by a player.", true));
+                commandSender.sendMessage(ChatFormatter.PLAYER_ONLY_ERROR);
             }
 
             return true;
@@ -81,5 +116,67 @@ public abstract class PixelCommand implements CommandExecutor
         return false;
     }
 
+    /**
+     * Returns the permission node that lets a rank execute the given command regardless of its permission level.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @param baseCommand The command
+     *
+     * @return The permission node of the command
+     */
+    public static String getPermissionNode(String baseCommand)
+    {
+        return "pixelsmp.command." + baseCommand.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Checks whether the given rank may execute this command, either because it is one of the allowed ranks or
+     * because the permissions file grants it the command's permission node.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @param rank The rank to check
+     *
+     * @return True if the rank is allowed to execute this command
+     */
+    public final boolean isAuthorized(PermissionRank rank)
+    {
+        if (rank == null)
+        {
+            return false;
+        }
+
+        if (allowedRanks.contains(rank))
+        {
+            return true;
+        }
+
+        // The node table is only compiled once the plugin is enabled
+        PermissionAttachmentManager attachmentManager = CorePlugin.getPermissionAttachmentManager();
+
+        return attachmentManager != null && attachmentManager.getNodeTable().hasPermission(rank, permissionNode);
+    }
+
+    private void authorizeAndExecute(PermissionRank rank, CommandSender commandSender, Command command, String s,
+                                     String[] strings)
+    {
+        // Check if the rank is allowed to execute the command
+        if(isAuthorized(rank))
+        {
+            // The rank is allowed to execute the command, pass it!
+            execute(commandSender, command, s, strings);
+        }
+        else
+        {
+            // The rank is not allowed to execute the command, send a message
+            commandSender.sendMessage(ChatFormatter.NO_PERMISSIONS_ERROR);
+        }
+    }
+
     public abstract boolean execute(CommandSender commandSender, Command command, String s, String[] strings);
 }
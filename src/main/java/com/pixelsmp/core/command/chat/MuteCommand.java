@@ -0,0 +1,73 @@
+package com.pixelsmp.core.command.chat;
+
+import com.pixelsmp.core.chat.ChatFormatter;
+import com.pixelsmp.core.chat.ChatMuteStage;
+import com.pixelsmp.core.command.PixelCommand;
+import com.pixelsmp.core.permissions.PermissionRank;
+import com.pixelsmp.core.util.DurationUtils;
+import com.pixelsmp.core.util.PlayerUtils;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+
+public class MuteCommand extends PixelCommand
+{
+    private final ChatMuteStage muteStage;
+
+    public MuteCommand(ChatMuteStage muteStage)
+    {
+        super("mute", PermissionRank.MODERATOR.getPermissionLevel(), true);
+
+        this.muteStage = muteStage;
+    }
+
+    @Override
+    public boolean execute(CommandSender commandSender, Command command, String s, String[] strings)
+    {
+        if (strings.length != 1 && strings.length != 2)
+        {
+            commandSender.sendMessage(ChatFormatter.formatCommandUsage("/mute <player> [duration]"));
+            return true;
+        }
+
+        long durationMillis = 0;
+
+        if (strings.length == 2)
+        {
+            try
+            {
+                durationMillis = DurationUtils.parseMillis(strings[1]);
+            }
+            catch (IllegalArgumentException e)
+            {
+                commandSender.sendMessage(ChatFormatter.formatChatMessage("Chat", e.getMessage(), true));
+                return true;
+            }
+        }
+
+        long expiresAtMillis = durationMillis > 0 ? System.currentTimeMillis() + durationMillis : 0;
+        String durationSuffix = durationMillis > 0 ? " for &a" + DurationUtils.format(durationMillis) : "";
+
+        PlayerUtils.fetchUUIDbyNameAsync(strings[0]).thenAccept(uuid ->
+        {
+            if (uuid == null)
+            {
+                commandSender.sendMessage(ChatFormatter.formatChatMessage("Chat",
+                        "Unable to locate a player with the name &c" + strings[0] + "&7.", true));
+                return;
+            }
+
+            muteStage.mute(uuid, expiresAtMillis);
+
+            commandSender.sendMessage(ChatFormatter.formatChatMessage("Chat",
+                    "&a" + strings[0] + "&7 has been muted" + durationSuffix + "&7.", false));
+        }).exceptionally(ex ->
+        {
+            commandSender.sendMessage(ChatFormatter.UNKNOWN_ERROR);
+            ex.printStackTrace();
+
+            return null;
+        });
+
+        return true;
+    }
+}
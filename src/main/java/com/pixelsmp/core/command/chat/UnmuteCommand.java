@@ -0,0 +1,58 @@
+package com.pixelsmp.core.command.chat;
+
+import com.pixelsmp.core.chat.ChatFormatter;
+import com.pixelsmp.core.chat.ChatMuteStage;
+import com.pixelsmp.core.command.PixelCommand;
+import com.pixelsmp.core.permissions.PermissionRank;
+import com.pixelsmp.core.util.PlayerUtils;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+
+public class UnmuteCommand extends PixelCommand
+{
+    private final ChatMuteStage muteStage;
+
+    public UnmuteCommand(ChatMuteStage muteStage)
+    {
+        super("unmute", PermissionRank.MODERATOR.getPermissionLevel(), true);
+
+        this.muteStage = muteStage;
+    }
+
+    @Override
+    public boolean execute(CommandSender commandSender, Command command, String s, String[] strings)
+    {
+        if (strings.length != 1)
+        {
+            commandSender.sendMessage(ChatFormatter.formatCommandUsage("/unmute <player>"));
+            return true;
+        }
+
+        PlayerUtils.fetchUUIDbyNameAsync(strings[0]).thenAccept(uuid ->
+        {
+            if (uuid == null)
+            {
+                commandSender.sendMessage(ChatFormatter.formatChatMessage("Chat",
+                        "Unable to locate a player with the name &c" + strings[0] + "&7.", true));
+            }
+            else if (muteStage.unmute(uuid))
+            {
+                commandSender.sendMessage(ChatFormatter.formatChatMessage("Chat",
+                        "&a" + strings[0] + "&7 has been unmuted.", false));
+            }
+            else
+            {
+                commandSender.sendMessage(ChatFormatter.formatChatMessage("Chat",
+                        "&c" + strings[0] + "&7 is not muted.", true));
+            }
+        }).exceptionally(ex ->
+        {
+            commandSender.sendMessage(ChatFormatter.UNKNOWN_ERROR);
+            ex.printStackTrace();
+
+            return null;
+        });
+
+        return true;
+    }
+}
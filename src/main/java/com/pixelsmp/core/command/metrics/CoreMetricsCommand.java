@@ -0,0 +1,115 @@
+package com.pixelsmp.core.command.metrics;
+
+import com.pixelsmp.core.CorePlugin;
+import com.pixelsmp.core.chat.ChatFormatter;
+import com.pixelsmp.core.chat.ChatPipeline;
+import com.pixelsmp.core.command.PixelCommand;
+import com.pixelsmp.core.database.sql.SQLMetrics;
+import com.pixelsmp.core.database.sql.SQLPriority;
+import com.pixelsmp.core.metrics.LatencyHistogram;
+import com.pixelsmp.core.permissions.PermissionOrchestrator;
+import com.pixelsmp.core.permissions.PermissionRank;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public class CoreMetricsCommand extends PixelCommand
+{
+    private static final int STATEMENTS_SHOWN = 5;
+    private static final int STATEMENT_DISPLAY_LENGTH = 48;
+
+    public CoreMetricsCommand()
+    {
+        super("coremetrics", PermissionRank.ADMINISTRATOR.getPermissionLevel(), true);
+    }
+
+    @Override
+    public boolean execute(CommandSender commandSender, Command command, String s, String[] strings)
+    {
+        PermissionOrchestrator permissionOrchestrator = CorePlugin.getPermissionOrchestrator();
+
+        // Permission cache effectiveness
+        long hits = permissionOrchestrator.getCacheHits();
+        long misses = permissionOrchestrator.getCacheMisses();
+
+        commandSender.sendMessage(ChatFormatter.formatChatMessage("Metrics", "Rank cache: &a" +
+                permissionOrchestrator.getCacheSize() + "&7 resident, &a" + hits + "&7 hits, &a" + misses +
+                "&7 misses (&a" + String.format(Locale.ROOT, "%.1f%%", hits + misses == 0 ? 100.0 :
+                100.0 * hits / (hits + misses)) + "&7 hit ratio).", false));
+
+        // Chat pipeline cost per message
+        ChatPipeline chatPipeline = CorePlugin.getChatPipeline();
+        long chatMessages = chatPipeline.getMessages();
+
+        commandSender.sendMessage(ChatFormatter.formatChatMessage("Metrics", "Chat: &a" + chatMessages +
+                "&7 messages, &c" + chatPipeline.getCancelledMessages() + "&7 cancelled, avg &a" +
+                String.format(Locale.ROOT, "%.1fus", chatMessages == 0 ? 0.0 :
+                        chatPipeline.getPipelineNanos() / 1000.0 / chatMessages) + "&7 per message.", false));
+
+        // Ranks stored in memory only have no database to report on
+        if (CorePlugin.getSQLConnectionManager() == null)
+        {
+            return true;
+        }
+
+        SQLMetrics sqlMetrics = CorePlugin.getSQLConnectionManager().getMetrics();
+
+        // Executor and connection pool saturation
+        commandSender.sendMessage(ChatFormatter.formatChatMessage("Metrics", "SQL tasks: &a" +
+                sqlMetrics.getInFlightTasks() + "&7 running.", false));
+
+        for (SQLPriority priority : SQLPriority.values())
+        {
+            commandSender.sendMessage(ChatFormatter.formatChatMessage("Metrics", "&f" + priority + "&7: &a" +
+                    sqlMetrics.getQueuedTasks(priority) + "&7 queued, &c" + sqlMetrics.getRejectedTasks(priority) +
+                    "&7 rejected, p99 queue wait &a" +
+                    formatMillis(sqlMetrics.getQueueWait(priority).getPercentileNanos(0.99)) + "&7.", false));
+        }
+
+        HikariPoolMXBean poolStatistics = sqlMetrics.getPoolStatistics();
+
+        if (poolStatistics != null)
+        {
+            commandSender.sendMessage(ChatFormatter.formatChatMessage("Metrics", "Connections: &a" +
+                    poolStatistics.getActiveConnections() + "&7 active, &a" + poolStatistics.getIdleConnections() +
+                    "&7 idle, &a" + poolStatistics.getThreadsAwaitingConnection() + "&7 waiting.", false));
+        }
+
+        // The statements that account for the most database time
+        List<Map.Entry<String, SQLMetrics.StatementMetrics>> statements = sqlMetrics.getStatements();
+
+        for (int i = 0; i < Math.min(STATEMENTS_SHOWN, statements.size()); i++)
+        {
+            String statement = statements.get(i).getKey();
+            LatencyHistogram latency = statements.get(i).getValue().getLatency();
+            long count = latency.getCount();
+
+            if (statement.length() > STATEMENT_DISPLAY_LENGTH)
+            {
+                statement = statement.substring(0, STATEMENT_DISPLAY_LENGTH - 3) + "...";
+            }
+
+            commandSender.sendMessage(ChatFormatter.formatChatMessage("Metrics", "&f" + statement + "&7: &a" +
+                    count + "&7 runs, avg &a" + formatMillis(count == 0 ? 0 : latency.getSumNanos() / count) +
+                    "&7, p99 &a" + formatMillis(latency.getPercentileNanos(0.99)) + "&7, &c" +
+                    statements.get(i).getValue().getErrors() + "&7 errors.", false));
+        }
+
+        return true;
+    }
+
+    private static String formatMillis(long nanos)
+    {
+        // The histogram can only say a value was above its largest bucket
+        if (nanos == Long.MAX_VALUE)
+        {
+            return ">10s";
+        }
+
+        return String.format(Locale.ROOT, "%.2fms", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,59 @@
+package com.pixelsmp.core.command.permissions;
+
+import com.pixelsmp.core.CorePlugin;
+import com.pixelsmp.core.chat.ChatFormatter;
+import com.pixelsmp.core.command.PixelCommand;
+import com.pixelsmp.core.permissions.PermissionRank;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+public class RankBroadcastCommand extends PixelCommand
+{
+    public RankBroadcastCommand()
+    {
+        super("rankbroadcast", PermissionRank.MODERATOR.getPermissionLevel(), true);
+    }
+
+    @Override
+    public boolean execute(CommandSender commandSender, Command command, String s, String[] strings)
+    {
+        if (strings.length < 2)
+        {
+            commandSender.sendMessage(ChatFormatter.formatCommandUsage("/rankbroadcast <minRank> <message>"));
+            return true;
+        }
+
+        PermissionRank minimumRank;
+
+        try
+        {
+            minimumRank = PermissionRank.valueOf(strings[0].toUpperCase(Locale.ROOT));
+        }
+        catch (IllegalArgumentException e)
+        {
+            commandSender.sendMessage(ChatFormatter.formatChatMessage("Broadcast", "Unknown rank &c" + strings[0] +
+                    "&7. Valid ranks are &f" + Arrays.toString(PermissionRank.values()) + "&7.", true));
+            return true;
+        }
+
+        String message = ChatFormatter.formatChatMessage("Broadcast", "&" + minimumRank.getColorCode() + "&l" +
+                minimumRank.getName() + "+ &8// &7" + ChatFormatter.translateChatMessage(
+                String.join(" ", Arrays.copyOfRange(strings, 1, strings.length))), false);
+        int[] recipients = new int[1];
+
+        // Only the players at or above the rank are visited, not everyone online
+        CorePlugin.getPermissionOrchestrator().getOnlineRankIndex().forEachPlayerAtLeast(minimumRank, player ->
+        {
+            player.sendMessage(message);
+            recipients[0]++;
+        });
+
+        commandSender.sendMessage(ChatFormatter.formatChatMessage("Broadcast", "Sent to &a" + recipients[0] +
+                "&7 players of rank &a" + minimumRank.getName() + "&7 and above.", false));
+
+        return true;
+    }
+}
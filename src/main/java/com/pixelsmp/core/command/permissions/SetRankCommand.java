@@ -4,6 +4,7 @@ import com.pixelsmp.core.CorePlugin;
 import com.pixelsmp.core.chat.ChatFormatter;
 import com.pixelsmp.core.command.PixelCommand;
 import com.pixelsmp.core.permissions.PermissionRank;
+import com.pixelsmp.core.util.DurationUtils;
 import com.pixelsmp.core.util.PlayerUtils;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
@@ -22,10 +23,10 @@ public class SetRankCommand extends PixelCommand
     @Override
     public boolean execute(CommandSender commandSender, Command command, String s, String[] strings)
     {
-        if (strings.length != 2)
+        if (strings.length != 2 && strings.length != 3)
         {
             // Incorrect number of parameters
-            commandSender.sendMessage(ChatFormatter.formatCommandUsage("/setrank <player> <rank>"));
+            commandSender.sendMessage(ChatFormatter.formatCommandUsage("/setrank <player> <rank> [duration]"));
             return false;
         }
         else
@@ -33,6 +34,32 @@ public class SetRankCommand extends PixelCommand
             // Parse the rank
             PermissionRank rank = PermissionRank.valueOf(strings[1]);
 
+            // A duration makes the rank temporary; it reverts to the player's previous rank once it runs out
+            long durationMillis = 0;
+
+            if (strings.length == 3)
+            {
+                if (!CorePlugin.getPermissionOrchestrator().supportsTemporaryRanks())
+                {
+                    commandSender.sendMessage(ChatFormatter.formatChatMessage("Permissions",
+                            "Temporary ranks are disabled on this server.", true));
+                    return false;
+                }
+
+                try
+                {
+                    durationMillis = DurationUtils.parseMillis(strings[2]);
+                }
+                catch (IllegalArgumentException e)
+                {
+                    commandSender.sendMessage(ChatFormatter.formatChatMessage("Permissions", e.getMessage(), true));
+                    return false;
+                }
+            }
+
+            long expiresAtMillis = durationMillis > 0 ? System.currentTimeMillis() + durationMillis : 0;
+            String expirySuffix = durationMillis > 0 ? " for &a" + DurationUtils.format(durationMillis) : "";
+
             PlayerUtils.fetchUUIDbyNameAsync(strings[0]).thenCompose(uuid ->
             {
                 if (uuid == null)
@@ -41,22 +68,41 @@ public class SetRankCommand extends PixelCommand
                             "Unable to locate a player with the name &c" + strings[0] + "&7.", true));
                     return CompletableFuture.completedFuture(null);
                 }
+                else if (expiresAtMillis > 0)
+                {
+                    return CorePlugin.getPermissionOrchestrator().upsertTemporaryPlayerRank(uuid, rank,
+                            expiresAtMillis);
+                }
                 else
                 {
                     return CorePlugin.getPermissionOrchestrator().upsertPlayerRank(uuid, rank);
                 }
             }).thenAccept(success ->
             {
+                if (success == null)
+                {
+                    // The player could not be located, which has already been reported
+                    return;
+                }
+
                 if (success)
                 {
                     commandSender.sendMessage(ChatFormatter.formatChatMessage("Permissions",
-                            "&a" + strings[1] + "&7's rank has successfully been updated to &a" + rank.getName() + "&7.", false));
+                            "&a" + strings[1] + "&7's rank has successfully been updated to &a" + rank.getName() +
+                                    expirySuffix + "&7.", false));
                 }
                 else
                 {
                     commandSender.sendMessage(ChatFormatter.formatChatMessage("Permissions",
                             "Failed " + "to set &c" + strings[1] + "&7's rank to &c" + rank.getName() + "&7.", true));
                 }
+            }).exceptionally(ex ->
+            {
+                // The lookup or the write failed outright (e.g. the profile API is rate limiting us)
+                commandSender.sendMessage(ChatFormatter.UNKNOWN_ERROR);
+                ex.printStackTrace();
+
+                return null;
             });
         }
         return false;
@@ -0,0 +1,60 @@
+package com.pixelsmp.core.command.permissions;
+
+import com.pixelsmp.core.CorePlugin;
+import com.pixelsmp.core.chat.ChatFormatter;
+import com.pixelsmp.core.command.PixelCommand;
+import com.pixelsmp.core.permissions.OnlineRankIndex;
+import com.pixelsmp.core.permissions.PermissionRank;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.Set;
+
+public class StaffCommand extends PixelCommand
+{
+    // Most senior first; ENGINEER is a developer rank rather than a staff rank
+    private static final PermissionRank[] STAFF_RANKS = new PermissionRank[]{PermissionRank.OWNER,
+            PermissionRank.ADMINISTRATOR, PermissionRank.MODERATOR, PermissionRank.HELPER};
+
+    public StaffCommand()
+    {
+        super("staff", PermissionRank.MEMBER.getPermissionLevel(), true);
+    }
+
+    @Override
+    public boolean execute(CommandSender commandSender, Command command, String s, String[] strings)
+    {
+        OnlineRankIndex onlineRankIndex = CorePlugin.getPermissionOrchestrator().getOnlineRankIndex();
+        boolean staffOnline = false;
+
+        // Only the staff ranks' own sets are read, however many players are online
+        for (PermissionRank rank : STAFF_RANKS)
+        {
+            Set<Player> players = onlineRankIndex.getPlayers(rank);
+
+            if (players.isEmpty())
+            {
+                continue;
+            }
+
+            StringBuilder names = new StringBuilder();
+
+            for (Player player : players)
+            {
+                names.append(names.length() == 0 ? "" : "&8, &7").append(player.getName());
+            }
+
+            commandSender.sendMessage(ChatFormatter.formatChatMessage("Staff", "&" + rank.getColorCode() + "&l" +
+                    rank.getName() + " &8// &7" + names, false));
+            staffOnline = true;
+        }
+
+        if (!staffOnline)
+        {
+            commandSender.sendMessage(ChatFormatter.formatChatMessage("Staff", "There is no staff online.", false));
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,319 @@
+package com.pixelsmp.core.database.sql;
+
+import com.pixelsmp.core.chat.ChatFormatter;
+import org.bukkit.Bukkit;
+
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+public class SQLCircuitBreaker
+{
+    private final List<Consumer<State>> listeners = new CopyOnWriteArrayList<>();
+    private final LongAdder[] transitions = new LongAdder[State.values().length];
+    private final LongAdder rejectedCalls = new LongAdder();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger(0);
+    private final int failureThreshold;
+    private final long slowCallNanos;
+    private final long openDurationMillis;
+
+    private ScheduledExecutorService probeScheduler;
+    private BooleanSupplier probe;
+    private volatile State state = State.CLOSED;
+
+    /**
+     * Initializes a new circuit breaker. The breaker opens after the given number of consecutive statements either
+     * failed to reach the database or took longer than the slow call threshold. While open, statements fail fast
+     * instead of each waiting for a connection; once the open duration has elapsed the database is probed, and the
+     * breaker closes again as soon as a probe succeeds.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     *
+     * @param failureThreshold Consecutive failed or slow statements that open the breaker; 0 never opens it
+     * @param slowCallMillis Time, in milliseconds, after which a statement counts as failed; 0 ignores latency
+     * @param openDurationMillis Time, in milliseconds, between probes while the breaker is open
+     */
+    public SQLCircuitBreaker(int failureThreshold, long slowCallMillis, long openDurationMillis)
+    {
+        this.failureThreshold = Math.max(0, failureThreshold);
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, slowCallMillis));
+        this.openDurationMillis = Math.max(1, openDurationMillis);
+
+        for (State target : State.values())
+        {
+            transitions[target.ordinal()] = new LongAdder();
+        }
+    }
+
+    /**
+     * Creates a circuit breaker that never opens, for connection managers that should behave as they did before
+     * breakers existed.
+     *
+     * @return A breaker that is always closed
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public static SQLCircuitBreaker disabled()
+    {
+        return new SQLCircuitBreaker(0, 0, 1);
+    }
+
+    /**
+     * Registers a listener that is told about every state change. Listeners run on the thread that caused the
+     * change, so they must not block.
+     *
+     * @param listener Listener receiving the new state
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public void addStateListener(Consumer<State> listener)
+    {
+        listeners.add(listener);
+    }
+
+    /**
+     * Returns the current state of the breaker.
+     *
+     * @return The current state
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public State getState()
+    {
+        return state;
+    }
+
+    /**
+     * Returns the number of times the breaker has entered the given state.
+     *
+     * @param target The state entered
+     *
+     * @return The counter value since the breaker was created
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public long getTransitions(State target)
+    {
+        return transitions[target.ordinal()].sum();
+    }
+
+    /**
+     * Returns the number of statements refused while the breaker was not closed.
+     *
+     * @return The counter value since the breaker was created
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public long getRejectedCalls()
+    {
+        return rejectedCalls.sum();
+    }
+
+    void start(BooleanSupplier probe)
+    {
+        this.probe = probe;
+        this.probeScheduler = Executors.newSingleThreadScheduledExecutor(runnable ->
+        {
+            Thread thread = new Thread(runnable, "PixelSMP-Core-SQL-CircuitProbe");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    void close()
+    {
+        if (probeScheduler != null)
+        {
+            probeScheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Checks whether a statement may run. Probes bypass this, so while the breaker is half-open every statement is
+     * still refused.
+     *
+     * @return True if the breaker is closed; otherwise the refusal is counted
+     */
+    boolean tryAcquire()
+    {
+        if (state == State.CLOSED)
+        {
+            return true;
+        }
+
+        rejectedCalls.increment();
+
+        return false;
+    }
+
+    /**
+     * Records the outcome of a statement that was allowed to run.
+     *
+     * @param durationNanos Time the statement took
+     * @param countLatency Whether a long duration may count as a failure; false for streams, which run as long as
+     *                     their subscriber reads
+     * @param failure The failure, or null if the statement succeeded
+     */
+    void recordResult(long durationNanos, boolean countLatency, Throwable failure)
+    {
+        // Statements that were already running when the breaker opened say nothing about the database now
+        if (failureThreshold == 0 || state != State.CLOSED)
+        {
+            return;
+        }
+
+        boolean slow = countLatency && slowCallNanos > 0 && durationNanos >= slowCallNanos;
+
+        // Any answer from the database, even an error, shows it is reachable
+        if (!slow && (failure == null || !isConnectivityFailure(failure)))
+        {
+            consecutiveFailures.set(0);
+            return;
+        }
+
+        int failures = consecutiveFailures.incrementAndGet();
+
+        if (failures >= failureThreshold)
+        {
+            open(failures + " consecutive statements " + (slow ? "ran slowly" : "failed to reach the database") +
+                    (failure == null ? "" : " (" + failure.getMessage() + ")"));
+        }
+    }
+
+    private synchronized void open(String reason)
+    {
+        if (state != State.CLOSED)
+        {
+            return;
+        }
+
+        consecutiveFailures.set(0);
+        transition(State.OPEN);
+        log(true, "Circuit breaker opened after " + reason + "; failing statements fast and probing the " +
+                "database every " + openDurationMillis + "ms.");
+
+        scheduleProbe();
+    }
+
+    private void scheduleProbe()
+    {
+        if (probeScheduler.isShutdown())
+        {
+            return;
+        }
+
+        probeScheduler.schedule(() ->
+        {
+            transition(State.HALF_OPEN);
+
+            boolean healthy;
+
+            try
+            {
+                healthy = probe.getAsBoolean();
+            }
+            catch (RuntimeException e)
+            {
+                healthy = false;
+            }
+
+            if (healthy)
+            {
+                transition(State.CLOSED);
+                log(false, "Circuit breaker closed; the database is reachable again.");
+                return;
+            }
+
+            transition(State.OPEN);
+            scheduleProbe();
+        }, openDurationMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void transition(State target)
+    {
+        state = target;
+        transitions[target.ordinal()].increment();
+
+        for (Consumer<State> listener : listeners)
+        {
+            try
+            {
+                listener.accept(target);
+            }
+            catch (RuntimeException e)
+            {
+                log(true, "A circuit breaker listener failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private static boolean isConnectivityFailure(Throwable failure)
+    {
+        // Connection timeouts from the pool, dropped connections and statement timeouts; anything else, such as a
+        // constraint violation, means the database answered
+        for (Throwable cause = failure; cause != null; cause = cause.getCause())
+        {
+            if (cause instanceof SQLTransientConnectionException ||
+                    cause instanceof SQLNonTransientConnectionException ||
+                    cause instanceof SQLRecoverableException ||
+                    cause instanceof SQLTimeoutException)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static void log(boolean warning, String message)
+    {
+        // Benchmarks run connection managers without a server
+        if (Bukkit.getServer() == null)
+        {
+            return;
+        }
+
+        if (warning)
+        {
+            Bukkit.getLogger().warning(ChatFormatter.formatConsoleMessage("Database Core", message, true));
+        }
+        else
+        {
+            Bukkit.getLogger().info(ChatFormatter.formatConsoleMessage("Database Core", message, false));
+        }
+    }
+
+    /**
+     * The states of a circuit breaker.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     */
+    public enum State
+    {
+        // Statements run normally
+        CLOSED,
+        // Statements fail fast until the next probe
+        OPEN,
+        // A probe is running; statements still fail fast
+        HALF_OPEN
+    }
+}
@@ -0,0 +1,20 @@
+package com.pixelsmp.core.database.sql;
+
+import java.util.concurrent.RejectedExecutionException;
+
+public class SQLCircuitOpenException extends RejectedExecutionException
+{
+    /**
+     * Signals that a statement was refused without touching the database because the circuit breaker is open.
+     * Callers should treat the database as unavailable until the breaker closes again.
+     *
+     * @param label Name of the refused statement
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public SQLCircuitOpenException(String label)
+    {
+        super("The database circuit breaker is open; " + label + " was not executed.");
+    }
+}
@@ -5,18 +5,29 @@ import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import org.bukkit.Bukkit;
 
+import java.io.File;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 public class SQLConnectionManager
 {
     private final ExecutorService executorService;
+    private final SQLWorkScheduler workScheduler;
+    private volatile boolean disconnected = false;
+    private final SQLMetrics metrics;
+    private final SQLCircuitBreaker circuitBreaker;
     private HikariDataSource dataSource;
 
     /**
@@ -34,16 +45,148 @@ public class SQLConnectionManager
      */
     public SQLConnectionManager(String hostname, String username, String password, String database, int port,
                                 int hikariMaximumPoolSize, long hikariTimeoutMillis, int threadPoolSize) {
-        String jdbcUrl = "jdbc:mysql://" + hostname + ":" + port + "/" + database;
-        executorService = Executors.newFixedThreadPool(threadPoolSize);
+        this(hostname, username, password, database, port, hikariMaximumPoolSize, hikariTimeoutMillis,
+                threadPoolSize, SQLExecutionMode.PLATFORM, new SQLWorkScheduler());
+    }
 
-        // Set proper parameters on the HikariCP configuration
-        HikariConfig hikariConfig = new HikariConfig();
-        hikariConfig.setJdbcUrl(jdbcUrl);
-        hikariConfig.setUsername(username);
-        hikariConfig.setPassword(password);
-        hikariConfig.setMaximumPoolSize(hikariMaximumPoolSize);
-        hikariConfig.setConnectionTimeout(hikariTimeoutMillis);
+    /**
+     * Initializes a new MySQLConnectionManager with the given connection parameters and execution mode.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @param hostname IP address or DNS name of the MySQL server
+     * @param username Username to connect to the database
+     * @param password Password to connect to the database
+     * @param database Name of the database to connect to
+     * @param port Port of the MySQL server
+     * @param executionMode How statements are mapped onto threads
+     * @param workScheduler Scheduler deciding which priority class runs next
+     */
+    public SQLConnectionManager(String hostname, String username, String password, String database, int port,
+                                int hikariMaximumPoolSize, long hikariTimeoutMillis, int threadPoolSize,
+                                SQLExecutionMode executionMode, SQLWorkScheduler workScheduler) {
+        this(hostname, username, password, database, port, hikariMaximumPoolSize, hikariTimeoutMillis,
+                threadPoolSize, executionMode, workScheduler, SQLCircuitBreaker.disabled());
+    }
+
+    /**
+     * Initializes a new MySQLConnectionManager with the given connection parameters, execution mode and circuit
+     * breaker.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @param hostname IP address or DNS name of the MySQL server
+     * @param username Username to connect to the database
+     * @param password Password to connect to the database
+     * @param database Name of the database to connect to
+     * @param port Port of the MySQL server
+     * @param executionMode How statements are mapped onto threads
+     * @param workScheduler Scheduler deciding which priority class runs next
+     * @param circuitBreaker Breaker that fails statements fast while the server is unreachable
+     */
+    public SQLConnectionManager(String hostname, String username, String password, String database, int port,
+                                int hikariMaximumPoolSize, long hikariTimeoutMillis, int threadPoolSize,
+                                SQLExecutionMode executionMode, SQLWorkScheduler workScheduler,
+                                SQLCircuitBreaker circuitBreaker) {
+        this(createMySQLConfig(hostname, username, password, database, port, hikariMaximumPoolSize,
+                hikariTimeoutMillis), threadPoolSize, executionMode, workScheduler, circuitBreaker);
+    }
+
+    /**
+     * Initializes a new SQLConnectionManager from a prepared HikariCP configuration. This allows any JDBC
+     * database to be used, such as an embedded one for benchmarks and tests.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @param hikariConfig HikariCP configuration describing the database and pool
+     * @param threadPoolSize Number of threads executing queries
+     */
+    public SQLConnectionManager(HikariConfig hikariConfig, int threadPoolSize) {
+        this(hikariConfig, threadPoolSize, SQLExecutionMode.PLATFORM);
+    }
+
+    /**
+     * Initializes a new SQLConnectionManager from a prepared HikariCP configuration, running statements in the
+     * given execution mode. In virtual mode every statement gets its own virtual thread and a fair semaphore sized
+     * to the Hikari pool decides which ones may hold a connection, so waiting callers cost no platform threads.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @param hikariConfig HikariCP configuration describing the database and pool
+     * @param threadPoolSize Number of threads executing queries; ignored in virtual mode
+     * @param executionMode How statements are mapped onto threads
+     */
+    public SQLConnectionManager(HikariConfig hikariConfig, int threadPoolSize, SQLExecutionMode executionMode) {
+        this(hikariConfig, threadPoolSize, executionMode, new SQLWorkScheduler());
+    }
+
+    /**
+     * Initializes a new SQLConnectionManager from a prepared HikariCP configuration, running statements in the
+     * given execution mode and scheduling them through the given work scheduler. Statements wait in the scheduler's
+     * bounded per-priority queues and are handed to a thread only once one is free, so the executor never queues.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @param hikariConfig HikariCP configuration describing the database and pool
+     * @param threadPoolSize Number of threads executing queries; ignored in virtual mode
+     * @param executionMode How statements are mapped onto threads
+     * @param workScheduler Scheduler deciding which priority class runs next
+     */
+    public SQLConnectionManager(HikariConfig hikariConfig, int threadPoolSize, SQLExecutionMode executionMode,
+                                SQLWorkScheduler workScheduler) {
+        this(hikariConfig, threadPoolSize, executionMode, workScheduler, SQLCircuitBreaker.disabled());
+    }
+
+    /**
+     * Initializes a new SQLConnectionManager like {@link #SQLConnectionManager(HikariConfig, int, SQLExecutionMode,
+     * SQLWorkScheduler)} that guards the database with the given circuit breaker. While the breaker is open,
+     * statements fail with a {@link SQLCircuitOpenException} instead of waiting for a connection.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @param hikariConfig HikariCP configuration describing the database and pool
+     * @param threadPoolSize Number of threads executing queries; ignored in virtual mode
+     * @param executionMode How statements are mapped onto threads
+     * @param workScheduler Scheduler deciding which priority class runs next
+     * @param circuitBreaker Breaker that fails statements fast while the database is unreachable
+     */
+    public SQLConnectionManager(HikariConfig hikariConfig, int threadPoolSize, SQLExecutionMode executionMode,
+                                SQLWorkScheduler workScheduler, SQLCircuitBreaker circuitBreaker) {
+        ExecutorService virtualThreadExecutor = executionMode == SQLExecutionMode.VIRTUAL
+                ? createVirtualThreadExecutor() : null;
+        int concurrency;
+
+        if(virtualThreadExecutor != null)
+        {
+            // One virtual thread per statement, at most one statement per pooled connection
+            executorService = virtualThreadExecutor;
+            concurrency = hikariConfig.getMaximumPoolSize();
+        }
+        else
+        {
+            AtomicInteger threadCount = new AtomicInteger(0);
+
+            // Daemon threads so a leftover query can never keep the JVM alive on shutdown
+            executorService = Executors.newFixedThreadPool(threadPoolSize, runnable -> {
+                Thread thread = new Thread(runnable, "PixelSMP-Core-SQL-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+
+                return thread;
+            });
+            concurrency = threadPoolSize;
+        }
 
         try
         {
@@ -53,6 +196,107 @@ public class SQLConnectionManager
         {
             e.printStackTrace();
         }
+
+        metrics = new SQLMetrics(dataSource, circuitBreaker);
+
+        // Probes check out a connection directly, since every scheduled statement is refused while the breaker is open
+        this.circuitBreaker = circuitBreaker;
+        this.circuitBreaker.start(this::isConnectionHealthy);
+
+        this.workScheduler = workScheduler;
+        this.workScheduler.start(executorService, concurrency);
+    }
+
+    private static ExecutorService createVirtualThreadExecutor() {
+        try
+        {
+            // Looked up reflectively so the plugin still builds and runs on Java 17
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch(ReflectiveOperationException e)
+        {
+            // Benchmarks construct managers without a running server
+            if(Bukkit.getServer() != null)
+            {
+                Bukkit.getLogger().warning(ChatFormatter.formatConsoleMessage("Database Core", "Virtual threads " +
+                        "require Java 21 or newer; falling back to the platform thread pool.", true));
+            }
+
+            return null;
+        }
+    }
+
+    private static HikariConfig createMySQLConfig(String hostname, String username, String password, String database,
+                                                  int port, int hikariMaximumPoolSize, long hikariTimeoutMillis) {
+        String jdbcUrl = "jdbc:mysql://" + hostname + ":" + port + "/" + database;
+
+        // Set proper parameters on the HikariCP configuration
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setJdbcUrl(jdbcUrl);
+        hikariConfig.setUsername(username);
+        hikariConfig.setPassword(password);
+        hikariConfig.setMaximumPoolSize(hikariMaximumPoolSize);
+        hikariConfig.setConnectionTimeout(hikariTimeoutMillis);
+        hikariConfig.setPoolName("PixelSMP-Core-MySQL");
+
+        // Open connections in the background rather than in the constructor; the bootstrap checks them asynchronously
+        hikariConfig.setInitializationFailTimeout(-1);
+
+        // Honor setFetchSize with server-side cursors, so streamed queries never buffer a whole result set
+        hikariConfig.addDataSourceProperty("useCursorFetch", "true");
+        configureStatementCaching(hikariConfig);
+
+        return hikariConfig;
+    }
+
+    /**
+     * Creates a HikariCP configuration for an embedded H2 database stored in a single file on local disk. The
+     * database runs in MySQL compatibility mode, so the same statements work against it and a MySQL server.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @param databaseFile Database file, without H2's .mv.db extension
+     * @param hikariMaximumPoolSize Maximum number of pooled connections
+     * @param hikariTimeoutMillis Time, in milliseconds, to wait for a pooled connection
+     *
+     * @return HikariCP configuration describing the embedded database
+     */
+    public static HikariConfig createEmbeddedConfig(File databaseFile, int hikariMaximumPoolSize,
+                                                    long hikariTimeoutMillis) {
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setDriverClassName("org.h2.Driver");
+        hikariConfig.setJdbcUrl("jdbc:h2:file:" + databaseFile.getAbsolutePath() +
+                ";MODE=MySQL;DATABASE_TO_LOWER=TRUE");
+        hikariConfig.setMaximumPoolSize(hikariMaximumPoolSize);
+        hikariConfig.setConnectionTimeout(hikariTimeoutMillis);
+        hikariConfig.setPoolName("PixelSMP-Core-Embedded");
+
+        // Like the MySQL pool, never block the constructor on the first connection
+        hikariConfig.setInitializationFailTimeout(-1);
+
+        return hikariConfig;
+    }
+
+    /**
+     * Configures MySQL Connector/J to prepare statements on the server once per connection and reuse them, and to
+     * rewrite JDBC batches of inserts into multi-row statements. Every statement this plugin runs is parameterized,
+     * so the caches stay small and hit on nearly every execution.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @param hikariConfig HikariCP configuration of a MySQL pool
+     */
+    public static void configureStatementCaching(HikariConfig hikariConfig) {
+        hikariConfig.addDataSourceProperty("cachePrepStmts", "true");
+        hikariConfig.addDataSourceProperty("prepStmtCacheSize", "250");
+        hikariConfig.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        hikariConfig.addDataSourceProperty("useServerPrepStmts", "true");
+        hikariConfig.addDataSourceProperty("cacheResultSetMetadata", "true");
+        hikariConfig.addDataSourceProperty("rewriteBatchedStatements", "true");
     }
 
     /**
@@ -117,6 +361,17 @@ public class SQLConnectionManager
      * @since 1.0.0
      */
     public void disconnect() {
+        // Stop accepting new work and fail anything still queued; running statements finish or fail on their own
+        disconnected = true;
+        circuitBreaker.close();
+
+        for(Runnable abandonedTask : workScheduler.close())
+        {
+            abandonedTask.run();
+        }
+
+        executorService.shutdown();
+
         if(dataSource != null)
         {
             dataSource.close();
@@ -139,7 +394,53 @@ public class SQLConnectionManager
      */
     public <T> CompletableFuture<T> executeQueryAsync(String query, ResultSetHandlerFunction<T> handler,
                                                       Object... parameters) {
-        return CompletableFuture.supplyAsync(() -> {
+        return executeQueryAsync(SQLPriority.INTERACTIVE, query, handler, parameters);
+    }
+
+    /**
+     * Executes a query on the database asynchronously in the given priority class.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @param priority The priority class the query is scheduled in
+     * @param query The MySQL query to execute
+     * @param handler The handler function to process the ResultSet
+     * @return CompletableFuture containing the result of the query; fails with a {@link SQLQueueFullException} if
+     * the priority class's queue is full
+     * @param <T> The type of the result
+     */
+    public <T> CompletableFuture<T> executeQueryAsync(SQLPriority priority, String query,
+                                                      ResultSetHandlerFunction<T> handler, Object... parameters) {
+        return executeQuery(priority, query, query, handler, parameters);
+    }
+
+    /**
+     * Executes a registered statement as a query on the database asynchronously, in the statement's priority class.
+     * The parameters are checked against the statement's declared parameter types before anything is queued.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @param statement The registered statement to execute
+     * @param handler The handler function to process the ResultSet
+     * @return CompletableFuture containing the result of the query
+     * @param <T> The type of the result
+     *
+     * @see SQLStatementRegistry
+     */
+    public <T> CompletableFuture<T> executeQueryAsync(SQLStatement statement, ResultSetHandlerFunction<T> handler,
+                                                      Object... parameters) {
+        statement.validateParameters(parameters);
+
+        return executeQuery(statement.getPriority(), statement.getName(), statement.getSQL(), handler, parameters);
+    }
+
+    private <T> CompletableFuture<T> executeQuery(SQLPriority priority, String label, String query,
+                                                  ResultSetHandlerFunction<T> handler, Object[] parameters) {
+        return submit(priority, label, () -> {
             // Try-with-resources block to handle the connection, statement, and result set
             try (Connection connection = dataSource.getConnection();
                  PreparedStatement statement = connection.prepareStatement(query))
@@ -161,7 +462,7 @@ public class SQLConnectionManager
                 // Pass exception up the call stack to be handled by the caller
                 throw new CompletionException(e);
             }
-        }, executorService);
+        });
     }
 
     /**
@@ -176,7 +477,49 @@ public class SQLConnectionManager
      * @return CompletableFuture containing the result of the query; -1 = error, 0 = no rows affected, >0 = rows affected
      */
     public CompletableFuture<Integer> executeUpdateAsync(String query, Object... parameters) {
-        return CompletableFuture.supplyAsync(() -> {
+        return executeUpdateAsync(SQLPriority.INTERACTIVE, query, parameters);
+    }
+
+    /**
+     * Executes an update query on the database asynchronously in the given priority class.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @param priority The priority class the statement is scheduled in
+     * @param query The MySQL statement to execute
+     *
+     * @return CompletableFuture containing the result of the query; fails with a {@link SQLQueueFullException} if
+     * the priority class's queue is full
+     */
+    public CompletableFuture<Integer> executeUpdateAsync(SQLPriority priority, String query, Object... parameters) {
+        return executeUpdate(priority, query, query, parameters);
+    }
+
+    /**
+     * Executes a registered statement as an update on the database asynchronously, in the statement's priority
+     * class. The parameters are checked against the statement's declared parameter types before anything is queued.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @param statement The registered statement to execute
+     *
+     * @return CompletableFuture containing the result of the query; -1 = error, 0 = no rows affected, >0 = rows affected
+     *
+     * @see SQLStatementRegistry
+     */
+    public CompletableFuture<Integer> executeUpdateAsync(SQLStatement statement, Object... parameters) {
+        statement.validateParameters(parameters);
+
+        return executeUpdate(statement.getPriority(), statement.getName(), statement.getSQL(), parameters);
+    }
+
+    private CompletableFuture<Integer> executeUpdate(SQLPriority priority, String label, String query,
+                                                     Object[] parameters) {
+        return submit(priority, label, () -> {
             // Initialize the result to -1 to fail-first
             int result = -1;
 
@@ -201,7 +544,358 @@ public class SQLConnectionManager
 
             // Return the result of the query
             return result;
-        }, executorService);
+        });
+    }
+
+    /**
+     * Executes the same update statement once per parameter set as a single JDBC batch inside one transaction.
+     * Either every statement in the batch is committed or none of them are.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @param query The MySQL statement to execute for every parameter set
+     * @param parameterSets The parameters to bind for each execution of the statement
+     *
+     * @return CompletableFuture containing the update counts reported by the driver, in parameter set order
+     */
+    public CompletableFuture<int[]> executeBatchAsync(String query, List<Object[]> parameterSets) {
+        return executeBatchAsync(SQLPriority.INTERACTIVE, query, parameterSets);
+    }
+
+    /**
+     * Executes the same update statement once per parameter set as a single JDBC batch inside one transaction, in
+     * the given priority class.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @param priority The priority class the batch is scheduled in
+     * @param query The MySQL statement to execute for every parameter set
+     * @param parameterSets The parameters to bind for each execution of the statement
+     *
+     * @return CompletableFuture containing the update counts reported by the driver, in parameter set order; fails
+     * with a {@link SQLQueueFullException} if the priority class's queue is full
+     */
+    public CompletableFuture<int[]> executeBatchAsync(SQLPriority priority, String query,
+                                                      List<Object[]> parameterSets) {
+        return executeBatch(priority, query, query, parameterSets);
+    }
+
+    /**
+     * Executes a registered statement once per parameter set as a single JDBC batch inside one transaction, in the
+     * statement's priority class. Every parameter set is checked against the statement's declared parameter types
+     * before anything is queued.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @param statement The registered statement to execute for every parameter set
+     * @param parameterSets The parameters to bind for each execution of the statement
+     *
+     * @return CompletableFuture containing the update counts reported by the driver, in parameter set order
+     *
+     * @see SQLStatementRegistry
+     */
+    public CompletableFuture<int[]> executeBatchAsync(SQLStatement statement, List<Object[]> parameterSets) {
+        for(Object[] parameters : parameterSets)
+        {
+            statement.validateParameters(parameters);
+        }
+
+        return executeBatch(statement.getPriority(), statement.getName(), statement.getSQL(), parameterSets);
+    }
+
+    private CompletableFuture<int[]> executeBatch(SQLPriority priority, String label, String query,
+                                                  List<Object[]> parameterSets) {
+        return submit(priority, label, () -> {
+            // Try-with-resources block to handle the connection and statement
+            try (Connection connection = dataSource.getConnection())
+            {
+                boolean autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+
+                try (PreparedStatement statement = connection.prepareStatement(query))
+                {
+                    // Bind every parameter set and add it to the batch
+                    for(Object[] parameters : parameterSets)
+                    {
+                        for(int i = 0; i < parameters.length; i++)
+                        {
+                            statement.setObject(i + 1, parameters[i]);
+                        }
+
+                        statement.addBatch();
+                    }
+
+                    // Execute the batch and commit it as a single unit
+                    int[] result = statement.executeBatch();
+                    connection.commit();
+
+                    return result;
+                }
+                catch (SQLException e)
+                {
+                    // Discard the partial batch before the connection goes back to the pool
+                    connection.rollback();
+                    throw e;
+                }
+                finally
+                {
+                    connection.setAutoCommit(autoCommit);
+                }
+            }
+            catch (SQLException e)
+            {
+                // Pass exception up the call stack to be handled by the caller
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Runs several statements on one connection inside a single transaction. The transaction is committed once the
+     * work returns and rolled back if it throws, so either every statement takes effect or none of them do.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @param priority The priority class the transaction is scheduled in
+     * @param label Name of the transaction in metrics, such as "permissions.saveRanks"
+     * @param work The statements to run, executed through the provided transaction
+     *
+     * @return CompletableFuture containing the value returned by the work; fails with a
+     * {@link SQLQueueFullException} if the priority class's queue is full
+     * @param <T> The type of the result
+     */
+    public <T> CompletableFuture<T> executeTransactionAsync(SQLPriority priority, String label,
+                                                            SQLTransaction.TransactionFunction<T> work) {
+        return submit(priority, label, () -> {
+            // Try-with-resources block to handle the connection
+            try (Connection connection = dataSource.getConnection())
+            {
+                boolean autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+
+                try
+                {
+                    // Run the work and commit it as a single unit
+                    T result = work.apply(new SQLTransaction(connection));
+                    connection.commit();
+
+                    return result;
+                }
+                catch (SQLException | RuntimeException e)
+                {
+                    // Discard the partial transaction before the connection goes back to the pool
+                    connection.rollback();
+                    throw e;
+                }
+                finally
+                {
+                    connection.setAutoCommit(autoCommit);
+                }
+            }
+            catch (SQLException e)
+            {
+                // Pass exception up the call stack to be handled by the caller
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Streams the rows of a query to a subscriber with backpressure. Rows are read through a cursor in chunks of
+     * the given fetch size and mapped one at a time, and the next row is only read once the subscriber requests it,
+     * so memory use does not depend on the size of the result. The query runs when the publisher is subscribed to,
+     * holding one connection until the stream completes, fails or is cancelled.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @param priority The priority class the stream is scheduled in
+     * @param query The MySQL query to execute
+     * @param fetchSize Number of rows fetched from the server at a time
+     * @param rowMapper Maps the current row of the ResultSet; it must not move the cursor
+     * @return Single-subscriber publisher of the mapped rows
+     * @param <T> The type of a mapped row
+     */
+    public <T> Flow.Publisher<T> streamQueryAsync(SQLPriority priority, String query, int fetchSize,
+                                                  ResultSetHandlerFunction<T> rowMapper, Object... parameters) {
+        return streamQuery(priority, query, query, fetchSize, rowMapper, parameters);
+    }
+
+    /**
+     * Streams the rows of a registered statement to a subscriber with backpressure, in the statement's priority
+     * class. The parameters are checked against the statement's declared parameter types before anything is queued.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @param statement The registered statement to execute
+     * @param fetchSize Number of rows fetched from the server at a time
+     * @param rowMapper Maps the current row of the ResultSet; it must not move the cursor
+     * @return Single-subscriber publisher of the mapped rows
+     * @param <T> The type of a mapped row
+     *
+     * @see #streamQueryAsync(SQLPriority, String, int, ResultSetHandlerFunction, Object...)
+     */
+    public <T> Flow.Publisher<T> streamQueryAsync(SQLStatement statement, int fetchSize,
+                                                  ResultSetHandlerFunction<T> rowMapper, Object... parameters) {
+        statement.validateParameters(parameters);
+
+        return streamQuery(statement.getPriority(), statement.getName(), statement.getSQL(), fetchSize, rowMapper,
+                parameters);
+    }
+
+    private <T> Flow.Publisher<T> streamQuery(SQLPriority priority, String label, String query, int fetchSize,
+                                              ResultSetHandlerFunction<T> rowMapper, Object[] parameters) {
+        return new SQLRowPublisher<T>(subscription -> submit(priority, label, false, () -> {
+            // Try-with-resources block to handle the connection, statement, and result set
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY,
+                         ResultSet.CONCUR_READ_ONLY))
+            {
+                // With useCursorFetch the driver reads the result from a server-side cursor in fetchSize chunks
+                statement.setFetchSize(fetchSize);
+
+                // Set the parameters for the query
+                for(int i = 0; i < parameters.length; i++)
+                {
+                    statement.setObject(i + 1, parameters[i]);
+                }
+
+                try(ResultSet resultSet = statement.executeQuery())
+                {
+                    while(subscription.awaitDemand() && resultSet.next())
+                    {
+                        subscription.emit(rowMapper.apply(resultSet));
+                    }
+                }
+            }
+            catch (SQLException | TimeoutException e)
+            {
+                // Pass exception up the call stack to be handled by the subscriber
+                throw new CompletionException(e);
+            }
+
+            // Closing the result set and connection above is what releases the cursor, so signal afterwards
+            subscription.complete();
+
+            return null;
+        }).whenComplete((result, ex) -> {
+            if(ex != null)
+            {
+                subscription.fail(ex);
+            }
+        }));
+    }
+
+    /**
+     * Returns the metrics of this connection manager: statement latencies and errors, executor queue depth, and
+     * connection pool usage.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @return Metrics of this connection manager
+     */
+    public SQLMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the circuit breaker guarding the database.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @return Circuit breaker of this connection manager
+     */
+    public SQLCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    private <T> CompletableFuture<T> submit(SQLPriority priority, String label, Supplier<T> task) {
+        return submit(priority, label, true, task);
+    }
+
+    private <T> CompletableFuture<T> submit(SQLPriority priority, String label, boolean countLatency,
+                                            Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        long queuedAtNanos = metrics.taskQueued(priority);
+
+        Runnable scheduledTask = () -> {
+            if(disconnected)
+            {
+                metrics.taskRejected(priority);
+                future.completeExceptionally(new RejectedExecutionException(
+                        "SQLConnectionManager has been disconnected!"));
+                return;
+            }
+
+            // The breaker may have opened while this statement was queued
+            if(!circuitBreaker.tryAcquire())
+            {
+                metrics.taskRejected(priority);
+                future.completeExceptionally(new SQLCircuitOpenException(label));
+                return;
+            }
+
+            long startedAtNanos = metrics.taskStarted(priority, queuedAtNanos);
+            Throwable failure = null;
+
+            try
+            {
+                T result = task.get();
+
+                // Record the outcome first, so the breaker has opened before anyone reacts to this failure
+                circuitBreaker.recordResult(System.nanoTime() - startedAtNanos, countLatency, null);
+                future.complete(result);
+            }
+            catch (Throwable e)
+            {
+                failure = e;
+                circuitBreaker.recordResult(System.nanoTime() - startedAtNanos, countLatency, e);
+
+                // Match supplyAsync, which always reports failures wrapped in a CompletionException
+                future.completeExceptionally(e instanceof CompletionException ? e : new CompletionException(e));
+            }
+            finally
+            {
+                metrics.taskFinished(label, startedAtNanos, failure != null);
+            }
+        };
+
+        // Fail fast while the database is unreachable, rather than queueing behind statements that will time out
+        if(!circuitBreaker.tryAcquire())
+        {
+            metrics.taskRejected(priority);
+            future.completeExceptionally(new SQLCircuitOpenException(label));
+
+            return future;
+        }
+
+        try
+        {
+            workScheduler.offer(priority, scheduledTask);
+        }
+        catch (SQLQueueFullException e)
+        {
+            // Backpressure -- fail this statement rather than letting the queue grow without limit
+            metrics.taskRejected(priority);
+            future.completeExceptionally(e);
+        }
+
+        return future;
     }
 
     /**
@@ -0,0 +1,43 @@
+package com.pixelsmp.core.database.sql;
+
+import java.util.Locale;
+
+public enum SQLExecutionMode
+{
+    /**
+     * Statements run on a fixed pool of platform threads sized by threading.sql.maximumPoolSize.
+     */
+    PLATFORM,
+
+    /**
+     * Statements run on their own virtual thread, with at most one per pooled connection executing at a time.
+     * Requires Java 21 or newer; older runtimes fall back to PLATFORM.
+     */
+    VIRTUAL;
+
+    /**
+     * Parses an execution mode as written in the configuration file, ignoring case.
+     *
+     * @param mode The configured mode, for example "platform" or "virtual"
+     *
+     * @return The matching execution mode, PLATFORM if the value is missing or unknown
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public static SQLExecutionMode fromConfig(String mode)
+    {
+        if (mode != null)
+        {
+            for (SQLExecutionMode executionMode : values())
+            {
+                if (executionMode.name().equals(mode.trim().toUpperCase(Locale.ROOT)))
+                {
+                    return executionMode;
+                }
+            }
+        }
+
+        return PLATFORM;
+    }
+}
@@ -0,0 +1,346 @@
+package com.pixelsmp.core.database.sql;
+
+import com.pixelsmp.core.metrics.LatencyHistogram;
+import com.pixelsmp.core.metrics.MetricsSource;
+import com.pixelsmp.core.metrics.PrometheusTextBuilder;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+public class SQLMetrics implements MetricsSource
+{
+    // Statements are labelled by their SQL text, so the number of series has to be capped
+    private static final int MAXIMUM_TRACKED_STATEMENTS = 64;
+    private static final String OTHER_STATEMENT = "other";
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final ConcurrentHashMap<String, StatementMetrics> _statementsByQuery = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, StatementMetrics> _statementsByLabel = new ConcurrentHashMap<>();
+    private final LatencyHistogram[] queueWait = new LatencyHistogram[SQLPriority.values().length];
+    private final AtomicInteger[] queuedTasks = new AtomicInteger[SQLPriority.values().length];
+    private final LongAdder[] rejectedTasks = new LongAdder[SQLPriority.values().length];
+    private final AtomicInteger inFlightTasks = new AtomicInteger(0);
+    private final HikariDataSource dataSource;
+    private final SQLCircuitBreaker circuitBreaker;
+
+    /**
+     * Initializes the metrics of a single connection manager.
+     *
+     * @param dataSource Pool whose connection counts are reported, may be null if the pool failed to start
+     * @param circuitBreaker Breaker whose state and transitions are reported
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    SQLMetrics(HikariDataSource dataSource, SQLCircuitBreaker circuitBreaker)
+    {
+        this.dataSource = dataSource;
+        this.circuitBreaker = circuitBreaker;
+
+        for (SQLPriority priority : SQLPriority.values())
+        {
+            queueWait[priority.ordinal()] = new LatencyHistogram();
+            queuedTasks[priority.ordinal()] = new AtomicInteger(0);
+            rejectedTasks[priority.ordinal()] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records that a task has been handed to the work scheduler.
+     *
+     * @param priority The priority class of the task
+     *
+     * @return Timestamp to pass to {@link #taskStarted(SQLPriority, long)}
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    long taskQueued(SQLPriority priority)
+    {
+        queuedTasks[priority.ordinal()].incrementAndGet();
+
+        return System.nanoTime();
+    }
+
+    /**
+     * Records that a queued task was refused and will never run.
+     *
+     * @param priority The priority class of the task
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    void taskRejected(SQLPriority priority)
+    {
+        queuedTasks[priority.ordinal()].decrementAndGet();
+        rejectedTasks[priority.ordinal()].increment();
+    }
+
+    /**
+     * Records that a queued task has started running.
+     *
+     * @param priority The priority class of the task
+     * @param queuedAtNanos Timestamp returned by {@link #taskQueued(SQLPriority)}
+     *
+     * @return Timestamp to pass to {@link #taskFinished(String, long, boolean)}
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    long taskStarted(SQLPriority priority, long queuedAtNanos)
+    {
+        long now = System.nanoTime();
+
+        queuedTasks[priority.ordinal()].decrementAndGet();
+        inFlightTasks.incrementAndGet();
+        queueWait[priority.ordinal()].record(now - queuedAtNanos);
+
+        return now;
+    }
+
+    /**
+     * Records that a task has finished, including the time it spent waiting for a connection.
+     *
+     * @param query The statement the task executed
+     * @param startedAtNanos Timestamp returned by {@link #taskStarted(SQLPriority, long)}
+     * @param failed Whether the task ended with an exception
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    void taskFinished(String query, long startedAtNanos, boolean failed)
+    {
+        inFlightTasks.decrementAndGet();
+
+        StatementMetrics statement = statement(query);
+        statement.latency.record(System.nanoTime() - startedAtNanos);
+
+        if (failed)
+        {
+            statement.errors.increment();
+        }
+    }
+
+    /**
+     * Returns the number of tasks of the given priority class waiting for an executor thread.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     *
+     * @param priority The priority class to inspect
+     *
+     * @return Number of queued tasks
+     */
+    public int getQueuedTasks(SQLPriority priority)
+    {
+        return queuedTasks[priority.ordinal()].get();
+    }
+
+    /**
+     * Returns the number of tasks of the given priority class refused because their queue was full.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     *
+     * @param priority The priority class to inspect
+     *
+     * @return Number of rejected tasks
+     */
+    public long getRejectedTasks(SQLPriority priority)
+    {
+        return rejectedTasks[priority.ordinal()].sum();
+    }
+
+    /**
+     * Returns the number of tasks currently running on an executor thread.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     *
+     * @return Number of running tasks
+     */
+    public int getInFlightTasks()
+    {
+        return inFlightTasks.get();
+    }
+
+    /**
+     * Returns the histogram of time tasks of the given priority class spent waiting for an executor thread.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     *
+     * @param priority The priority class to inspect
+     *
+     * @return Queue wait histogram
+     */
+    public LatencyHistogram getQueueWait(SQLPriority priority)
+    {
+        return queueWait[priority.ordinal()];
+    }
+
+    /**
+     * Returns the connection pool statistics, or null if the pool is not running.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     *
+     * @return HikariCP pool statistics
+     */
+    public HikariPoolMXBean getPoolStatistics()
+    {
+        return dataSource == null || dataSource.isClosed() ? null : dataSource.getHikariPoolMXBean();
+    }
+
+    /**
+     * Returns a snapshot of every tracked statement, slowest total time first.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     *
+     * @return Tracked statements, keyed by their normalized SQL text
+     */
+    public List<Map.Entry<String, StatementMetrics>> getStatements()
+    {
+        List<Map.Entry<String, StatementMetrics>> statements = new ArrayList<>(_statementsByLabel.entrySet());
+        statements.sort(Comparator.comparingLong(
+                (Map.Entry<String, StatementMetrics> entry) -> entry.getValue().latency.getSumNanos()).reversed());
+
+        return statements;
+    }
+
+    @Override
+    public void collectMetrics(PrometheusTextBuilder builder)
+    {
+        String pool = dataSource == null || dataSource.getPoolName() == null ? "default" : dataSource.getPoolName();
+
+        builder.gauge("pixelsmp_sql_tasks_in_flight", "SQL tasks running on an executor thread.",
+                inFlightTasks.get(), "pool", pool);
+
+        for (SQLPriority priority : SQLPriority.values())
+        {
+            String priorityLabel = priority.name().toLowerCase(Locale.ROOT);
+
+            builder.gauge("pixelsmp_sql_tasks_queued", "SQL tasks waiting for an executor thread.",
+                            queuedTasks[priority.ordinal()].get(), "pool", pool, "priority", priorityLabel)
+                    .counter("pixelsmp_sql_tasks_rejected_total",
+                            "SQL tasks refused before running: queue full, circuit open or disconnected.",
+                            rejectedTasks[priority.ordinal()].sum(), "pool", pool, "priority", priorityLabel)
+                    .histogram("pixelsmp_sql_queue_wait_seconds",
+                            "Time SQL tasks spent waiting for an executor thread.",
+                            queueWait[priority.ordinal()], "pool", pool, "priority", priorityLabel);
+        }
+
+        // 0 = closed, 1 = open, 2 = half-open
+        builder.gauge("pixelsmp_sql_circuit_state", "State of the database circuit breaker.",
+                        circuitBreaker.getState().ordinal(), "pool", pool)
+                .counter("pixelsmp_sql_circuit_rejected_total", "SQL tasks refused while the circuit breaker was open.",
+                        circuitBreaker.getRejectedCalls(), "pool", pool);
+
+        for (SQLCircuitBreaker.State state : SQLCircuitBreaker.State.values())
+        {
+            builder.counter("pixelsmp_sql_circuit_transitions_total", "Times the circuit breaker entered a state.",
+                    circuitBreaker.getTransitions(state), "pool", pool, "state", state.name().toLowerCase(Locale.ROOT));
+        }
+
+        HikariPoolMXBean poolStatistics = getPoolStatistics();
+
+        if (poolStatistics != null)
+        {
+            String help = "Connections in the HikariCP pool, by state.";
+
+            builder.gauge("pixelsmp_sql_connections", help, poolStatistics.getActiveConnections(),
+                            "pool", pool, "state", "active")
+                    .gauge("pixelsmp_sql_connections", help, poolStatistics.getIdleConnections(),
+                            "pool", pool, "state", "idle")
+                    .gauge("pixelsmp_sql_threads_awaiting_connection", "Threads waiting for a pooled connection.",
+                            poolStatistics.getThreadsAwaitingConnection(), "pool", pool);
+        }
+
+        for (Map.Entry<String, StatementMetrics> entry : _statementsByLabel.entrySet())
+        {
+            builder.histogram("pixelsmp_sql_statement_duration_seconds",
+                            "Time to execute a SQL statement, including acquiring a connection.",
+                            entry.getValue().latency, "pool", pool, "statement", entry.getKey())
+                    .counter("pixelsmp_sql_statement_errors_total", "SQL statements that failed.",
+                            entry.getValue().errors.sum(), "pool", pool, "statement", entry.getKey());
+        }
+    }
+
+    private StatementMetrics statement(String query)
+    {
+        StatementMetrics statement = _statementsByQuery.get(query);
+
+        if (statement != null)
+        {
+            return statement;
+        }
+
+        String label = normalize(query);
+
+        if (!_statementsByLabel.containsKey(label) && _statementsByLabel.size() >= MAXIMUM_TRACKED_STATEMENTS)
+        {
+            label = OTHER_STATEMENT;
+        }
+
+        statement = _statementsByLabel.computeIfAbsent(label, key -> new StatementMetrics());
+
+        // Only remember the raw text while it is bounded; dynamic SQL falls back to normalizing on every call
+        if (_statementsByQuery.size() < MAXIMUM_TRACKED_STATEMENTS * 4)
+        {
+            _statementsByQuery.putIfAbsent(query, statement);
+        }
+
+        return statement;
+    }
+
+    private static String normalize(String query)
+    {
+        // IN (...) lists of any length share a series, e.g. the batch loader's padded statements
+        String normalized = WHITESPACE.matcher(query.trim()).replaceAll(" ");
+
+        return PLACEHOLDER_LIST.matcher(normalized).replaceAll("?, ...");
+    }
+
+    public static final class StatementMetrics
+    {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+
+        /**
+         * Returns the latency histogram of the statement.
+         *
+         * @author Bradley Hooten (bradleyah02@gmail.com)
+         * @since 1.2.0
+         *
+         * @return Latency histogram
+         */
+        public LatencyHistogram getLatency()
+        {
+            return latency;
+        }
+
+        /**
+         * Returns the number of executions of the statement that failed.
+         *
+         * @author Bradley Hooten (bradleyah02@gmail.com)
+         * @since 1.2.0
+         *
+         * @return Number of failures
+         */
+        public long getErrors()
+        {
+            return errors.sum();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.pixelsmp.core.database.sql;
+
+import java.sql.SQLException;
+
+public final class SQLMigration
+{
+    private final int version;
+    private final String description;
+    private final MigrationFunction work;
+
+    /**
+     * Initializes a new schema migration. Migrations are applied in version order by {@link SQLMigrator}, each one
+     * exactly once per database.
+     *
+     * @param version Schema version the migration brings the database to, starting at 1
+     * @param description Short description of the migration, recorded in the schema version table
+     * @param work The statements that make up the migration
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public SQLMigration(int version, String description, MigrationFunction work)
+    {
+        if (version < 1)
+        {
+            throw new IllegalArgumentException("Schema versions start at 1!");
+        }
+
+        this.version = version;
+        this.description = description;
+        this.work = work;
+    }
+
+    /**
+     * Returns the schema version the migration brings the database to.
+     *
+     * @return Schema version
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public int getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * Returns the description of the migration.
+     *
+     * @return Description
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public String getDescription()
+    {
+        return description;
+    }
+
+    void apply(SQLTransaction transaction) throws SQLException
+    {
+        work.apply(transaction);
+    }
+
+    @Override
+    public String toString()
+    {
+        return version + " (" + description + ")";
+    }
+
+    /**
+     * This functional interface is used to run the statements of a migration.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     */
+    public interface MigrationFunction
+    {
+        void apply(SQLTransaction transaction) throws SQLException;
+    }
+}
@@ -0,0 +1,131 @@
+package com.pixelsmp.core.database.sql;
+
+import com.pixelsmp.core.chat.ChatFormatter;
+import org.bukkit.Bukkit;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class SQLMigrator
+{
+    // A version without applied_at was claimed by a server that has not finished (or never finished) applying it
+    private static final SQLStatement CREATE_VERSION_TABLE = SQLStatementRegistry.register("schema.createVersionTable",
+            SQLPriority.BACKGROUND,
+            "CREATE TABLE IF NOT EXISTS core_schema_version (version INT PRIMARY KEY, description VARCHAR(255) NOT NULL, started_at BIGINT NOT NULL, applied_at BIGINT NULL);");
+
+    private static final SQLStatement SELECT_VERSIONS = SQLStatementRegistry.register("schema.selectVersions",
+            SQLPriority.BACKGROUND,
+            "SELECT version, applied_at FROM core_schema_version ORDER BY version;");
+
+    private static final SQLStatement CLAIM_VERSION = SQLStatementRegistry.register("schema.claimVersion",
+            SQLPriority.BACKGROUND,
+            "INSERT INTO core_schema_version (version, description, started_at) VALUES (?, ?, ?);",
+            Integer.class, String.class, Long.class);
+
+    private static final SQLStatement COMPLETE_VERSION = SQLStatementRegistry.register("schema.completeVersion",
+            SQLPriority.BACKGROUND,
+            "UPDATE core_schema_version SET applied_at = ? WHERE version = ?;", Long.class, Integer.class);
+
+    private final SQLConnectionManager sqlConnectionManager;
+    private final List<SQLMigration> migrations;
+
+    /**
+     * Initializes a new migrator for the given migrations. The schema version of the database is kept in the
+     * core_schema_version table, with one row per applied migration.
+     *
+     * @param sqlConnectionManager Connection manager of the database to migrate
+     * @param migrations Every migration, ordered by version and numbered from 1 without gaps
+     *
+     * @throws IllegalArgumentException If the migrations are not numbered 1, 2, 3 and so on
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public SQLMigrator(SQLConnectionManager sqlConnectionManager, List<SQLMigration> migrations)
+    {
+        for (int i = 0; i < migrations.size(); i++)
+        {
+            if (migrations.get(i).getVersion() != i + 1)
+            {
+                throw new IllegalArgumentException("Migration " + migrations.get(i) + " is out of order; expected " +
+                        "version " + (i + 1) + "!");
+            }
+        }
+
+        this.sqlConnectionManager = sqlConnectionManager;
+        this.migrations = new ArrayList<>(migrations);
+    }
+
+    /**
+     * Applies every migration newer than the database's schema version, in order. Each migration is claimed in the
+     * schema version table before it runs and marked applied once it has, so a second server starting at the same
+     * time fails on the claim instead of applying it twice.
+     *
+     * <p>MySQL commits DDL implicitly, so a migration that fails halfway cannot be fully rolled back. Its claim is
+     * left behind without an applied time, and every later start refuses to migrate until an administrator has
+     * finished or reverted it by hand and updated the schema version table.</p>
+     *
+     * @return CompletableFuture containing the number of migrations applied
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public CompletableFuture<Integer> migrate()
+    {
+        return sqlConnectionManager.executeTransactionAsync(SQLPriority.BACKGROUND, "schema.migrate", transaction ->
+        {
+            transaction.executeUpdate(CREATE_VERSION_TABLE);
+
+            int schemaVersion = transaction.executeQuery(SELECT_VERSIONS, rs ->
+            {
+                int version = 0;
+
+                while (rs.next())
+                {
+                    if (rs.getObject("applied_at") == null)
+                    {
+                        throw new SQLException("Schema migration " + rs.getInt("version") + " was started but " +
+                                "never completed. If no other server is applying it, finish it by hand and set its " +
+                                "applied_at in core_schema_version.");
+                    }
+
+                    version = Math.max(version, rs.getInt("version"));
+                }
+
+                return version;
+            });
+
+            if (schemaVersion > migrations.size())
+            {
+                throw new SQLException("The database schema is at version " + schemaVersion + ", but this version " +
+                        "of the Core only knows " + migrations.size() + " migrations. Please update the Core.");
+            }
+
+            for (SQLMigration migration : migrations.subList(schemaVersion, migrations.size()))
+            {
+                long startedAtMillis = System.currentTimeMillis();
+
+                transaction.executeUpdate(CLAIM_VERSION, migration.getVersion(), migration.getDescription(),
+                        startedAtMillis);
+                transaction.commit();
+
+                migration.apply(transaction);
+
+                transaction.executeUpdate(COMPLETE_VERSION, System.currentTimeMillis(), migration.getVersion());
+                transaction.commit();
+
+                // Benchmarks migrate without a running server
+                if (Bukkit.getServer() != null)
+                {
+                    Bukkit.getLogger().info(ChatFormatter.formatConsoleMessage("Database Core", "Applied schema " +
+                            "migration " + migration + " in " + (System.currentTimeMillis() - startedAtMillis) +
+                            "ms.", false));
+                }
+            }
+
+            return migrations.size() - schemaVersion;
+        });
+    }
+}
@@ -0,0 +1,41 @@
+package com.pixelsmp.core.database.sql;
+
+public enum SQLPriority
+{
+    /**
+     * Work a player is actively waiting on, such as a command or chat message that needs a rank.
+     */
+    INTERACTIVE(8),
+
+    /**
+     * Work a login is blocked on, such as loading a joining player's rank.
+     */
+    JOIN_CRITICAL(8),
+
+    /**
+     * Work nobody is waiting on, such as seeding, imports and maintenance. Shed first when the database falls
+     * behind.
+     */
+    BACKGROUND(1);
+
+    private final int weight;
+
+    SQLPriority(int weight)
+    {
+        this.weight = weight;
+    }
+
+    /**
+     * Returns how many tasks of this class are dispatched per scheduling round while every class has work queued.
+     * Weights keep background work from starving completely without letting it delay interactive work.
+     *
+     * @return Tasks dispatched per round
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public int getWeight()
+    {
+        return weight;
+    }
+}
@@ -0,0 +1,38 @@
+package com.pixelsmp.core.database.sql;
+
+import java.util.concurrent.RejectedExecutionException;
+
+public class SQLQueueFullException extends RejectedExecutionException
+{
+    private final SQLPriority priority;
+
+    /**
+     * Signals that a statement was refused because the queue for its priority class is full. Callers should treat
+     * this as backpressure: retry later, or drop the work if it is optional.
+     *
+     * @param priority The priority class whose queue is full
+     * @param capacity The capacity of that queue
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public SQLQueueFullException(SQLPriority priority, int capacity)
+    {
+        super("The " + priority + " SQL queue is full (" + capacity + " statements waiting); the database is " +
+                "falling behind.");
+        this.priority = priority;
+    }
+
+    /**
+     * Returns the priority class whose queue is full.
+     *
+     * @return The priority class of the rejected statement
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public SQLPriority getPriority()
+    {
+        return priority;
+    }
+}
@@ -0,0 +1,214 @@
+package com.pixelsmp.core.database.sql;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+class SQLRowPublisher<T> implements Flow.Publisher<T>
+{
+    // A stream holds a connection and an executor slot, so a subscriber that stops requesting is cut off
+    private static final long DEMAND_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private final AtomicBoolean subscribed = new AtomicBoolean(false);
+    private final Consumer<RowSubscription<T>> producer;
+
+    /**
+     * Initializes a new single-use publisher. The producer is started once a subscriber arrives and must emit rows
+     * through the subscription only as fast as the subscriber requests them.
+     *
+     * @param producer Starts producing rows for the provided subscription
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    SQLRowPublisher(Consumer<RowSubscription<T>> producer)
+    {
+        this.producer = producer;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber)
+    {
+        // The query runs once, so only the first subscriber gets rows
+        if (!subscribed.compareAndSet(false, true))
+        {
+            subscriber.onSubscribe(new RowSubscription<>(null));
+            subscriber.onError(new IllegalStateException("SQLRowPublisher only supports a single subscriber!"));
+            return;
+        }
+
+        RowSubscription<T> subscription = new RowSubscription<>(subscriber);
+
+        subscriber.onSubscribe(subscription);
+        producer.accept(subscription);
+    }
+
+    static final class RowSubscription<T> implements Flow.Subscription
+    {
+        private final Flow.Subscriber<? super T> subscriber;
+        private long demand = 0;
+        private boolean cancelled = false;
+        private boolean invalidRequest = false;
+        private boolean terminated = false;
+
+        private RowSubscription(Flow.Subscriber<? super T> subscriber)
+        {
+            this.subscriber = subscriber;
+            this.terminated = subscriber == null;
+        }
+
+        @Override
+        public synchronized void request(long n)
+        {
+            if (n <= 0)
+            {
+                invalidRequest = true;
+                cancelled = true;
+                notifyAll();
+
+                // Reported by the producer, which is the only thread that signals the subscriber
+                return;
+            }
+
+            demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            notifyAll();
+        }
+
+        @Override
+        public synchronized void cancel()
+        {
+            cancelled = true;
+            notifyAll();
+        }
+
+        /**
+         * Blocks the producer until the subscriber wants another row.
+         *
+         * @return True if a row may be emitted, false if the subscription has been cancelled
+         *
+         * @throws TimeoutException If the subscriber requested nothing for too long
+         *
+         * @author Bradley Hooten (bradleyah02@gmail.com)
+         * @since 1.2.0
+         */
+        synchronized boolean awaitDemand() throws TimeoutException
+        {
+            long deadline = System.currentTimeMillis() + DEMAND_TIMEOUT_MILLIS;
+
+            while (demand == 0 && !cancelled)
+            {
+                long remaining = deadline - System.currentTimeMillis();
+
+                if (remaining <= 0)
+                {
+                    throw new TimeoutException("The subscriber requested no rows for " + DEMAND_TIMEOUT_MILLIS +
+                            "ms; the stream has been closed.");
+                }
+
+                try
+                {
+                    wait(remaining);
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    cancelled = true;
+                }
+            }
+
+            return !cancelled;
+        }
+
+        /**
+         * Returns whether the subscription was cancelled, including by a non-positive request.
+         *
+         * @return True if no more rows should be produced
+         *
+         * @author Bradley Hooten (bradleyah02@gmail.com)
+         * @since 1.2.0
+         */
+        synchronized boolean isCancelled()
+        {
+            return cancelled;
+        }
+
+        /**
+         * Emits a row. Must only be called after {@link #awaitDemand()} returned true.
+         *
+         * @param row The row to emit
+         *
+         * @author Bradley Hooten (bradleyah02@gmail.com)
+         * @since 1.2.0
+         */
+        void emit(T row)
+        {
+            synchronized (this)
+            {
+                demand--;
+            }
+
+            subscriber.onNext(row);
+        }
+
+        /**
+         * Signals that every row has been emitted, or that the stream was cancelled.
+         *
+         * @author Bradley Hooten (bradleyah02@gmail.com)
+         * @since 1.2.0
+         */
+        void complete()
+        {
+            if (!markTerminated())
+            {
+                return;
+            }
+
+            if (isInvalidRequest())
+            {
+                subscriber.onError(
+                        new IllegalArgumentException("Subscribers must request a positive number of rows."));
+            }
+            else if (!isCancelled())
+            {
+                subscriber.onComplete();
+            }
+        }
+
+        /**
+         * Signals that the stream failed. Ignored if the stream already completed or was cancelled.
+         *
+         * @param ex The failure
+         *
+         * @author Bradley Hooten (bradleyah02@gmail.com)
+         * @since 1.2.0
+         */
+        void fail(Throwable ex)
+        {
+            if (markTerminated() && (!isCancelled() || isInvalidRequest()))
+            {
+                subscriber.onError(isInvalidRequest() ?
+                        new IllegalArgumentException("Subscribers must request a positive number of rows.") :
+                        ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+            }
+        }
+
+        private synchronized boolean isInvalidRequest()
+        {
+            return invalidRequest;
+        }
+
+        private synchronized boolean markTerminated()
+        {
+            if (terminated)
+            {
+                return false;
+            }
+
+            terminated = true;
+            return true;
+        }
+    }
+}
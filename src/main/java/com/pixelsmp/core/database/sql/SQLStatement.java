@@ -0,0 +1,109 @@
+package com.pixelsmp.core.database.sql;
+
+import java.util.Arrays;
+
+public final class SQLStatement
+{
+    private final String name;
+    private final String sql;
+    private final SQLPriority priority;
+    private final Class<?>[] parameterTypes;
+
+    /**
+     * Initializes a new statement declaration. Statements are created through {@link SQLStatementRegistry}.
+     *
+     * @param name Unique name of the statement, such as "permissions.selectRank"
+     * @param sql The parameterized SQL text
+     * @param priority The priority class the statement is scheduled in
+     * @param parameterTypes The Java type expected for each parameter, in order
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    SQLStatement(String name, String sql, SQLPriority priority, Class<?>[] parameterTypes)
+    {
+        this.name = name;
+        this.sql = sql;
+        this.priority = priority;
+        this.parameterTypes = parameterTypes.clone();
+    }
+
+    /**
+     * Returns the unique name of the statement, which is also its label in metrics.
+     *
+     * @return Name of the statement
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Returns the parameterized SQL text of the statement.
+     *
+     * @return SQL text
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public String getSQL()
+    {
+        return sql;
+    }
+
+    /**
+     * Returns the priority class the statement is scheduled in.
+     *
+     * @return Priority class
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public SQLPriority getPriority()
+    {
+        return priority;
+    }
+
+    /**
+     * Checks the provided parameters against the declared parameter types. Null is accepted for any parameter.
+     *
+     * @param parameters Parameters about to be bound
+     *
+     * @throws IllegalArgumentException If the number or types of the parameters do not match the declaration
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public void validateParameters(Object[] parameters)
+    {
+        if (parameters.length != parameterTypes.length)
+        {
+            throw new IllegalArgumentException("Statement " + name + " takes " + parameterTypes.length +
+                    " parameters, but " + parameters.length + " were provided!");
+        }
+
+        for (int i = 0; i < parameters.length; i++)
+        {
+            if (parameters[i] != null && !parameterTypes[i].isInstance(parameters[i]))
+            {
+                throw new IllegalArgumentException("Parameter " + (i + 1) + " of statement " + name + " must be a " +
+                        parameterTypes[i].getSimpleName() + ", but a " + parameters[i].getClass().getSimpleName() +
+                        " was provided!");
+            }
+        }
+    }
+
+    boolean matches(String sql, SQLPriority priority, Class<?>[] parameterTypes)
+    {
+        return this.sql.equals(sql) && this.priority == priority && Arrays.equals(this.parameterTypes, parameterTypes);
+    }
+
+    @Override
+    public String toString()
+    {
+        return name;
+    }
+}
@@ -0,0 +1,80 @@
+package com.pixelsmp.core.database.sql;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class SQLStatementRegistry
+{
+    private static final ConcurrentHashMap<String, SQLStatement> _statements = new ConcurrentHashMap<>();
+
+    private SQLStatementRegistry()
+    {
+    }
+
+    /**
+     * Declares a statement under a unique name. Declaring the same statement again returns the existing
+     * declaration, so declarations can live in static initializers.
+     *
+     * @param name Unique name of the statement, such as "permissions.selectRank"
+     * @param priority The priority class the statement is scheduled in
+     * @param sql The parameterized SQL text
+     * @param parameterTypes The Java type expected for each parameter, in order
+     *
+     * @return The registered statement
+     *
+     * @throws IllegalStateException If a different statement is already registered under the name
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public static SQLStatement register(String name, SQLPriority priority, String sql, Class<?>... parameterTypes)
+    {
+        SQLStatement statement = _statements.computeIfAbsent(name,
+                key -> new SQLStatement(name, sql, priority, parameterTypes));
+
+        if (!statement.matches(sql, priority, parameterTypes))
+        {
+            throw new IllegalStateException("A different statement is already registered as " + name + "!");
+        }
+
+        return statement;
+    }
+
+    /**
+     * Returns a registered statement.
+     *
+     * @param name Name of the statement
+     *
+     * @return The registered statement
+     *
+     * @throws IllegalArgumentException If no statement is registered under the name
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public static SQLStatement get(String name)
+    {
+        SQLStatement statement = _statements.get(name);
+
+        if (statement == null)
+        {
+            throw new IllegalArgumentException("No statement has been registered under the name " + name + "!");
+        }
+
+        return statement;
+    }
+
+    /**
+     * Checks whether a statement is registered under the provided name.
+     *
+     * @param name Name of the statement
+     *
+     * @return True if a statement is registered under the name
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public static boolean contains(String name)
+    {
+        return _statements.containsKey(name);
+    }
+}
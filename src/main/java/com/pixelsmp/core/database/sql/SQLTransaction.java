@@ -0,0 +1,175 @@
+package com.pixelsmp.core.database.sql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+public final class SQLTransaction
+{
+    private final Connection connection;
+
+    /**
+     * Initializes a new transaction on a connection that already has auto-commit switched off. Transactions are
+     * created through {@link SQLConnectionManager#executeTransactionAsync(SQLPriority, String, TransactionFunction)}.
+     *
+     * @param connection The connection the transaction runs on
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    SQLTransaction(Connection connection)
+    {
+        this.connection = connection;
+    }
+
+    /**
+     * Executes a registered query inside the transaction.
+     *
+     * @param statement The registered statement to execute
+     * @param handler Handler for the ResultSet
+     * @param parameters The parameters to bind
+     *
+     * @return The value produced by the handler
+     *
+     * @throws SQLException If the query fails; the whole transaction is rolled back
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public <T> T executeQuery(SQLStatement statement, SQLConnectionManager.ResultSetHandlerFunction<T> handler,
+                              Object... parameters) throws SQLException
+    {
+        statement.validateParameters(parameters);
+
+        try (PreparedStatement preparedStatement = prepare(statement.getSQL(), parameters);
+             ResultSet resultSet = preparedStatement.executeQuery())
+        {
+            return handler.apply(resultSet);
+        }
+    }
+
+    /**
+     * Executes a registered update statement inside the transaction.
+     *
+     * @param statement The registered statement to execute
+     * @param parameters The parameters to bind
+     *
+     * @return Number of rows affected
+     *
+     * @throws SQLException If the statement fails; the whole transaction is rolled back
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public int executeUpdate(SQLStatement statement, Object... parameters) throws SQLException
+    {
+        statement.validateParameters(parameters);
+
+        return executeUpdate(statement.getSQL(), parameters);
+    }
+
+    /**
+     * Executes an unregistered update statement inside the transaction, such as generated DDL.
+     *
+     * @param query The MySQL statement to execute
+     * @param parameters The parameters to bind
+     *
+     * @return Number of rows affected
+     *
+     * @throws SQLException If the statement fails; the whole transaction is rolled back
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public int executeUpdate(String query, Object... parameters) throws SQLException
+    {
+        try (PreparedStatement preparedStatement = prepare(query, parameters))
+        {
+            return preparedStatement.executeUpdate();
+        }
+    }
+
+    /**
+     * Executes a registered update statement once per parameter set as a single JDBC batch inside the transaction.
+     *
+     * @param statement The registered statement to execute for every parameter set
+     * @param parameterSets The parameters to bind for each execution of the statement
+     *
+     * @return The update counts reported by the driver, in parameter set order
+     *
+     * @throws SQLException If the batch fails; the whole transaction is rolled back
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public int[] executeBatch(SQLStatement statement, List<Object[]> parameterSets) throws SQLException
+    {
+        try (PreparedStatement preparedStatement = connection.prepareStatement(statement.getSQL()))
+        {
+            for (Object[] parameters : parameterSets)
+            {
+                statement.validateParameters(parameters);
+
+                for (int i = 0; i < parameters.length; i++)
+                {
+                    preparedStatement.setObject(i + 1, parameters[i]);
+                }
+
+                preparedStatement.addBatch();
+            }
+
+            return preparedStatement.executeBatch();
+        }
+    }
+
+    /**
+     * Commits the statements executed so far and continues in a new transaction on the same connection. Long
+     * running work, such as copying a large table, can commit in chunks so the database never has to hold the
+     * whole change in one transaction; only the work after the last commit is rolled back if it fails.
+     *
+     * @throws SQLException If the commit fails
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public void commit() throws SQLException
+    {
+        connection.commit();
+    }
+
+    private PreparedStatement prepare(String query, Object[] parameters) throws SQLException
+    {
+        PreparedStatement preparedStatement = connection.prepareStatement(query);
+
+        try
+        {
+            for (int i = 0; i < parameters.length; i++)
+            {
+                preparedStatement.setObject(i + 1, parameters[i]);
+            }
+        }
+        catch (SQLException e)
+        {
+            preparedStatement.close();
+            throw e;
+        }
+
+        return preparedStatement;
+    }
+
+    /**
+     * This functional interface is used to run work inside a transaction.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @param <R> The type of the result
+     */
+    public interface TransactionFunction<R>
+    {
+        R apply(SQLTransaction transaction) throws SQLException;
+    }
+}
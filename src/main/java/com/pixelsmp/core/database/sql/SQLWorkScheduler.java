@@ -0,0 +1,279 @@
+package com.pixelsmp.core.database.sql;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class SQLWorkScheduler
+{
+    private static final SQLPriority[] PRIORITIES = SQLPriority.values();
+
+    private final ArrayDeque<Runnable>[] queues;
+    private final int[] capacities;
+    private final int[] credits = new int[PRIORITIES.length];
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+
+    private Thread dispatcher;
+    private boolean closed = false;
+
+    /**
+     * Initializes a new scheduler with a separate bounded queue for each priority class.
+     *
+     * @param interactiveCapacity Maximum number of queued INTERACTIVE statements
+     * @param joinCriticalCapacity Maximum number of queued JOIN_CRITICAL statements
+     * @param backgroundCapacity Maximum number of queued BACKGROUND statements
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    @SuppressWarnings("unchecked")
+    public SQLWorkScheduler(int interactiveCapacity, int joinCriticalCapacity, int backgroundCapacity)
+    {
+        Map<SQLPriority, Integer> configuredCapacities = new EnumMap<>(SQLPriority.class);
+        configuredCapacities.put(SQLPriority.INTERACTIVE, interactiveCapacity);
+        configuredCapacities.put(SQLPriority.JOIN_CRITICAL, joinCriticalCapacity);
+        configuredCapacities.put(SQLPriority.BACKGROUND, backgroundCapacity);
+
+        this.queues = new ArrayDeque[PRIORITIES.length];
+        this.capacities = new int[PRIORITIES.length];
+
+        for (SQLPriority priority : PRIORITIES)
+        {
+            capacities[priority.ordinal()] = Math.max(1, configuredCapacities.get(priority));
+            queues[priority.ordinal()] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Initializes a new scheduler with the default queue capacities.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public SQLWorkScheduler()
+    {
+        this(1000, 1000, 200);
+    }
+
+    /**
+     * Queues a task in its priority class.
+     *
+     * @param priority The priority class of the task
+     * @param task The task to run once a slot is free
+     *
+     * @throws SQLQueueFullException If the queue for the priority class is full, or the scheduler has been closed
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    void offer(SQLPriority priority, Runnable task)
+    {
+        lock.lock();
+
+        try
+        {
+            ArrayDeque<Runnable> queue = queues[priority.ordinal()];
+
+            if (closed || queue.size() >= capacities[priority.ordinal()])
+            {
+                throw new SQLQueueFullException(priority, capacities[priority.ordinal()]);
+            }
+
+            queue.addLast(task);
+            workAvailable.signal();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of tasks waiting in the provided priority class.
+     *
+     * @param priority The priority class to inspect
+     *
+     * @return Number of queued tasks
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public int getQueueSize(SQLPriority priority)
+    {
+        lock.lock();
+
+        try
+        {
+            return queues[priority.ordinal()].size();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Starts the dispatcher thread. A task is only taken from the queues once one of the concurrency slots is free,
+     * so priority is decided at the last possible moment and the executor's own queue never grows.
+     *
+     * @param executor Executor the tasks run on
+     * @param concurrency Maximum number of tasks running at once
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    void start(Executor executor, int concurrency)
+    {
+        Semaphore slots = new Semaphore(Math.max(1, concurrency));
+
+        dispatcher = new Thread(() ->
+        {
+            try
+            {
+                while (!Thread.currentThread().isInterrupted())
+                {
+                    slots.acquire();
+                    Runnable task = take();
+
+                    try
+                    {
+                        executor.execute(() ->
+                        {
+                            try
+                            {
+                                task.run();
+                            }
+                            finally
+                            {
+                                slots.release();
+                            }
+                        });
+                    }
+                    catch (RuntimeException e)
+                    {
+                        // The executor is shutting down; hand the task back so close() can fail it
+                        slots.release();
+                        requeue(task);
+
+                        return;
+                    }
+                }
+            }
+            catch (InterruptedException e)
+            {
+                // Closed
+            }
+        }, "PixelSMP-Core-SQL-Dispatcher");
+
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * Stops the dispatcher and refuses new tasks.
+     *
+     * @return Tasks that were still queued and will never run
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    List<Runnable> close()
+    {
+        List<Runnable> abandoned = new ArrayList<>();
+
+        lock.lock();
+
+        try
+        {
+            closed = true;
+
+            if (dispatcher != null)
+            {
+                dispatcher.interrupt();
+            }
+
+            for (ArrayDeque<Runnable> queue : queues)
+            {
+                abandoned.addAll(queue);
+                queue.clear();
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        return abandoned;
+    }
+
+    private Runnable take() throws InterruptedException
+    {
+        lock.lockInterruptibly();
+
+        try
+        {
+            while (true)
+            {
+                boolean anyQueued = false;
+
+                // Weighted round robin: serve each class in priority order while it has credit left
+                for (SQLPriority priority : PRIORITIES)
+                {
+                    ArrayDeque<Runnable> queue = queues[priority.ordinal()];
+
+                    if (queue.isEmpty())
+                    {
+                        continue;
+                    }
+
+                    anyQueued = true;
+
+                    if (credits[priority.ordinal()] > 0)
+                    {
+                        credits[priority.ordinal()]--;
+                        return queue.pollFirst();
+                    }
+                }
+
+                if (anyQueued)
+                {
+                    // Every class with work has spent its credit, start a new round
+                    for (SQLPriority priority : PRIORITIES)
+                    {
+                        credits[priority.ordinal()] = priority.getWeight();
+                    }
+                }
+                else
+                {
+                    workAvailable.await();
+                }
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    private void requeue(Runnable task)
+    {
+        lock.lock();
+
+        try
+        {
+            // Priority is lost, but the task only needs to be found again by close()
+            queues[SQLPriority.INTERACTIVE.ordinal()].addFirst(task);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+}
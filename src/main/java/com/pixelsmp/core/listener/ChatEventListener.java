@@ -1,43 +1,84 @@
 package com.pixelsmp.core.listener;
 
 import com.pixelsmp.core.CorePlugin;
+import com.pixelsmp.core.chat.ChatContext;
 import com.pixelsmp.core.chat.ChatFormatter;
+import com.pixelsmp.core.chat.ChatPipeline;
 import com.pixelsmp.core.permissions.PermissionRank;
-import org.bukkit.ChatColor;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.AsyncPlayerChatEvent;
 
-import java.util.Optional;
+import java.util.UUID;
 
 public class ChatEventListener implements Listener
 {
+    private final ChatPipeline chatPipeline;
+
+    public ChatEventListener(ChatPipeline chatPipeline)
+    {
+        this.chatPipeline = chatPipeline;
+    }
+
     @EventHandler
     public void onChat(AsyncPlayerChatEvent event)
     {
-        // Fetch the player's rank
-        CorePlugin.getPermissionOrchestrator().getPlayerRank(event.getPlayer().getUniqueId()).thenAccept(rank ->
+        UUID playerUUID = event.getPlayer().getUniqueId();
+
+        // The rank is resident for the whole session, so the format can be set before the event returns
+        PermissionRank rank = CorePlugin.getPermissionOrchestrator().getCachedPlayerRank(playerUUID);
+
+        if (rank == null)
+        {
+            rank = PermissionRank.MEMBER;
+
+            // Players that were online across a reload may not be seeded yet, which is expected while bootstrapping.
+            // Otherwise, something is clearly wrong, as any player should be seeded during login. Either way, format
+            // this message as a MEMBER, and once ready, repair the profile in the background for the next one.
+            if (CorePlugin.isReady())
+            {
+                repairPlayerRank(event);
+            }
+        }
+
+        // Mute checks, spam throttling and filters run inline, so the outcome is known before the event returns
+        ChatContext context = chatPipeline.process(event.getPlayer(), rank, event.getMessage());
+
+        if (context.isCancelled())
+        {
+            event.setCancelled(true);
+
+            if (context.getFeedback() != null)
+            {
+                event.getPlayer().sendMessage(context.getFeedback());
+            }
+
+            return;
+        }
+
+        // The prefix is precompiled per rank; only the player's own text still needs its color codes translated
+        event.setMessage(ChatFormatter.translateChatMessage(context.getMessage()));
+        event.setFormat(ChatFormatter.formatRankChat(rank, event.getPlayer().getName()));
+    }
+
+    private void repairPlayerRank(AsyncPlayerChatEvent event)
+    {
+        UUID playerUUID = event.getPlayer().getUniqueId();
+
+        CorePlugin.getPermissionOrchestrator().getPlayerRank(playerUUID).thenAccept(rank ->
         {
             // If the rank is empty, set it to MEMBER
             if (rank.isEmpty())
             {
-                CorePlugin.getPermissionOrchestrator().upsertPlayerRank(event.getPlayer().getUniqueId(), PermissionRank.MEMBER);
-                rank = Optional.of(PermissionRank.MEMBER);
+                CorePlugin.getPermissionOrchestrator().upsertPlayerRank(playerUUID, PermissionRank.MEMBER);
             }
-
-            event.setFormat(ChatColor.translateAlternateColorCodes('&', "&" +
-                    rank.get().getColorCode() + "&l" + rank.get().getName() + " &r&7" + event.getPlayer().getName() +
-                    " &r&7// " + event.getMessage()));
         }).exceptionally(ex ->
         {
             CorePlugin.getInstance().getLogger().severe(ChatFormatter.formatConsoleMessage("Core",
                     "An error occurred while attempting to fetch the player's rank: " + ex.getMessage(),
                     true));
 
-            event.getPlayer().sendMessage(ChatFormatter.formatChatMessage("Core",
-                    "An error occurred while trying to initialize your profile. " +
-                            "Please contact an administrator.",
-                    true));
+            event.getPlayer().sendMessage(ChatFormatter.PROFILE_ERROR);
 
             return null;
         });
@@ -11,38 +11,13 @@ public class PlayerJoinListener implements Listener
     @EventHandler
     public void onJoin(PlayerJoinEvent event)
     {
-        // Seed the player's rank into the in-memory store for caching
-        CorePlugin.getPermissionOrchestrator().seedPlayerRank(event.getPlayer().getUniqueId())
-                .thenAccept(success ->
-                {
-                    if (success)
-                    {
-                        CorePlugin.getInstance().getLogger().fine("Successfully seeded player rank for " +
-                                event.getPlayer().getName() + "!");
-                    }
-                    else
-                    {
-                        CorePlugin.getInstance().getLogger().warning(ChatFormatter.formatConsoleMessage("Core",
-                                "Failed to seed player rank for " + event.getPlayer().getName() + "!",
-                                true));
+        // The rank is seeded during pre-login, so it must already be resident by now
+        if (CorePlugin.getPermissionOrchestrator().getCachedPlayerRank(event.getPlayer().getUniqueId()) == null)
+        {
+            CorePlugin.getInstance().getLogger().warning(ChatFormatter.formatConsoleMessage("Core",
+                    "Player rank for " + event.getPlayer().getName() + " was not resident on join!", true));
+        }
 
-                        // Inform the player of the error
-                        event.getPlayer().sendMessage(ChatFormatter.formatChatMessage("Core",
-                                "An error occurred while trying to initialize your profile. " +
-                                        "Please contact an administrator.", true));
-                    }
-                }).exceptionally(ex ->
-                {
-                    CorePlugin.getInstance().getLogger().warning(ChatFormatter.formatConsoleMessage("Core",
-                            "An error occurred while attempting to fetch the player's rank: " +
-                                    ex.getMessage(), true));
-
-                    event.getPlayer().sendMessage(ChatFormatter.formatChatMessage("Core",
-                            "An error occurred while trying to initialize your profile. " +
-                                    "Please contact an administrator.",
-                            true));
-
-                    return null;
-                });
+        CorePlugin.getPermissionOrchestrator().addOnlinePlayer(event.getPlayer());
     }
-}
\ No newline at end of file
+}
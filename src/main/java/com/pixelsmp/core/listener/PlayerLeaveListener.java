@@ -10,6 +10,9 @@ public class PlayerLeaveListener implements Listener
     @EventHandler
     public void onLeave(PlayerQuitEvent event)
     {
-        CorePlugin.getPermissionOrchestrator().purgePermissionCache(event.getPlayer().getUniqueId());
+        CorePlugin.getPermissionAttachmentManager().detach(event.getPlayer());
+        CorePlugin.getPermissionOrchestrator().removeOnlinePlayer(event.getPlayer().getUniqueId());
+        CorePlugin.getPermissionOrchestrator().releasePlayerRank(event.getPlayer().getUniqueId());
+        CorePlugin.getChatPipeline().forgetPlayer(event.getPlayer().getUniqueId());
     }
 }
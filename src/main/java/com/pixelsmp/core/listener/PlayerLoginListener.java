@@ -0,0 +1,196 @@
+package com.pixelsmp.core.listener;
+
+import com.pixelsmp.core.CorePlugin;
+import com.pixelsmp.core.chat.ChatFormatter;
+import com.pixelsmp.core.chat.MessageRegistry;
+import com.pixelsmp.core.permissions.PermissionOrchestrator;
+import com.pixelsmp.core.permissions.PermissionRank;
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class PlayerLoginListener implements Listener
+{
+    private static final String PROFILE_LOAD_ERROR = MessageRegistry.register("core.profileLoadError", "Core",
+            "An error occurred while trying to initialize your profile. Please try again shortly.", true);
+
+    // Seeds started by the pre-login handler, so the monitor handler can tell which logins took a hold
+    private final Map<AsyncPlayerPreLoginEvent, CompletableFuture<Boolean>> _seeds = new ConcurrentHashMap<>();
+
+    // One token per admitted login whose hold has not yet been claimed by a join, a refusal or the timeout; each
+    // queue is only touched inside a compute on the map
+    private final Map<UUID, Queue<Object>> _unclaimedHolds = new ConcurrentHashMap<>();
+
+    private final long seedTimeoutMillis;
+    private final long holdTimeoutMillis;
+
+    /**
+     * Initializes a new login listener, which seeds each player's rank before they are admitted and holds it for
+     * their session.
+     *
+     * @param seedTimeoutMillis Maximum time, in milliseconds, a login waits for the player's rank
+     * @param holdTimeoutMillis Time, in milliseconds, after which the hold of a player who was admitted but never
+     *                          joined is released
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public PlayerLoginListener(long seedTimeoutMillis, long holdTimeoutMillis)
+    {
+        this.seedTimeoutMillis = seedTimeoutMillis;
+        this.holdTimeoutMillis = holdTimeoutMillis;
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event)
+    {
+        // Another plugin already refused the login, don't bother loading anything
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED)
+        {
+            return;
+        }
+
+        // The rank store may not even be reachable yet, so turn the player away instead of waiting on it
+        if (!CorePlugin.isReady())
+        {
+            event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_OTHER, ChatFormatter.NOT_READY_ERROR);
+            return;
+        }
+
+        PermissionOrchestrator orchestrator = CorePlugin.getPermissionOrchestrator();
+        UUID playerUUID = event.getUniqueId();
+
+        // Hold the rank before seeding it, so an old session quitting meanwhile cannot purge it. The hold is
+        // released by onPreLoginResult() if the login ends up refused, whoever refuses it
+        orchestrator.retainPlayerRank(playerUUID);
+
+        CompletableFuture<Boolean> seed = orchestrator.seedPlayerRank(playerUUID);
+        _seeds.put(event, seed);
+
+        try
+        {
+            // This event runs off the main thread and the player is not admitted until it returns, so block here
+            if (seed.get(seedTimeoutMillis, TimeUnit.MILLISECONDS))
+            {
+                return;
+            }
+        }
+        catch (TimeoutException e)
+        {
+            CorePlugin.getInstance().getLogger().warning(ChatFormatter.formatConsoleMessage("Core",
+                    "Timed out fetching the rank of " + playerUUID + " after " + seedTimeoutMillis + "ms.", true));
+        }
+        catch (Exception e)
+        {
+            CorePlugin.getInstance().getLogger().warning(ChatFormatter.formatConsoleMessage("Core",
+                    "An error occurred while attempting to fetch the player's rank: " + e.getMessage(), true));
+        }
+
+        // The rank could not be loaded -- refuse the login rather than admitting the player without one
+        event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_OTHER, PROFILE_LOAD_ERROR);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLoginResult(AsyncPlayerPreLoginEvent event)
+    {
+        CompletableFuture<Boolean> seed = _seeds.remove(event);
+
+        // No hold was taken for this login
+        if (seed == null)
+        {
+            return;
+        }
+
+        UUID playerUUID = event.getUniqueId();
+
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED)
+        {
+            // Refused by us or by a handler after us. Release only once the seed is done, so a seed that timed out
+            // cannot make the rank resident again after the hold is gone
+            seed.whenComplete((result, ex) -> CorePlugin.getPermissionOrchestrator().releasePlayerRank(playerUUID));
+            return;
+        }
+
+        // The player may still disconnect before joining, in which case no other event releases the hold
+        Object token = new Object();
+
+        _unclaimedHolds.compute(playerUUID, (key, tokens) ->
+        {
+            Queue<Object> unclaimed = tokens == null ? new ArrayDeque<>() : tokens;
+            unclaimed.add(token);
+
+            return unclaimed;
+        });
+
+        Bukkit.getScheduler().runTaskLaterAsynchronously(CorePlugin.getInstance(), () ->
+        {
+            if (removeHold(playerUUID, token))
+            {
+                CorePlugin.getPermissionOrchestrator().releasePlayerRank(playerUUID);
+            }
+        }, Math.max(1, holdTimeoutMillis / 50));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLogin(PlayerLoginEvent event)
+    {
+        UUID playerUUID = event.getPlayer().getUniqueId();
+
+        // The login was refused after the rank was seeded (whitelist, bans, full server), release it
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED)
+        {
+            if (claimHold(playerUUID))
+            {
+                CorePlugin.getPermissionOrchestrator().releasePlayerRank(playerUUID);
+            }
+
+            return;
+        }
+
+        // Attach the rank's permission nodes before any join handler can check them
+        PermissionRank rank = CorePlugin.getPermissionOrchestrator().getCachedPlayerRank(playerUUID);
+        CorePlugin.getPermissionAttachmentManager().attach(event.getPlayer(),
+                rank != null ? rank : PermissionRank.MEMBER);
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onJoin(PlayerJoinEvent event)
+    {
+        // The session now owns the hold, and releases it when the player quits
+        claimHold(event.getPlayer().getUniqueId());
+    }
+
+    private boolean claimHold(UUID playerUUID)
+    {
+        // Any unclaimed hold will do; each one stands for a single retain
+        return removeHold(playerUUID, null);
+    }
+
+    private boolean removeHold(UUID playerUUID, Object token)
+    {
+        boolean[] removed = {false};
+
+        // Dropping an empty queue inside the compute cannot race a login adding to it
+        _unclaimedHolds.computeIfPresent(playerUUID, (key, tokens) ->
+        {
+            removed[0] = token == null ? tokens.poll() != null : tokens.remove(token);
+
+            return tokens.isEmpty() ? null : tokens;
+        });
+
+        return removed[0];
+    }
+}
@@ -0,0 +1,150 @@
+package com.pixelsmp.core.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LatencyHistogram
+{
+    // Upper bucket bounds in nanoseconds: 50us to 10s, roughly 1-2.5-5 steps per decade
+    private static final long[] BUCKET_BOUNDS = {
+            50_000L, 100_000L, 250_000L, 500_000L,
+            1_000_000L, 2_500_000L, 5_000_000L, 10_000_000L, 25_000_000L, 50_000_000L, 100_000_000L,
+            250_000_000L, 500_000_000L, 1_000_000_000L, 2_500_000_000L, 5_000_000_000L, 10_000_000_000L
+    };
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+
+    public LatencyHistogram()
+    {
+        for (int i = 0; i < buckets.length; i++)
+        {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a single observation. Lock-free and allocation-free, so it is safe on hot paths.
+     *
+     * @param nanos The observed duration, in nanoseconds
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public void record(long nanos)
+    {
+        int bucket = 0;
+
+        while (bucket < BUCKET_BOUNDS.length && nanos > BUCKET_BOUNDS[bucket])
+        {
+            bucket++;
+        }
+
+        buckets[bucket].increment();
+        count.increment();
+        sumNanos.add(nanos);
+    }
+
+    /**
+     * Returns the number of observations recorded.
+     *
+     * @return Number of observations
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public long getCount()
+    {
+        return count.sum();
+    }
+
+    /**
+     * Returns the sum of all recorded observations.
+     *
+     * @return Sum of the observations, in nanoseconds
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public long getSumNanos()
+    {
+        return sumNanos.sum();
+    }
+
+    /**
+     * Estimates a percentile as the upper bound of the bucket it falls into.
+     *
+     * @param percentile The percentile to estimate, between 0 and 1
+     *
+     * @return The estimated percentile in nanoseconds, Long.MAX_VALUE if it is beyond the largest bucket
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public long getPercentileNanos(double percentile)
+    {
+        long[] counts = getBucketCounts();
+        long total = 0;
+
+        for (long bucketCount : counts)
+        {
+            total += bucketCount;
+        }
+
+        long target = (long) Math.ceil(total * percentile);
+        long seen = 0;
+
+        for (int i = 0; i < BUCKET_BOUNDS.length; i++)
+        {
+            seen += counts[i];
+
+            if (seen >= target)
+            {
+                return BUCKET_BOUNDS[i];
+            }
+        }
+
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns the per-bucket (non-cumulative) counts; the last entry counts observations above every bound.
+     *
+     * @return Count of observations in each bucket
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public long[] getBucketCounts()
+    {
+        long[] counts = new long[buckets.length];
+
+        for (int i = 0; i < buckets.length; i++)
+        {
+            counts[i] = buckets[i].sum();
+        }
+
+        return counts;
+    }
+
+    /**
+     * Returns the upper bounds of the buckets, in seconds, as used by Prometheus "le" labels.
+     *
+     * @return Bucket upper bounds in seconds, excluding the +Inf bucket
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public static double[] getBucketBoundsSeconds()
+    {
+        double[] bounds = new double[BUCKET_BOUNDS.length];
+
+        for (int i = 0; i < BUCKET_BOUNDS.length; i++)
+        {
+            bounds[i] = BUCKET_BOUNDS[i] / (double) TimeUnit.SECONDS.toNanos(1);
+        }
+
+        return bounds;
+    }
+}
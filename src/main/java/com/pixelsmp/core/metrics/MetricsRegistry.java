@@ -0,0 +1,58 @@
+package com.pixelsmp.core.metrics;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public final class MetricsRegistry
+{
+    private static final CopyOnWriteArrayList<MetricsSource> _sources = new CopyOnWriteArrayList<>();
+
+    private MetricsRegistry()
+    {
+    }
+
+    /**
+     * Registers a component whose metrics should be included in every collection.
+     *
+     * @param source The component to register
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public static void register(MetricsSource source)
+    {
+        _sources.addIfAbsent(source);
+    }
+
+    /**
+     * Removes a previously registered component.
+     *
+     * @param source The component to remove
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public static void unregister(MetricsSource source)
+    {
+        _sources.remove(source);
+    }
+
+    /**
+     * Collects the metrics of every registered component in the Prometheus text exposition format.
+     *
+     * @return Prometheus text format document
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public static String collect()
+    {
+        PrometheusTextBuilder builder = new PrometheusTextBuilder();
+
+        for (MetricsSource source : _sources)
+        {
+            source.collectMetrics(builder);
+        }
+
+        return builder.build();
+    }
+}
@@ -0,0 +1,12 @@
+package com.pixelsmp.core.metrics;
+
+/**
+ * A component that reports metrics to the {@link MetricsRegistry}.
+ *
+ * @author Bradley Hooten (bradleyah02@gmail.com)
+ * @since 1.2.0
+ */
+public interface MetricsSource
+{
+    void collectMetrics(PrometheusTextBuilder builder);
+}
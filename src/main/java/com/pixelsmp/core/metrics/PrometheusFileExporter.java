@@ -0,0 +1,56 @@
+package com.pixelsmp.core.metrics;
+
+import com.pixelsmp.core.chat.ChatFormatter;
+import org.bukkit.Bukkit;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+public class PrometheusFileExporter implements Runnable
+{
+    private final Path file;
+    private boolean failureLogged = false;
+
+    /**
+     * Initializes a new exporter that writes every registered metric to a Prometheus text file each time it runs,
+     * for the node exporter's textfile collector to scrape.
+     *
+     * @param file File to write; node exporter only reads files ending in .prom
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public PrometheusFileExporter(Path file)
+    {
+        this.file = file.toAbsolutePath();
+    }
+
+    @Override
+    public void run()
+    {
+        try
+        {
+            // Write to a sibling file and move it into place, so a scrape never sees a half-written file
+            Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+
+            Files.createDirectories(file.getParent());
+            Files.write(temporaryFile, MetricsRegistry.collect().getBytes(StandardCharsets.UTF_8));
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            failureLogged = false;
+        }
+        catch (IOException e)
+        {
+            // Log once per outage rather than on every interval
+            if (!failureLogged)
+            {
+                failureLogged = true;
+                Bukkit.getLogger().warning(ChatFormatter.formatConsoleMessage("Metrics",
+                        "Failed to write metrics to " + file + ": " + e.getMessage(), true));
+            }
+        }
+    }
+}
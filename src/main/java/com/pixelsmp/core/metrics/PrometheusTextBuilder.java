@@ -0,0 +1,182 @@
+package com.pixelsmp.core.metrics;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class PrometheusTextBuilder
+{
+    private static final String[] BUCKET_LABELS;
+
+    static
+    {
+        double[] bounds = LatencyHistogram.getBucketBoundsSeconds();
+        BUCKET_LABELS = new String[bounds.length + 1];
+
+        for (int i = 0; i < bounds.length; i++)
+        {
+            BUCKET_LABELS[i] = BigDecimal.valueOf(bounds[i]).stripTrailingZeros().toPlainString();
+        }
+
+        BUCKET_LABELS[bounds.length] = "+Inf";
+    }
+
+    // Samples are grouped per metric family, since the text format requires a family's samples to be contiguous
+    private final Map<String, StringBuilder> _families = new LinkedHashMap<>();
+
+    /**
+     * Adds a gauge sample.
+     *
+     * @param name Metric name
+     * @param help Description of the metric
+     * @param value Sample value
+     * @param labels Alternating label names and values
+     *
+     * @return This builder
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public PrometheusTextBuilder gauge(String name, String help, double value, String... labels)
+    {
+        sample(family(name, "gauge", help), name, labels, null, value);
+        return this;
+    }
+
+    /**
+     * Adds a counter sample. By convention the name should end in _total.
+     *
+     * @param name Metric name
+     * @param help Description of the metric
+     * @param value Sample value
+     * @param labels Alternating label names and values
+     *
+     * @return This builder
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public PrometheusTextBuilder counter(String name, String help, double value, String... labels)
+    {
+        sample(family(name, "counter", help), name, labels, null, value);
+        return this;
+    }
+
+    /**
+     * Adds the cumulative buckets, sum and count of a latency histogram, in seconds.
+     *
+     * @param name Metric name, which should end in _seconds
+     * @param help Description of the metric
+     * @param histogram Histogram to export
+     * @param labels Alternating label names and values
+     *
+     * @return This builder
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public PrometheusTextBuilder histogram(String name, String help, LatencyHistogram histogram, String... labels)
+    {
+        StringBuilder family = family(name, "histogram", help);
+        long[] counts = histogram.getBucketCounts();
+        long cumulative = 0;
+
+        for (int i = 0; i < counts.length; i++)
+        {
+            cumulative += counts[i];
+            sample(family, name + "_bucket", labels, BUCKET_LABELS[i], cumulative);
+        }
+
+        sample(family, name + "_sum", labels, null, histogram.getSumNanos() / 1e9);
+        sample(family, name + "_count", labels, null, cumulative);
+
+        return this;
+    }
+
+    /**
+     * Renders every family added so far in the Prometheus text exposition format.
+     *
+     * @return Prometheus text format document
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public String build()
+    {
+        StringBuilder document = new StringBuilder();
+
+        for (StringBuilder family : _families.values())
+        {
+            document.append(family);
+        }
+
+        return document.toString();
+    }
+
+    private StringBuilder family(String name, String type, String help)
+    {
+        return _families.computeIfAbsent(name, key -> new StringBuilder()
+                .append("# HELP ").append(name).append(' ').append(help).append('\n')
+                .append("# TYPE ").append(name).append(' ').append(type).append('\n'));
+    }
+
+    private static void sample(StringBuilder family, String name, String[] labels, String le, double value)
+    {
+        family.append(name);
+
+        if (labels.length > 0 || le != null)
+        {
+            family.append('{');
+
+            for (int i = 0; i + 1 < labels.length; i += 2)
+            {
+                family.append(i == 0 ? "" : ",").append(labels[i]).append("=\"");
+                escapeLabelValue(family, labels[i + 1]);
+                family.append('"');
+            }
+
+            if (le != null)
+            {
+                family.append(labels.length > 0 ? "," : "").append("le=\"").append(le).append('"');
+            }
+
+            family.append('}');
+        }
+
+        family.append(' ');
+
+        if (value == Math.rint(value) && !Double.isInfinite(value))
+        {
+            family.append((long) value);
+        }
+        else
+        {
+            family.append(value);
+        }
+
+        family.append('\n');
+    }
+
+    private static void escapeLabelValue(StringBuilder family, String value)
+    {
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+
+            switch (c)
+            {
+                case '\\':
+                    family.append("\\\\");
+                    break;
+                case '"':
+                    family.append("\\\"");
+                    break;
+                case '\n':
+                    family.append("\\n");
+                    break;
+                default:
+                    family.append(c);
+            }
+        }
+    }
+}
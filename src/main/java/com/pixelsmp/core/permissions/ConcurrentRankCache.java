@@ -0,0 +1,82 @@
+package com.pixelsmp.core.permissions;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+public class ConcurrentRankCache implements RankCache
+{
+    // Compressed-oops sizes of a ConcurrentHashMap node, its UUID key and a table slot; the rank is a shared constant
+    private static final int NODE_BYTES = 32;
+    private static final int UUID_BYTES = 32;
+    private static final int SLOT_BYTES = 4;
+
+    private final ConcurrentHashMap<UUID, PermissionRank> ranks;
+
+    /**
+     * Initializes a new rank cache backed by a {@link ConcurrentHashMap}. Lookups never lock, but every entry costs
+     * a map node and a UUID object on the heap.
+     *
+     * @param expectedSize Number of ranks the cache is expected to hold
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public ConcurrentRankCache(int expectedSize)
+    {
+        this.ranks = new ConcurrentHashMap<>(Math.max(16, expectedSize));
+    }
+
+    @Override
+    public PermissionRank get(UUID playerUUID)
+    {
+        return ranks.get(playerUUID);
+    }
+
+    @Override
+    public PermissionRank putIfAbsent(UUID playerUUID, PermissionRank rank)
+    {
+        return ranks.putIfAbsent(playerUUID, rank);
+    }
+
+    @Override
+    public PermissionRank replace(UUID playerUUID, PermissionRank rank)
+    {
+        return ranks.replace(playerUUID, rank);
+    }
+
+    @Override
+    public boolean replace(UUID playerUUID, PermissionRank expectedRank, PermissionRank rank)
+    {
+        return ranks.replace(playerUUID, expectedRank, rank);
+    }
+
+    @Override
+    public PermissionRank remove(UUID playerUUID)
+    {
+        return ranks.remove(playerUUID);
+    }
+
+    @Override
+    public int size()
+    {
+        return ranks.size();
+    }
+
+    @Override
+    public void forEach(BiConsumer<UUID, PermissionRank> action)
+    {
+        ranks.forEach(action);
+    }
+
+    @Override
+    public long estimateFootprintBytes()
+    {
+        long size = ranks.size();
+
+        // The table is kept at most three quarters full and sized to a power of two
+        long slots = Long.highestOneBit(Math.max(16, size * 4 / 3) * 2 - 1);
+
+        return size * (NODE_BYTES + UUID_BYTES) + slots * SLOT_BYTES;
+    }
+}
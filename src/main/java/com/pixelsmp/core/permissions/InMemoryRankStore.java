@@ -0,0 +1,264 @@
+package com.pixelsmp.core.permissions;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+
+public class InMemoryRankStore implements RankStore
+{
+    private final ConcurrentHashMap<UUID, PermissionRank> _ranks = new ConcurrentHashMap<>();
+
+    // Temporary ranks only; guarded by the store's monitor, together with the ranks they apply to
+    private final Map<UUID, TemporaryRank> _temporaryRanks = new HashMap<>();
+
+    /**
+     * Initializes a new rank store that keeps every rank in memory. Ranks are lost when the server stops, so this
+     * is meant for test and throwaway servers.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public InMemoryRankStore()
+    {
+    }
+
+    @Override
+    public CompletableFuture<Void> initialize()
+    {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, PermissionRank>> loadRanks(Collection<UUID> playerUUIDs)
+    {
+        Map<UUID, PermissionRank> ranks = new HashMap<>();
+
+        for (UUID playerUUID : playerUUIDs)
+        {
+            PermissionRank rank = _ranks.get(playerUUID);
+
+            if (rank != null)
+            {
+                ranks.put(playerUUID, rank);
+            }
+        }
+
+        return CompletableFuture.completedFuture(ranks);
+    }
+
+    @Override
+    public synchronized CompletableFuture<Boolean> saveRank(UUID playerUUID, PermissionRank rank)
+    {
+        _ranks.put(playerUUID, rank);
+        _temporaryRanks.remove(playerUUID);
+
+        return CompletableFuture.completedFuture(true);
+    }
+
+    @Override
+    public synchronized CompletableFuture<Void> saveRanks(Map<UUID, PermissionRank> ranks)
+    {
+        _ranks.putAll(ranks);
+        _temporaryRanks.keySet().removeAll(ranks.keySet());
+
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public synchronized CompletableFuture<Boolean> saveTemporaryRank(UUID playerUUID, PermissionRank rank,
+                                                                     long expiresAtMillis)
+    {
+        // Stacked temporary ranks keep reverting to the last permanent rank, as in the SQL store
+        TemporaryRank replaced = _temporaryRanks.get(playerUUID);
+        PermissionRank fallbackRank = replaced != null
+                ? replaced.fallbackRank
+                : _ranks.getOrDefault(playerUUID, PermissionRank.MEMBER);
+
+        _ranks.put(playerUUID, rank);
+        _temporaryRanks.put(playerUUID, new TemporaryRank(expiresAtMillis, fallbackRank));
+
+        return CompletableFuture.completedFuture(true);
+    }
+
+    @Override
+    public synchronized CompletableFuture<Map<UUID, Long>> loadExpiringBefore(long timestampMillis,
+                                                                              long afterExpiresAtMillis,
+                                                                              UUID afterPlayerUUID, int limit)
+    {
+        Map<UUID, Long> expirations = new LinkedHashMap<>();
+
+        // The same order as the SQL store's BINARY(16) keys, so both page identically
+        Comparator<UUID> playerOrder = Comparator.comparing(UUID::getMostSignificantBits,
+                Long::compareUnsigned).thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+        _temporaryRanks.entrySet().stream()
+                .filter(entry -> entry.getValue().expiresAtMillis < timestampMillis)
+                .filter(entry -> entry.getValue().expiresAtMillis > afterExpiresAtMillis
+                        || (entry.getValue().expiresAtMillis == afterExpiresAtMillis && afterPlayerUUID != null
+                        && playerOrder.compare(entry.getKey(), afterPlayerUUID) > 0))
+                .sorted(Map.Entry.<UUID, TemporaryRank>comparingByValue(
+                                Comparator.comparingLong(temporary -> temporary.expiresAtMillis))
+                        .thenComparing(Map.Entry.comparingByKey(playerOrder)))
+                .limit(limit)
+                .forEach(entry -> expirations.put(entry.getKey(), entry.getValue().expiresAtMillis));
+
+        return CompletableFuture.completedFuture(expirations);
+    }
+
+    @Override
+    public synchronized CompletableFuture<Map<UUID, PermissionRank>> expireRanks(long timestampMillis, int limit)
+    {
+        Map<UUID, PermissionRank> reverted = new HashMap<>();
+        Iterator<Map.Entry<UUID, TemporaryRank>> iterator = _temporaryRanks.entrySet().iterator();
+
+        while (iterator.hasNext() && reverted.size() < limit)
+        {
+            Map.Entry<UUID, TemporaryRank> entry = iterator.next();
+
+            if (entry.getValue().expiresAtMillis <= timestampMillis)
+            {
+                iterator.remove();
+                _ranks.put(entry.getKey(), entry.getValue().fallbackRank);
+                reverted.put(entry.getKey(), entry.getValue().fallbackRank);
+            }
+        }
+
+        return CompletableFuture.completedFuture(reverted);
+    }
+
+    @Override
+    public Flow.Publisher<Map.Entry<UUID, PermissionRank>> streamPlayersWithRankAtLeast(PermissionRank minimumRank,
+                                                                                        int fetchSize)
+    {
+        List<Map.Entry<UUID, PermissionRank>> players = new ArrayList<>();
+
+        _ranks.forEach((playerUUID, rank) ->
+        {
+            if (rank.getPermissionLevel() >= minimumRank.getPermissionLevel())
+            {
+                players.add(new AbstractMap.SimpleImmutableEntry<>(playerUUID, rank));
+            }
+        });
+
+        return subscriber -> subscriber.onSubscribe(new IteratorSubscription<>(subscriber, players.iterator()));
+    }
+
+    @Override
+    public CompletableFuture<Long> getLatestChangeVersion()
+    {
+        // Only this server can see the map, so there is never anything to poll for
+        return CompletableFuture.completedFuture(0L);
+    }
+
+    @Override
+    public CompletableFuture<List<RankChange>> loadChangesSince(long version, int limit)
+    {
+        return CompletableFuture.completedFuture(Collections.emptyList());
+    }
+
+    @Override
+    public CompletableFuture<Integer> purgeChangesBefore(long timestampMillis)
+    {
+        return CompletableFuture.completedFuture(0);
+    }
+
+    private static final class TemporaryRank
+    {
+        private final long expiresAtMillis;
+        private final PermissionRank fallbackRank;
+
+        private TemporaryRank(long expiresAtMillis, PermissionRank fallbackRank)
+        {
+            this.expiresAtMillis = expiresAtMillis;
+            this.fallbackRank = fallbackRank;
+        }
+    }
+
+    private static final class IteratorSubscription<T> implements Flow.Subscription
+    {
+        private final Flow.Subscriber<? super T> subscriber;
+        private final Iterator<T> iterator;
+        private long demand = 0;
+        private boolean emitting = false;
+        private boolean done = false;
+
+        private IteratorSubscription(Flow.Subscriber<? super T> subscriber, Iterator<T> iterator)
+        {
+            this.subscriber = subscriber;
+            this.iterator = iterator;
+        }
+
+        @Override
+        public void request(long n)
+        {
+            synchronized (this)
+            {
+                if (done)
+                {
+                    return;
+                }
+
+                if (n <= 0)
+                {
+                    done = true;
+                    subscriber.onError(
+                            new IllegalArgumentException("Subscribers must request a positive number of rows."));
+                    return;
+                }
+
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+
+                // A request made from inside onNext only raises the demand; the outer loop emits the rows
+                if (emitting)
+                {
+                    return;
+                }
+
+                emitting = true;
+            }
+
+            while (true)
+            {
+                T next;
+
+                synchronized (this)
+                {
+                    if (done || demand == 0)
+                    {
+                        emitting = false;
+                        return;
+                    }
+
+                    if (!iterator.hasNext())
+                    {
+                        done = true;
+                        subscriber.onComplete();
+                        return;
+                    }
+
+                    demand--;
+                    next = iterator.next();
+                }
+
+                subscriber.onNext(next);
+            }
+        }
+
+        @Override
+        public synchronized void cancel()
+        {
+            done = true;
+        }
+    }
+}
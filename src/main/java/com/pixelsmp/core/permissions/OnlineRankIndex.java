@@ -0,0 +1,177 @@
+package com.pixelsmp.core.permissions;
+
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+public class OnlineRankIndex
+{
+    // Highest permission level first, so queries list the most senior players first
+    private static final PermissionRank[] BY_LEVEL_DESCENDING = Arrays.stream(PermissionRank.values())
+            .sorted(Comparator.comparingInt(PermissionRank::getPermissionLevel).reversed())
+            .toArray(PermissionRank[]::new);
+
+    // Filled for every rank up front and never changed afterwards, so it is safe to read from any thread
+    private final EnumMap<PermissionRank, Set<Player>> _playersByRank = new EnumMap<>(PermissionRank.class);
+
+    // Only touched while holding this index's lock
+    private final Map<UUID, Player> _onlinePlayers = new HashMap<>();
+    private final Map<UUID, PermissionRank> _indexedRanks = new HashMap<>();
+
+    /**
+     * Initializes a new, empty index of online players by rank. Lookups read concurrent sets and never lock, and
+     * cost time in proportion to the players they return; joins, quits and rank changes move a single player
+     * between sets.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public OnlineRankIndex()
+    {
+        for (PermissionRank rank : PermissionRank.values())
+        {
+            _playersByRank.put(rank, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    /**
+     * Indexes an online player under their rank, moving them if they were already indexed under another.
+     *
+     * @param player The online player
+     * @param rank The player's rank
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public synchronized void add(Player player, PermissionRank rank)
+    {
+        UUID playerUUID = player.getUniqueId();
+        Player previousPlayer = _onlinePlayers.put(playerUUID, player);
+        PermissionRank previousRank = _indexedRanks.put(playerUUID, rank);
+
+        if (previousRank != null)
+        {
+            _playersByRank.get(previousRank).remove(previousPlayer);
+        }
+
+        _playersByRank.get(rank).add(player);
+    }
+
+    /**
+     * Removes a player who has left the server from the index.
+     *
+     * @param playerUUID The player who left
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public synchronized void remove(UUID playerUUID)
+    {
+        Player player = _onlinePlayers.remove(playerUUID);
+        PermissionRank rank = _indexedRanks.remove(playerUUID);
+
+        if (player != null)
+        {
+            _playersByRank.get(rank).remove(player);
+        }
+    }
+
+    /**
+     * Moves an online player to their new rank. Players who are not online are ignored.
+     *
+     * @param playerUUID The player whose rank changed
+     * @param rank The player's new rank
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public synchronized void updateRank(UUID playerUUID, PermissionRank rank)
+    {
+        Player player = _onlinePlayers.get(playerUUID);
+
+        if (player != null)
+        {
+            add(player, rank);
+        }
+    }
+
+    /**
+     * Returns the online players holding exactly the given rank.
+     *
+     * @param rank The rank to look up
+     *
+     * @return Read-only live view of the players holding the rank
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public Set<Player> getPlayers(PermissionRank rank)
+    {
+        return Collections.unmodifiableSet(_playersByRank.get(rank));
+    }
+
+    /**
+     * Returns the online players whose rank's permission level is at least that of the given rank.
+     *
+     * @param minimumRank The lowest rank to include
+     *
+     * @return The matching players, most senior rank first
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public List<Player> getPlayersAtLeast(PermissionRank minimumRank)
+    {
+        List<Player> players = new ArrayList<>();
+        forEachPlayerAtLeast(minimumRank, players::add);
+
+        return players;
+    }
+
+    /**
+     * Passes every online player whose rank's permission level is at least that of the given rank to the provided
+     * action, most senior rank first, without copying them anywhere first.
+     *
+     * @param minimumRank The lowest rank to include
+     * @param action Action receiving each matching player
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public void forEachPlayerAtLeast(PermissionRank minimumRank, Consumer<Player> action)
+    {
+        for (PermissionRank rank : BY_LEVEL_DESCENDING)
+        {
+            if (rank.getPermissionLevel() < minimumRank.getPermissionLevel())
+            {
+                break;
+            }
+
+            _playersByRank.get(rank).forEach(action);
+        }
+    }
+
+    /**
+     * Returns the number of online players indexed.
+     *
+     * @return Number of indexed players
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public synchronized int size()
+    {
+        return _onlinePlayers.size();
+    }
+}
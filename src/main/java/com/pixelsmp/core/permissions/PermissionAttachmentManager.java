@@ -0,0 +1,202 @@
+package com.pixelsmp.core.permissions;
+
+import com.pixelsmp.core.chat.ChatFormatter;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.permissions.PermissionAttachment;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+public class PermissionAttachmentManager
+{
+    // Bukkit recalculates every permission of the player on each setPermission call, so a rank's nodes are written
+    // into the attachment's own map and recalculated once instead
+    private static final Field ATTACHMENT_PERMISSIONS_FIELD = findAttachmentPermissionsField();
+
+    private final Plugin plugin;
+
+    // Only touched on the server thread, like the attachments themselves
+    private final Map<UUID, Attached> attachments = new HashMap<>();
+
+    private volatile PermissionNodeTable nodeTable;
+
+    /**
+     * Initializes a new attachment manager, which gives every online player a permission attachment holding the
+     * nodes of their rank. Other plugins then see the ranks' nodes through the ordinary hasPermission checks.
+     *
+     * @param plugin The plugin owning the attachments
+     * @param nodeTable The compiled nodes of every rank
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public PermissionAttachmentManager(Plugin plugin, PermissionNodeTable nodeTable)
+    {
+        this.plugin = plugin;
+        this.nodeTable = nodeTable;
+    }
+
+    /**
+     * Returns the compiled nodes of every rank. The Core's own checks go straight to the table, skipping the
+     * attachment.
+     *
+     * @return The current node table
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public PermissionNodeTable getNodeTable()
+    {
+        return nodeTable;
+    }
+
+    /**
+     * Replaces the node table, and rewrites the attachment of every online player from it. Must be called on the
+     * server thread.
+     *
+     * @param nodeTable The newly compiled node table
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public void setNodeTable(PermissionNodeTable nodeTable)
+    {
+        this.nodeTable = nodeTable;
+
+        for (Attached attached : attachments.values())
+        {
+            apply(attached, attached.rank);
+        }
+    }
+
+    /**
+     * Gives the player an attachment holding the nodes of the given rank, replacing any attachment they already had.
+     * Must be called on the server thread.
+     *
+     * @param player The player
+     * @param rank The player's rank
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public void attach(Player player, PermissionRank rank)
+    {
+        detach(player);
+
+        Attached attached = new Attached(player, player.addAttachment(plugin));
+        attachments.put(player.getUniqueId(), attached);
+
+        apply(attached, rank);
+    }
+
+    /**
+     * Removes the player's attachment. Must be called on the server thread.
+     *
+     * @param player The player
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public void detach(Player player)
+    {
+        Attached attached = attachments.remove(player.getUniqueId());
+
+        if (attached != null)
+        {
+            attached.attachment.remove();
+        }
+    }
+
+    /**
+     * Rewrites the attachment of the player after their rank changed. May be called from any thread; the attachment
+     * is updated on the server thread.
+     *
+     * @param playerUUID The UUID of the player
+     * @param rank The player's new rank
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public void updateRank(UUID playerUUID, PermissionRank rank)
+    {
+        if (!Bukkit.isPrimaryThread())
+        {
+            Bukkit.getScheduler().runTask(plugin, () -> updateRank(playerUUID, rank));
+            return;
+        }
+
+        Attached attached = attachments.get(playerUUID);
+
+        if (attached != null && attached.rank != rank)
+        {
+            apply(attached, rank);
+        }
+    }
+
+    private void apply(Attached attached, PermissionRank rank)
+    {
+        Map<String, Boolean> permissions = nodeTable.getAttachmentPermissions(rank);
+        attached.rank = rank;
+
+        if (ATTACHMENT_PERMISSIONS_FIELD != null)
+        {
+            try
+            {
+                @SuppressWarnings("unchecked")
+                Map<String, Boolean> attachmentPermissions =
+                        (Map<String, Boolean>) ATTACHMENT_PERMISSIONS_FIELD.get(attached.attachment);
+
+                attachmentPermissions.clear();
+                attachmentPermissions.putAll(permissions);
+                attached.player.recalculatePermissions();
+                return;
+            }
+            catch (IllegalAccessException | ClassCastException e)
+            {
+                // Fall through to the slow but supported path
+            }
+        }
+
+        for (String node : attached.attachment.getPermissions().keySet())
+        {
+            attached.attachment.unsetPermission(node);
+        }
+
+        permissions.forEach(attached.attachment::setPermission);
+    }
+
+    private static Field findAttachmentPermissionsField()
+    {
+        try
+        {
+            Field field = PermissionAttachment.class.getDeclaredField("permissions");
+            field.setAccessible(true);
+
+            return Map.class.isAssignableFrom(field.getType()) ? field : null;
+        }
+        catch (ReflectiveOperationException | RuntimeException e)
+        {
+            Bukkit.getLogger().warning(ChatFormatter.formatConsoleMessage("Core", "Cannot write permission " +
+                    "attachments directly; falling back to one recalculation per node.", true));
+
+            return null;
+        }
+    }
+
+    private static final class Attached
+    {
+        private final Player player;
+        private final PermissionAttachment attachment;
+        private PermissionRank rank;
+
+        private Attached(Player player, PermissionAttachment attachment)
+        {
+            this.player = player;
+            this.attachment = attachment;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.pixelsmp.core.permissions;
+
+import com.pixelsmp.core.chat.ChatFormatter;
+import com.pixelsmp.core.database.sql.SQLMigration;
+import com.pixelsmp.core.database.sql.SQLPriority;
+import com.pixelsmp.core.database.sql.SQLStatement;
+import com.pixelsmp.core.database.sql.SQLStatementRegistry;
+import com.pixelsmp.core.database.sql.SQLTransaction;
+import com.pixelsmp.core.util.UUIDUtils;
+import org.bukkit.Bukkit;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+public final class PermissionMigrations
+{
+    // Rows copied per transaction while converting core_permissions, so the copy never holds millions of row locks
+    private static final int COPY_PAGE_SIZE = 10000;
+
+    private static final SQLStatement CREATE_LEGACY_TABLE = SQLStatementRegistry.register(
+            "permissions.migration.createLegacyTable", SQLPriority.BACKGROUND,
+            "CREATE TABLE IF NOT EXISTS core_permissions (player_uuid VARCHAR(36) PRIMARY KEY, rank VARCHAR(16) NOT NULL DEFAULT 'MEMBER');");
+
+    private static final SQLStatement CREATE_LEGACY_CHANGE_LOG_TABLE = SQLStatementRegistry.register(
+            "permissions.migration.createLegacyChangeLogTable", SQLPriority.BACKGROUND,
+            "CREATE TABLE IF NOT EXISTS core_permission_changes (version BIGINT AUTO_INCREMENT PRIMARY KEY, player_uuid VARCHAR(36) NOT NULL, rank VARCHAR(16) NOT NULL, changed_at BIGINT NOT NULL);");
+
+    private static final SQLStatement DROP_COMPACT_TABLE = SQLStatementRegistry.register(
+            "permissions.migration.dropCompactTable", SQLPriority.BACKGROUND,
+            "DROP TABLE IF EXISTS core_permissions_compact;");
+
+    // 16 bytes per key instead of up to 36 characters, and one byte per rank instead of its name
+    private static final SQLStatement CREATE_COMPACT_TABLE = SQLStatementRegistry.register(
+            "permissions.migration.createCompactTable", SQLPriority.BACKGROUND,
+            "CREATE TABLE core_permissions_compact (player_uuid BINARY(16) PRIMARY KEY, rank_id TINYINT NOT NULL DEFAULT 0);");
+
+    // Pages through the old table by primary key, so every page is a range scan however far the copy has come
+    private static final SQLStatement SELECT_LEGACY_PAGE = SQLStatementRegistry.register(
+            "permissions.migration.selectLegacyPage", SQLPriority.BACKGROUND,
+            "SELECT player_uuid, rank FROM core_permissions WHERE player_uuid > ? ORDER BY player_uuid LIMIT ?;",
+            String.class, Integer.class);
+
+    private static final SQLStatement INSERT_COMPACT = SQLStatementRegistry.register(
+            "permissions.migration.insertCompact", SQLPriority.BACKGROUND,
+            "INSERT INTO core_permissions_compact (player_uuid, rank_id) VALUES (?, ?);", byte[].class, Integer.class);
+
+    private static final SQLStatement RENAME_LEGACY_TABLE = SQLStatementRegistry.register(
+            "permissions.migration.renameLegacyTable", SQLPriority.BACKGROUND,
+            "ALTER TABLE core_permissions RENAME TO core_permissions_legacy;");
+
+    private static final SQLStatement RENAME_COMPACT_TABLE = SQLStatementRegistry.register(
+            "permissions.migration.renameCompactTable", SQLPriority.BACKGROUND,
+            "ALTER TABLE core_permissions_compact RENAME TO core_permissions;");
+
+    private static final SQLStatement DROP_LEGACY_TABLE = SQLStatementRegistry.register(
+            "permissions.migration.dropLegacyTable", SQLPriority.BACKGROUND,
+            "DROP TABLE core_permissions_legacy;");
+
+    private static final SQLStatement DROP_CHANGE_LOG_TABLE = SQLStatementRegistry.register(
+            "permissions.migration.dropChangeLogTable", SQLPriority.BACKGROUND,
+            "DROP TABLE IF EXISTS core_permission_changes;");
+
+    private static final SQLStatement CREATE_CHANGE_LOG_TABLE = SQLStatementRegistry.register(
+            "permissions.migration.createChangeLogTable", SQLPriority.BACKGROUND,
+            "CREATE TABLE core_permission_changes (version BIGINT AUTO_INCREMENT PRIMARY KEY, player_uuid BINARY(16) NOT NULL, rank_id TINYINT NOT NULL, changed_at BIGINT NOT NULL);");
+
+    // Both stay NULL for permanent ranks; fallback_rank_id is the rank restored when expires_at passes
+    private static final SQLStatement ADD_EXPIRES_AT = SQLStatementRegistry.register(
+            "permissions.migration.addExpiresAt", SQLPriority.BACKGROUND,
+            "ALTER TABLE core_permissions ADD COLUMN expires_at BIGINT NULL;");
+
+    private static final SQLStatement ADD_FALLBACK_RANK = SQLStatementRegistry.register(
+            "permissions.migration.addFallbackRank", SQLPriority.BACKGROUND,
+            "ALTER TABLE core_permissions ADD COLUMN fallback_rank_id TINYINT NULL;");
+
+    // Upcoming expirations are read by time, and only a small share of ranks are temporary
+    private static final SQLStatement CREATE_EXPIRES_AT_INDEX = SQLStatementRegistry.register(
+            "permissions.migration.createExpiresAtIndex", SQLPriority.BACKGROUND,
+            "CREATE INDEX idx_core_permissions_expires_at ON core_permissions (expires_at);");
+
+    /**
+     * Every migration of the permissions schema, in version order.
+     */
+    public static final List<SQLMigration> ALL = List.of(
+            // The tables as they were before migrations existed, so existing databases start from version 1
+            new SQLMigration(1, "Create the permissions and change log tables", transaction ->
+            {
+                transaction.executeUpdate(CREATE_LEGACY_TABLE);
+                transaction.executeUpdate(CREATE_LEGACY_CHANGE_LOG_TABLE);
+            }),
+            new SQLMigration(2, "Store player UUIDs as BINARY(16) and ranks as TINYINT ids",
+                    PermissionMigrations::compactPermissions),
+            new SQLMigration(3, "Add expiry and fallback rank columns for temporary ranks", transaction ->
+            {
+                transaction.executeUpdate(ADD_EXPIRES_AT);
+                transaction.executeUpdate(ADD_FALLBACK_RANK);
+                transaction.executeUpdate(CREATE_EXPIRES_AT_INDEX);
+            })
+    );
+
+    private PermissionMigrations()
+    {
+    }
+
+    private static void compactPermissions(SQLTransaction transaction) throws SQLException
+    {
+        // Left over if an earlier attempt failed while copying
+        transaction.executeUpdate(DROP_COMPACT_TABLE);
+        transaction.executeUpdate(CREATE_COMPACT_TABLE);
+
+        // Convert in Java rather than with UNHEX(), so the copy runs unchanged on MySQL and embedded H2
+        String lastPlayerUUID = "";
+
+        while (true)
+        {
+            List<Object[]> page = transaction.executeQuery(SELECT_LEGACY_PAGE, rs ->
+            {
+                List<Object[]> rows = new ArrayList<>();
+
+                while (rs.next())
+                {
+                    rows.add(new Object[]{rs.getString("player_uuid"), rs.getString("rank")});
+                }
+
+                return rows;
+            }, lastPlayerUUID, COPY_PAGE_SIZE);
+
+            if (page.isEmpty())
+            {
+                break;
+            }
+
+            List<Object[]> parameterSets = new ArrayList<>(page.size());
+
+            for (Object[] row : page)
+            {
+                parameterSets.add(new Object[]{UUIDUtils.toBytes(UUID.fromString((String) row[0])),
+                        parseLegacyRank((String) row[0], (String) row[1]).getId()});
+            }
+
+            transaction.executeBatch(INSERT_COMPACT, parameterSets);
+            transaction.commit();
+
+            lastPlayerUUID = (String) page.get(page.size() - 1)[0];
+        }
+
+        transaction.executeUpdate(RENAME_LEGACY_TABLE);
+        transaction.executeUpdate(RENAME_COMPACT_TABLE);
+        transaction.executeUpdate(DROP_LEGACY_TABLE);
+
+        // Entries only live for the retention period and every server reads the newest version when it starts, so
+        // the log is recreated empty instead of being converted
+        transaction.executeUpdate(DROP_CHANGE_LOG_TABLE);
+        transaction.executeUpdate(CREATE_CHANGE_LOG_TABLE);
+    }
+
+    private static PermissionRank parseLegacyRank(String playerUUID, String rank)
+    {
+        try
+        {
+            return PermissionRank.valueOf(rank.trim().toUpperCase(Locale.ROOT));
+        }
+        catch (IllegalArgumentException e)
+        {
+            // A rank that no longer exists must not abort the copy halfway, or every later start fails with it.
+            // Benchmarks migrate without a running server
+            if (Bukkit.getServer() != null)
+            {
+                Bukkit.getLogger().warning(ChatFormatter.formatConsoleMessage("Core", "Player " + playerUUID +
+                        " held the unknown rank " + rank + " and has been migrated as a MEMBER.", true));
+            }
+
+            return PermissionRank.MEMBER;
+        }
+    }
+}
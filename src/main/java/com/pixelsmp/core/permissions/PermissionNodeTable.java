@@ -0,0 +1,359 @@
+package com.pixelsmp.core.permissions;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public final class PermissionNodeTable
+{
+    // Ranks from the lowest permission level to the highest; every rank inherits from the one before it
+    private static final PermissionRank[] INHERITANCE_ORDER = Arrays.stream(PermissionRank.values())
+            .sorted(Comparator.comparingInt(PermissionRank::getPermissionLevel))
+            .toArray(PermissionRank[]::new);
+
+    // Indexed by rank id; the position of the rank in the inheritance order
+    private static final int[] INHERITANCE_POSITION = new int[INHERITANCE_ORDER.length];
+
+    static
+    {
+        for (int i = 0; i < INHERITANCE_ORDER.length; i++)
+        {
+            INHERITANCE_POSITION[INHERITANCE_ORDER[i].getId()] = i;
+        }
+    }
+
+    private final Map<String, Integer> nodeIds = new HashMap<>();
+    private final String[] nodeNames;
+
+    // Indexed by rank id, then by node id / 64; a set bit grants the node
+    private final long[][] grantedBits;
+
+    // Indexed by rank id; every node a rule of the rank or a rank below it decides, for permission attachments
+    private final List<Map<String, Boolean>> attachmentPermissions;
+
+    // Indexed by rank id; the rank's own rules, for nodes that were not interned when the table was compiled
+    private final RankRules[] rankRules;
+
+    /**
+     * Compiles the permission nodes of every rank. Each rank inherits the nodes of the rank with the next lower
+     * permission level and may grant more or deny inherited ones. A node ending in ".*" matches every node below it,
+     * "*" matches every node, and a leading "-" denies instead of granting. Within one rank, an exact node takes
+     * precedence over a wildcard and a longer wildcard over a shorter one.
+     *
+     * <p>Every node named by a rule and every known node is interned with an id, so checking an interned node is a
+     * single bit test. Other nodes are resolved against the rules on every check.</p>
+     *
+     * @param rules The rules of each rank; ranks without an entry only inherit
+     * @param knownNodes Nodes to intern besides those named by the rules, such as permissions other plugins register
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public PermissionNodeTable(Map<PermissionRank, List<String>> rules, Collection<String> knownNodes)
+    {
+        int rankSlots = 0;
+
+        for (PermissionRank rank : INHERITANCE_ORDER)
+        {
+            rankSlots = Math.max(rankSlots, rank.getId() + 1);
+        }
+
+        rankRules = new RankRules[rankSlots];
+
+        for (PermissionRank rank : INHERITANCE_ORDER)
+        {
+            rankRules[rank.getId()] = new RankRules(rules.getOrDefault(rank, Collections.emptyList()));
+
+            for (String node : rankRules[rank.getId()].exact.keySet())
+            {
+                intern(node);
+            }
+        }
+
+        for (String node : knownNodes)
+        {
+            intern(normalize(node));
+        }
+
+        nodeNames = new String[nodeIds.size()];
+        nodeIds.forEach((node, id) -> nodeNames[id] = node);
+
+        grantedBits = new long[rankSlots][];
+        attachmentPermissions = new ArrayList<>(Collections.nCopies(rankSlots, null));
+
+        int words = (nodeNames.length + 63) >>> 6;
+        long[] inheritedGranted = new long[words];
+        long[] inheritedDecided = new long[words];
+
+        for (PermissionRank rank : INHERITANCE_ORDER)
+        {
+            long[] granted = inheritedGranted.clone();
+            long[] decided = inheritedDecided.clone();
+            RankRules ownRules = rankRules[rank.getId()];
+
+            for (int id = 0; id < nodeNames.length; id++)
+            {
+                Boolean value = ownRules.resolve(nodeNames[id]);
+
+                if (value == null)
+                {
+                    continue;
+                }
+
+                decided[id >>> 6] |= 1L << id;
+
+                if (value)
+                {
+                    granted[id >>> 6] |= 1L << id;
+                }
+                else
+                {
+                    granted[id >>> 6] &= ~(1L << id);
+                }
+            }
+
+            Map<String, Boolean> permissions = new HashMap<>();
+
+            for (int id = 0; id < nodeNames.length; id++)
+            {
+                if ((decided[id >>> 6] & (1L << id)) != 0)
+                {
+                    permissions.put(nodeNames[id], (granted[id >>> 6] & (1L << id)) != 0);
+                }
+            }
+
+            grantedBits[rank.getId()] = granted;
+            attachmentPermissions.set(rank.getId(), Collections.unmodifiableMap(permissions));
+            inheritedGranted = granted;
+            inheritedDecided = decided;
+        }
+    }
+
+    /**
+     * Compiles the permission nodes configured in a permissions file, where each key of the section is the name of a
+     * rank and its value the list of its rules.
+     *
+     * @param section The section holding the rules of each rank, or null if there are none
+     * @param knownNodes Nodes to intern besides those named by the rules
+     *
+     * @return The compiled table
+     *
+     * @throws IllegalArgumentException If the section names a rank that does not exist
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public static PermissionNodeTable fromConfig(ConfigurationSection section, Collection<String> knownNodes)
+    {
+        Map<PermissionRank, List<String>> rules = new EnumMap<>(PermissionRank.class);
+
+        if (section != null)
+        {
+            for (String rankName : section.getKeys(false))
+            {
+                PermissionRank rank;
+
+                try
+                {
+                    rank = PermissionRank.valueOf(rankName.toUpperCase(Locale.ROOT));
+                }
+                catch (IllegalArgumentException e)
+                {
+                    throw new IllegalArgumentException("The permissions file names an unknown rank: " + rankName);
+                }
+
+                rules.put(rank, section.getStringList(rankName));
+            }
+        }
+
+        return new PermissionNodeTable(rules, knownNodes);
+    }
+
+    /**
+     * Returns the id the node was interned with. Ids are only valid for this table; a recompiled table numbers its
+     * nodes anew.
+     *
+     * @param node The permission node, in lower case
+     *
+     * @return The id of the node, or -1 if it was not interned
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public int getNodeId(String node)
+    {
+        Integer id = nodeIds.get(node);
+
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the number of interned nodes.
+     *
+     * @return Number of interned nodes
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public int getNodeCount()
+    {
+        return nodeNames.length;
+    }
+
+    /**
+     * Checks whether the rank holds the interned node with the given id. This is a single bit test.
+     *
+     * @param rank The rank to check
+     * @param nodeId The id of the node, as returned by {@link #getNodeId(String)}
+     *
+     * @return True if the rank holds the node
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public boolean hasPermission(PermissionRank rank, int nodeId)
+    {
+        return (grantedBits[rank.getId()][nodeId >>> 6] & (1L << nodeId)) != 0;
+    }
+
+    /**
+     * Checks whether the rank holds the given node. Interned nodes take one hash lookup and a bit test; any other
+     * node is resolved against the rules of the rank and the ranks it inherits from.
+     *
+     * @param rank The rank to check
+     * @param node The permission node
+     *
+     * @return True if the rank holds the node
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public boolean hasPermission(PermissionRank rank, String node)
+    {
+        Integer id = nodeIds.get(node);
+
+        if (id != null)
+        {
+            return hasPermission(rank, id);
+        }
+
+        String normalizedNode = normalize(node);
+        id = nodeIds.get(normalizedNode);
+
+        if (id != null)
+        {
+            return hasPermission(rank, id);
+        }
+
+        // Walk down the inheritance chain until a rank decides the node
+        for (int i = INHERITANCE_POSITION[rank.getId()]; i >= 0; i--)
+        {
+            Boolean value = rankRules[INHERITANCE_ORDER[i].getId()].resolve(normalizedNode);
+
+            if (value != null)
+            {
+                return value;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns every interned node decided for the rank, by its own rules or inherited ones, and whether it is
+     * granted. Nodes no rule matches are left out, so the server's defaults still apply to them.
+     *
+     * @param rank The rank
+     *
+     * @return Unmodifiable map of node to whether it is granted
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public Map<String, Boolean> getAttachmentPermissions(PermissionRank rank)
+    {
+        return attachmentPermissions.get(rank.getId());
+    }
+
+    private void intern(String node)
+    {
+        if (!node.isEmpty())
+        {
+            nodeIds.putIfAbsent(node, nodeIds.size());
+        }
+    }
+
+    private static String normalize(String node)
+    {
+        // Bukkit treats permission nodes case-insensitively by storing them in lower case
+        return node.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class RankRules
+    {
+        private final Map<String, Boolean> exact = new HashMap<>();
+
+        // Longest prefix first, so the most specific wildcard matching a node decides it
+        private final List<Map.Entry<String, Boolean>> wildcards;
+
+        private RankRules(List<String> rules)
+        {
+            Map<String, Boolean> wildcardRules = new LinkedHashMap<>();
+
+            for (String rule : rules)
+            {
+                String node = normalize(rule);
+                boolean granted = !node.startsWith("-");
+
+                if (!granted)
+                {
+                    node = node.substring(1).trim();
+                }
+
+                // "*" becomes the empty prefix, which every node starts with
+                if (node.equals("*") || node.endsWith(".*"))
+                {
+                    wildcardRules.put(node.substring(0, node.length() - 1), granted);
+                }
+                else if (!node.isEmpty())
+                {
+                    exact.put(node, granted);
+                }
+            }
+
+            wildcards = new ArrayList<>(wildcardRules.entrySet());
+            wildcards.sort(Comparator.comparingInt(
+                    (Map.Entry<String, Boolean> entry) -> entry.getKey().length()).reversed());
+        }
+
+        private Boolean resolve(String node)
+        {
+            Boolean value = exact.get(node);
+
+            if (value != null)
+            {
+                return value;
+            }
+
+            for (Map.Entry<String, Boolean> wildcard : wildcards)
+            {
+                if (node.startsWith(wildcard.getKey()))
+                {
+                    return wildcard.getValue();
+                }
+            }
+
+            return null;
+        }
+    }
+}
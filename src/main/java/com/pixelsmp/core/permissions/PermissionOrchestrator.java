@@ -2,27 +2,149 @@ package com.pixelsmp.core.permissions;
 
 import com.pixelsmp.core.CorePlugin;
 import com.pixelsmp.core.chat.ChatFormatter;
+import com.pixelsmp.core.metrics.MetricsSource;
+import com.pixelsmp.core.metrics.PrometheusTextBuilder;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Function;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
-public class PermissionOrchestrator
+public class PermissionOrchestrator implements MetricsSource
 {
-    private final ConcurrentHashMap<UUID, PermissionRank> _playerPermissions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, Integer> _sessionHolds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, PermissionRank> _warmEntries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, PermissionRank> _replayWrites = new ConcurrentHashMap<>();
+    private final Set<UUID> _degradedEntries = ConcurrentHashMap.newKeySet();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder degradedLookups = new LongAdder();
+    private final List<BiConsumer<UUID, PermissionRank>> rankListeners = new CopyOnWriteArrayList<>();
+    private final OnlineRankIndex onlineRankIndex = new OnlineRankIndex();
+    private final RankStore rankStore;
+    private final RankBatchLoader batchLoader;
+    private final RankWriteBehindQueue writeBehindQueue;
+    private final RankChangePoller changePoller;
+    private final RankExpiryScheduler expiryScheduler;
+    private final RankCache _playerPermissions;
+
+    private volatile boolean storeAvailable = true;
 
     /**
-     * Initializes a new PermissionOrchestrator.
+     * Initializes a new PermissionOrchestrator that writes every rank change to the database immediately.
      *
      * @author Bradley Hooten (bradleyah02@gmail.com)
      * @see PermissionRank
      * @since 1.1.0
      */
     public PermissionOrchestrator()
+    {
+        this(new SQLRankStore(CorePlugin.getSQLConnectionManager(), 500));
+    }
+
+    private PermissionOrchestrator(RankStore rankStore)
+    {
+        this(rankStore, new RankBatchLoader(rankStore, 5, 500), null);
+    }
+
+    /**
+     * Initializes a new PermissionOrchestrator on top of the provided rank store. Cache misses are resolved through
+     * the provided batch loader. When a write-behind queue is provided, rank changes are applied to the in-memory
+     * value store immediately and written to the rank store in coalesced batches.
+     *
+     * @param rankStore Store holding every player's rank
+     * @param batchLoader Loader used to resolve cache misses
+     * @param writeBehindQueue Queue used to batch rank writes, or null to write each change immediately
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @see RankStore
+     * @see RankBatchLoader
+     * @see RankWriteBehindQueue
+     * @since 1.2.0
+     */
+    public PermissionOrchestrator(RankStore rankStore, RankBatchLoader batchLoader,
+                                  RankWriteBehindQueue writeBehindQueue)
+    {
+        this(rankStore, batchLoader, writeBehindQueue, null);
+    }
+
+    /**
+     * Initializes a new PermissionOrchestrator like {@link #PermissionOrchestrator(RankStore, RankBatchLoader,
+     * RankWriteBehindQueue)} that also keeps its cache in step with other servers sharing the rank store, by
+     * applying the changes the provided poller reads from the store's change log.
+     *
+     * @param rankStore Store holding every player's rank
+     * @param batchLoader Loader used to resolve cache misses
+     * @param writeBehindQueue Queue used to batch rank writes, or null to write each change immediately
+     * @param changePoller Poller for rank changes made by other servers, or null if no other server shares the store
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @see RankChangePoller
+     * @since 1.2.0
+     */
+    public PermissionOrchestrator(RankStore rankStore, RankBatchLoader batchLoader,
+                                  RankWriteBehindQueue writeBehindQueue, RankChangePoller changePoller)
+    {
+        this(rankStore, batchLoader, writeBehindQueue, changePoller, null);
+    }
+
+    /**
+     * Initializes a new PermissionOrchestrator like {@link #PermissionOrchestrator(RankStore, RankBatchLoader,
+     * RankWriteBehindQueue, RankChangePoller)} that also supports temporary ranks, reverting each one to its
+     * fallback rank when it expires.
+     *
+     * @param rankStore Store holding every player's rank
+     * @param batchLoader Loader used to resolve cache misses
+     * @param writeBehindQueue Queue used to batch rank writes, or null to write each change immediately
+     * @param changePoller Poller for rank changes made by other servers, or null if no other server shares the store
+     * @param expiryScheduler Scheduler reverting expired temporary ranks, or null if temporary ranks are not used
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @see RankExpiryScheduler
+     * @since 1.2.0
+     */
+    public PermissionOrchestrator(RankStore rankStore, RankBatchLoader batchLoader,
+                                  RankWriteBehindQueue writeBehindQueue, RankChangePoller changePoller,
+                                  RankExpiryScheduler expiryScheduler)
+    {
+        this(rankStore, batchLoader, writeBehindQueue, changePoller, expiryScheduler, new ConcurrentRankCache(16));
+    }
+
+    /**
+     * Initializes a new PermissionOrchestrator like {@link #PermissionOrchestrator(RankStore, RankBatchLoader,
+     * RankWriteBehindQueue, RankChangePoller, RankExpiryScheduler)} that keeps resident ranks in the provided cache,
+     * for example a {@link PrimitiveRankCache} when far more ranks are resident than players are online.
+     *
+     * @param rankStore Store holding every player's rank
+     * @param batchLoader Loader used to resolve cache misses
+     * @param writeBehindQueue Queue used to batch rank writes, or null to write each change immediately
+     * @param changePoller Poller for rank changes made by other servers, or null if no other server shares the store
+     * @param expiryScheduler Scheduler reverting expired temporary ranks, or null if temporary ranks are not used
+     * @param rankCache Empty cache to keep resident ranks in
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @see RankCacheType
+     * @since 1.2.0
+     */
+    public PermissionOrchestrator(RankStore rankStore, RankBatchLoader batchLoader,
+                                  RankWriteBehindQueue writeBehindQueue, RankChangePoller changePoller,
+                                  RankExpiryScheduler expiryScheduler, RankCache rankCache)
     {
         // Check to see if the orchestrator has already been initialized
         if (CorePlugin.getPermissionOrchestrator() != null)
@@ -31,53 +153,122 @@ public class PermissionOrchestrator
             throw new IllegalStateException("PermissionOrchestrator has already been initialized!");
         }
 
-        // Initialize the permissions table in the database
-        CorePlugin.getSQLConnectionManager().executeUpdateAsync(
-                        "CREATE TABLE IF NOT EXISTS core_permissions (player_uuid VARCHAR(36) PRIMARY KEY, rank VARCHAR(16) NOT NULL DEFAULT 'MEMBER');")
-                .thenCompose(result ->
+        this.rankStore = rankStore;
+        this.batchLoader = batchLoader;
+        this.writeBehindQueue = writeBehindQueue;
+        this.changePoller = changePoller;
+        this.expiryScheduler = expiryScheduler;
+        this._playerPermissions = rankCache;
+    }
+
+    /**
+     * Starts polling for rank changes made by other servers, reverts temporary ranks that expired while the server
+     * was down and seeds the ranks of every player already online. The store must have been prepared by
+     * {@link #createSchema()} first. Ranks warmed from a snapshot are left as they are until
+     * {@link #reconcileWarmCache()} checks them against the store.
+     *
+     * @return CompletableFuture that completes once the online players have been seeded
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public CompletableFuture<Void> seedCache()
+    {
+        // Start polling for changes before seeding, so a change made by another server meanwhile is not missed
+        CompletableFuture<Void> pollerStarted = changePoller == null
+                ? CompletableFuture.completedFuture(null)
+                : changePoller.start(this);
+
+        // Revert ranks that expired while the server was down before anyone is seeded with them
+        if (expiryScheduler != null)
+        {
+            pollerStarted = pollerStarted.thenCompose(result -> expiryScheduler.start(this));
+        }
+
+        return pollerStarted.thenCompose(result ->
                 {
-                    UUID[] onlinePlayerUUIDs = Bukkit.getServer().getOnlinePlayers().stream().map(Player::getUniqueId).toArray(UUID[]::new);
+                    List<Player> onlinePlayers = new ArrayList<>(Bukkit.getServer().getOnlinePlayers());
+                    UUID[] onlinePlayerUUIDs = onlinePlayers.stream().map(Player::getUniqueId).toArray(UUID[]::new);
 
                     // Seed the player ranks, if any are online
                     if(onlinePlayerUUIDs.length != 0)
                     {
-                        // Build the SQL statement to fetch all player UUIDs
-                        StringBuilder baseQuery = new StringBuilder("SELECT * FROM core_permissions WHERE player_uuid IN (");
-
-                        for (UUID uuid : onlinePlayerUUIDs)
+                        // Players that were already online (e.g. after a reload) keep their ranks resident until they quit
+                        for (UUID playerUUID : onlinePlayerUUIDs)
                         {
-                            baseQuery.append("'").append(uuid.toString()).append("',");
+                            retainPlayerRank(playerUUID);
                         }
 
-                        baseQuery.delete(baseQuery.length() - 1, baseQuery.length()).append(");");
-
-                        return CorePlugin.getSQLConnectionManager().executeQueryAsync(baseQuery.toString(), rs ->
+                        return batchLoader.loadAll(Arrays.asList(onlinePlayerUUIDs)).thenAccept(ranks ->
                         {
-                            // Iterate through the ResultSet to seed the in-memory value store
-                            while (rs.next())
+                            // Seed the in-memory value store without overwriting anything written meanwhile
+                            for (UUID playerUUID : onlinePlayerUUIDs)
                             {
-                                PermissionRank rank = PermissionRank.valueOf(rs.getString("rank"));
+                                PermissionRank rank = ranks.get(playerUUID);
 
-                                _playerPermissions.put(UUID.fromString(rs.getString("player_uuid")), rank);
+                                if (rank != null)
+                                {
+                                    _playerPermissions.putIfAbsent(playerUUID, rank);
+                                }
                             }
 
+                            onlinePlayers.forEach(this::addOnlinePlayer);
+
                             Bukkit.getServer().getLogger()
                                     .info(ChatFormatter.formatConsoleMessage("Core", "Successfully seeded player rank data.", false));
-
-                            return null;
                         });
                     }
 
-                    return CompletableFuture.completedFuture(null);
-                }).exceptionally(ex ->
-                {
-                    Bukkit.getLogger().severe(ChatFormatter.formatConsoleMessage("Core", "Failed to initialize permissions.", true));
+                    return CompletableFuture.<Void>completedFuture(null);
+                });
+    }
 
-                    CorePlugin.getInstance().getPluginLoader().disablePlugin(CorePlugin.getInstance());
-                    ex.printStackTrace();
+    /**
+     * Checks every rank warmed from a snapshot against the rank store and corrects the stale ones. Players may
+     * already be online with a warmed rank by then, so each correction reaches their session through the rank
+     * listeners. Should be called after {@link #seedCache()}, so ranks that expired while the server was down have
+     * been reverted first.
+     *
+     * @return CompletableFuture-wrapped number of ranks that were corrected
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public CompletableFuture<Integer> reconcileWarmCache()
+    {
+        Set<UUID> playerUUIDs = new HashSet<>(_warmEntries.keySet());
 
-                    return null;
-                });
+        if (playerUUIDs.isEmpty())
+        {
+            return CompletableFuture.completedFuture(0);
+        }
+
+        return batchLoader.loadAll(playerUUIDs).thenApply(ranks ->
+        {
+            int corrected = reconcileWarmEntries(ranks);
+
+            if (corrected != 0)
+            {
+                Bukkit.getServer().getLogger().info(ChatFormatter.formatConsoleMessage("Core",
+                        "Corrected " + corrected + " stale ranks from the rank cache snapshot.", false));
+            }
+
+            return corrected;
+        });
+    }
+
+    /**
+     * Prepares the rank store, for example by creating the permissions table if it does not exist yet.
+     *
+     * @return CompletableFuture that completes once the store is ready
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public CompletableFuture<Void> createSchema()
+    {
+        // Initialize the rank store
+        return rankStore.initialize();
     }
 
     /**
@@ -92,32 +283,60 @@ public class PermissionOrchestrator
      */
     public CompletableFuture<Optional<PermissionRank>> getPlayerRank(UUID playerUUID)
     {
-        if (_playerPermissions.containsKey(playerUUID))
+        PermissionRank cachedRank = _playerPermissions.get(playerUUID);
+
+        if (cachedRank != null)
         {
-            return CompletableFuture.completedFuture(Optional.ofNullable(_playerPermissions.get(playerUUID)));
+            cacheHits.increment();
+            return CompletableFuture.completedFuture(Optional.of(cachedRank));
         }
         else
         {
-            // Fetch the player's rank from the database
-            return CorePlugin.getSQLConnectionManager().executeQueryAsync("SELECT rank FROM core_permissions WHERE player_uuid = ?;", rs ->
+            cacheMisses.increment();
+
+            if (!storeAvailable)
             {
-                if (rs.next())
-                {
-                    PermissionRank rank = PermissionRank.valueOf(rs.getString("rank"));
-                    _playerPermissions.put(playerUUID, rank);
+                return CompletableFuture.completedFuture(Optional.of(serveDegradedRank(playerUUID)));
+            }
 
-                    return Optional.of(rank);
-                }
-                else
+            // Fetch the player's rank from the database as part of the next batch
+            return orDegraded(loadPlayerRank(playerUUID).thenApply(rank ->
+            {
+                // Keep a rank written while the lookup was in flight rather than the older database value
+                return rank.map(loadedRank ->
                 {
-                    return Optional.empty();
-                }
-            }, playerUUID.toString());
+                    PermissionRank writtenRank = _playerPermissions.putIfAbsent(playerUUID, loadedRank);
+
+                    return writtenRank == null ? loadedRank : writtenRank;
+                });
+            }), () -> Optional.of(serveDegradedRank(playerUUID)));
         }
     }
 
     /**
-     * Upserts the provided player's rank in the in-memory value store and the database.
+     * Fetches the provided player's rank from the in-memory value store without ever touching the database.
+     * Players that are online are guaranteed to be resident, so this is the preferred lookup on hot paths.
+     *
+     * @param playerUUID The player to fetch the rank for
+     *
+     * @return The player's cached rank, or null if it is not resident
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public PermissionRank getCachedPlayerRank(UUID playerUUID)
+    {
+        PermissionRank cachedRank = _playerPermissions.get(playerUUID);
+
+        (cachedRank == null ? cacheMisses : cacheHits).increment();
+
+        return cachedRank;
+    }
+
+    /**
+     * Upserts the provided player's rank in the in-memory value store and the database. In write-behind mode the
+     * in-memory value store is updated right away and the returned future completes once the write's batch commits;
+     * if the store rejects the batch, the player's stored rank is restored.
      *
      * @return CompletableFuture-wrapped boolean indicating success or failure
      *
@@ -126,29 +345,133 @@ public class PermissionOrchestrator
      */
     public CompletableFuture<Boolean> upsertPlayerRank(UUID uuid, PermissionRank rank)
     {
-        // Update the database
-        return CorePlugin.getSQLConnectionManager()
-                .executeUpdateAsync("INSERT INTO core_permissions (player_uuid, rank) VALUES (?, ?) " + "ON DUPLICATE KEY UPDATE rank = ?;",
-                        uuid.toString(), rank.toString(), rank.toString()).thenApply(result ->
+        // A permanent rank replaces any temporary one; the store clears its expiry on the same write
+        if (expiryScheduler != null)
+        {
+            expiryScheduler.cancel(uuid);
+        }
+
+        if (!storeAvailable)
+        {
+            return CompletableFuture.completedFuture(queueReplayWrite(uuid, rank, true));
+        }
+
+        if (writeBehindQueue != null)
+        {
+            // Update the in-memory value store now; the database catches up on the next flush
+            updateResidentRank(uuid, rank);
+            _degradedEntries.remove(uuid);
+
+            // A write refused outright, such as after shutdown, is handled like one whose batch failed
+            return writeBehindQueue.enqueue(uuid, rank).handle((success, ex) ->
+            {
+                if (ex == null && success)
+                {
+                    return true;
+                }
+
+                // A batch that failed because the store went down is replayed with everything else written meanwhile
+                if (!storeAvailable)
+                {
+                    return queueReplayWrite(uuid, rank, false);
+                }
+
+                // The store rejected the batch, so stop serving a rank it never stored
+                restoreStoredRank(uuid, rank);
+
+                return false;
+            });
+        }
+
+        // Update the rank store
+        return orDegraded(rankStore.saveRank(uuid, rank).thenApply(success ->
                 {
                     // Check if the update was successful
-                    if (result > 0)
+                    if (success)
                     {
-                        // Update the in-memory value store
-                        if (Bukkit.getServer().getPlayer(uuid) != null)
-                        {
-                            _playerPermissions.put(uuid, rank);
-                        }
-
-                        return true;
+                        // Update the in-memory value store, if the player is resident
+                        updateResidentRank(uuid, rank);
+                        _degradedEntries.remove(uuid);
                     }
-                    else
+
+                    return success;
+                }), () -> queueReplayWrite(uuid, rank, false));
+    }
+
+    /**
+     * Gives the provided player a temporary rank, which reverts to the rank they held before it once it expires.
+     * Temporary ranks are written to the rank store immediately, after any write for the same player waiting in the
+     * write-behind queue, and cannot be written while the store is unavailable.
+     *
+     * @param uuid Player whose rank is being updated
+     * @param rank The temporary rank
+     * @param expiresAtMillis Time the rank expires, in milliseconds since the epoch
+     *
+     * @return CompletableFuture-wrapped boolean indicating success or failure
+     *
+     * @throws IllegalStateException If the orchestrator was created without an expiry scheduler
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public CompletableFuture<Boolean> upsertTemporaryPlayerRank(UUID uuid, PermissionRank rank, long expiresAtMillis)
+    {
+        if (expiryScheduler == null)
+        {
+            throw new IllegalStateException("Temporary ranks are not enabled!");
+        }
+
+        // The store has to work out the fallback rank, so there is nothing to replay later
+        if (!storeAvailable)
+        {
+            return CompletableFuture.completedFuture(false);
+        }
+
+        // An older permanent rank still waiting to be written would otherwise overwrite the temporary one
+        CompletableFuture<Void> pendingWritten = writeBehindQueue != null && writeBehindQueue.getPendingRank(uuid)
+                .isPresent() ? writeBehindQueue.flush() : CompletableFuture.completedFuture(null);
+
+        return pendingWritten.thenCompose(result -> rankStore.saveTemporaryRank(uuid, rank, expiresAtMillis))
+                .thenApply(success ->
+                {
+                    if (success)
                     {
-                        return false;
+                        updateResidentRank(uuid, rank);
+                        _degradedEntries.remove(uuid);
+                        expiryScheduler.schedule(uuid, expiresAtMillis);
                     }
+
+                    return success;
                 });
     }
 
+    /**
+     * Returns whether temporary ranks can be given, which requires an expiry scheduler.
+     *
+     * @return True if {@link #upsertTemporaryPlayerRank(UUID, PermissionRank, long)} may be used
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public boolean supportsTemporaryRanks()
+    {
+        return expiryScheduler != null;
+    }
+
+    /**
+     * Applies temporary ranks reverted by the rank store to the in-memory value store. A reverted rank is ignored
+     * while a newer write for the same player is still waiting to be written.
+     *
+     * @param reverted Reverted players and their fallback ranks
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    void applyExpiredRanks(Map<UUID, PermissionRank> reverted)
+    {
+        reverted.forEach(this::applyRankChange);
+    }
+
     /**
      * Seeds the provided player's rank in the in-memory value store and the database.
      *
@@ -159,20 +482,42 @@ public class PermissionOrchestrator
      */
     public CompletableFuture<Boolean> seedPlayerRank(UUID playerUUID)
     {
-        // Fetch the player's rank from the database
-        return CorePlugin.getSQLConnectionManager().executeQueryAsync("SELECT rank FROM core_permissions WHERE player_uuid = ?;", rs ->
+        // Already resident, e.g. warmed from a snapshot or held by another session; the store needs no round trip
+        if (_playerPermissions.get(playerUUID) != null)
+        {
+            return CompletableFuture.completedFuture(true);
+        }
+
+        // Admit the player as a MEMBER for now; their stored rank is loaded once the store is reachable again
+        if (!storeAvailable)
+        {
+            serveDegradedRank(playerUUID);
+
+            return CompletableFuture.completedFuture(true);
+        }
+
+        // Fetch the player's rank from the database as part of the next batch
+        return orDegraded(loadPlayerRank(playerUUID), () ->
+        {
+            serveDegradedRank(playerUUID);
+
+            return Optional.of(PermissionRank.MEMBER);
+        }).thenCompose(rank ->
         {
-            if (rs.next())
+            if (rank.isPresent())
             {
-                _playerPermissions.put(playerUUID, PermissionRank.valueOf(rs.getString("rank")));
+                _playerPermissions.putIfAbsent(playerUUID, rank.get());
 
                 return CompletableFuture.completedFuture(true);
             }
             else
             {
-                return CorePlugin.getPermissionOrchestrator().upsertPlayerRank(playerUUID, PermissionRank.MEMBER);
+                // New player -- make them resident as a MEMBER, then persist it
+                _playerPermissions.putIfAbsent(playerUUID, PermissionRank.MEMBER);
+
+                return upsertPlayerRank(playerUUID, PermissionRank.MEMBER);
             }
-        }, playerUUID.toString()).thenCompose(Function.identity()).thenApply(success ->
+        }).thenApply(success ->
         {
             if (success)
             {
@@ -188,6 +533,214 @@ public class PermissionOrchestrator
         });
     }
 
+    /**
+     * Streams every stored player whose rank is at or above the provided rank, straight from the rank store, for
+     * reports over every stored rank. Rows are read in chunks as the subscriber requests them, so the store is never
+     * held in memory at once.
+     *
+     * @param minimumRank The lowest rank to include
+     * @param fetchSize Number of rows fetched from the store at a time
+     *
+     * @return Single-subscriber publisher of player UUIDs and their stored ranks
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public Flow.Publisher<Map.Entry<UUID, PermissionRank>> streamPlayersWithRankAtLeast(PermissionRank minimumRank,
+                                                                                        int fetchSize)
+    {
+        return rankStore.streamPlayersWithRankAtLeast(minimumRank, fetchSize);
+    }
+
+    /**
+     * Loads the provided player's rank, preferring a queued write over the rank store since it is always newer.
+     *
+     * @param playerUUID The player to load the rank for
+     *
+     * @return The player's rank, if it exists
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    private CompletableFuture<Optional<PermissionRank>> loadPlayerRank(UUID playerUUID)
+    {
+        PermissionRank replayRank = _replayWrites.get(playerUUID);
+
+        if (replayRank != null)
+        {
+            return CompletableFuture.completedFuture(Optional.of(replayRank));
+        }
+
+        if (writeBehindQueue != null)
+        {
+            Optional<PermissionRank> pendingRank = writeBehindQueue.getPendingRank(playerUUID);
+
+            if (pendingRank.isPresent())
+            {
+                return CompletableFuture.completedFuture(pendingRank);
+            }
+        }
+
+        return batchLoader.load(playerUUID);
+    }
+
+    /**
+     * Warms the in-memory value store with ranks saved by a previous run, so they can be served before the rank
+     * store is reachable. Warmed ranks are reconciled against the store by {@link #reconcileWarmCache()} and evicted
+     * by {@link #evictWarmEntries()} unless a session holds them by then.
+     *
+     * @param ranks Ranks to warm the cache with, keyed by player
+     *
+     * @return Number of ranks that were not already resident
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @see RankCacheSnapshot
+     * @since 1.2.0
+     */
+    public int warmCache(Map<UUID, PermissionRank> ranks)
+    {
+        int warmed = 0;
+
+        for (Map.Entry<UUID, PermissionRank> entry : ranks.entrySet())
+        {
+            if (_playerPermissions.putIfAbsent(entry.getKey(), entry.getValue()) == null)
+            {
+                _warmEntries.put(entry.getKey(), entry.getValue());
+                warmed++;
+            }
+        }
+
+        return warmed;
+    }
+
+    /**
+     * Evicts every rank warmed from a snapshot that no session holds, once the players who were likely to rejoin
+     * after a restart have had the chance to.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public void evictWarmEntries()
+    {
+        for (UUID playerUUID : _warmEntries.keySet())
+        {
+            // Evict inside a compute on the holds so a player logging in right now cannot lose their rank
+            _sessionHolds.compute(playerUUID, (key, holds) ->
+            {
+                if (holds == null)
+                {
+                    _playerPermissions.remove(key);
+                }
+
+                return holds;
+            });
+
+            _warmEntries.remove(playerUUID);
+        }
+    }
+
+    /**
+     * Returns a copy of every rank resident in the in-memory value store, for saving a snapshot on shutdown.
+     *
+     * @return Resident ranks, keyed by player
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public Map<UUID, PermissionRank> getResidentRanks()
+    {
+        Map<UUID, PermissionRank> residentRanks = new HashMap<>(_playerPermissions.size() * 4 / 3 + 1);
+        _playerPermissions.forEach(residentRanks::put);
+
+        return residentRanks;
+    }
+
+    private int reconcileWarmEntries(Map<UUID, PermissionRank> storedRanks)
+    {
+        int corrected = 0;
+
+        for (Map.Entry<UUID, PermissionRank> entry : _warmEntries.entrySet())
+        {
+            PermissionRank storedRank = storedRanks.get(entry.getKey());
+
+            // A queued write is newer than both the snapshot and the store
+            if (storedRank == null || storedRank == entry.getValue() || hasPendingWrite(entry.getKey()))
+            {
+                continue;
+            }
+
+            // Only replace the snapshot's value; anything written since the snapshot was loaded is newer
+            if (_playerPermissions.replace(entry.getKey(), entry.getValue(), storedRank))
+            {
+                notifyRankListeners(entry.getKey());
+                corrected++;
+            }
+        }
+
+        return corrected;
+    }
+
+    /**
+     * Applies a rank change made through another server to the in-memory value store. Only resident players are
+     * updated, since anyone else is loaded from the rank store on their next lookup. A change is ignored while a
+     * write for the same player is waiting in the write-behind queue, as that write is newer and will be logged in
+     * turn.
+     *
+     * @param playerUUID Player whose rank changed
+     * @param rank The player's new rank
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    void applyRankChange(UUID playerUUID, PermissionRank rank)
+    {
+        if (hasPendingWrite(playerUUID))
+        {
+            return;
+        }
+
+        updateResidentRank(playerUUID, rank);
+    }
+
+    /**
+     * Marks the provided player's rank as held by a session, keeping it resident in the in-memory value store until
+     * every hold has been released. A player reconnecting while their old session is still online holds it twice.
+     *
+     * @param playerUUID Player whose rank should stay resident
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public void retainPlayerRank(UUID playerUUID)
+    {
+        _sessionHolds.merge(playerUUID, 1, Integer::sum);
+    }
+
+    /**
+     * Releases a session hold on the provided player's rank, purging it from the in-memory value store once no
+     * session holds it any more.
+     *
+     * @param playerUUID Player whose session ended or was refused
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public void releasePlayerRank(UUID playerUUID)
+    {
+        // Purge inside the compute so a concurrent retain for the same player cannot interleave with it
+        _sessionHolds.compute(playerUUID, (key, holds) ->
+        {
+            if (holds != null && holds > 1)
+            {
+                return holds - 1;
+            }
+
+            purgePermissionCache(key);
+
+            return null;
+        });
+    }
+
     /**
      * Purges the provided player's rank from the in-memory value store and the database.
      *
@@ -199,5 +752,411 @@ public class PermissionOrchestrator
     public void purgePermissionCache(UUID playerUUID)
     {
         _playerPermissions.remove(playerUUID);
+        _degradedEntries.remove(playerUUID);
+    }
+
+    /**
+     * Stops polling for rank changes and stops the batch loader, then flushes any pending rank writes and stops the
+     * write-behind queue, if one is in use. Must be called before the database connection is closed.
+     *
+     * @param timeoutMillis Maximum time, in milliseconds, to wait for pending writes to commit
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public void shutdown(long timeoutMillis)
+    {
+        if (changePoller != null)
+        {
+            changePoller.close();
+        }
+
+        if (expiryScheduler != null)
+        {
+            expiryScheduler.close();
+        }
+
+        batchLoader.close();
+
+        if (writeBehindQueue != null)
+        {
+            writeBehindQueue.close(timeoutMillis);
+        }
+
+        // Last chance for writes made during an outage; the store may well still be down
+        if (!_replayWrites.isEmpty())
+        {
+            try
+            {
+                replayWrites().get(timeoutMillis, TimeUnit.MILLISECONDS);
+            }
+            catch (Exception e)
+            {
+                Bukkit.getLogger().severe(ChatFormatter.formatConsoleMessage("Core", _replayWrites.size() +
+                        " rank changes made while the rank store was unavailable were lost: " + e.getMessage(), true));
+            }
+        }
+    }
+
+    /**
+     * Registers a listener that is told whenever the rank of a resident player changes, whether through this server,
+     * another server or a reload from the rank store. Listeners are given the player's rank as it stands when they
+     * are told, and run on the thread that made the change while other changes wait, so they must not block.
+     *
+     * @param listener Listener receiving the player's UUID and new rank
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public void addRankListener(BiConsumer<UUID, PermissionRank> listener)
+    {
+        rankListeners.add(listener);
+    }
+
+    private void updateResidentRank(UUID playerUUID, PermissionRank rank)
+    {
+        if (_playerPermissions.replace(playerUUID, rank) != null)
+        {
+            notifyRankListeners(playerUUID);
+        }
+    }
+
+    private void restoreStoredRank(UUID playerUUID, PermissionRank rejectedRank)
+    {
+        // The rejected write has left the queue by now, so this reads the store or a newer write queued since
+        loadPlayerRank(playerUUID).whenComplete((storedRank, ex) ->
+        {
+            if (ex != null)
+            {
+                Bukkit.getLogger().warning(ChatFormatter.formatConsoleMessage("Core", "Failed to restore the " +
+                        "stored rank of " + playerUUID + " after its write was rejected: " + ex.getMessage(), true));
+                return;
+            }
+
+            // A player without a stored rank is a MEMBER, as seedPlayerRank() would have made them
+            PermissionRank restoredRank = storedRank.orElse(PermissionRank.MEMBER);
+
+            // Only undo the rejected rank; anything written since is newer and stays
+            if (restoredRank != rejectedRank && _playerPermissions.replace(playerUUID, rejectedRank, restoredRank))
+            {
+                notifyRankListeners(playerUUID);
+            }
+        });
+    }
+
+    /**
+     * Indexes a player who has joined under their resident rank, so rank queries over online players find them.
+     *
+     * @param player The player who joined
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @see #getOnlineRankIndex()
+     * @since 1.2.0
+     */
+    public void addOnlinePlayer(Player player)
+    {
+        // Read the rank under the index's lock, so a rank change landing meanwhile is applied after it, not before
+        synchronized (onlineRankIndex)
+        {
+            PermissionRank rank = _playerPermissions.get(player.getUniqueId());
+
+            onlineRankIndex.add(player, rank == null ? PermissionRank.MEMBER : rank);
+        }
+    }
+
+    /**
+     * Removes a player who has left from the index of online players.
+     *
+     * @param playerUUID The player who left
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public void removeOnlinePlayer(UUID playerUUID)
+    {
+        onlineRankIndex.remove(playerUUID);
+    }
+
+    /**
+     * Returns the index of online players by rank, which is kept in step with joins, quits and rank changes.
+     *
+     * @return The online player index
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public OnlineRankIndex getOnlineRankIndex()
+    {
+        return onlineRankIndex;
+    }
+
+    private void notifyRankListeners(UUID playerUUID)
+    {
+        // Re-read the resident rank rather than trusting the caller's, and hand it to the index and the listeners
+        // under one lock, so two racing changes cannot leave either of them on the older rank
+        synchronized (onlineRankIndex)
+        {
+            PermissionRank residentRank = _playerPermissions.get(playerUUID);
+
+            // Purged since the change, so there is no longer a session to tell
+            if (residentRank == null)
+            {
+                return;
+            }
+
+            onlineRankIndex.updateRank(playerUUID, residentRank);
+
+            for (BiConsumer<UUID, PermissionRank> listener : rankListeners)
+            {
+                try
+                {
+                    listener.accept(playerUUID, residentRank);
+                }
+                catch (RuntimeException e)
+                {
+                    Bukkit.getLogger().warning(ChatFormatter.formatConsoleMessage("Core", "A rank listener failed: " +
+                            e.getMessage(), true));
+                }
+            }
+        }
+    }
+
+    /**
+     * Switches degraded mode on or off. While the rank store is unavailable, lookups that miss the in-memory value
+     * store are answered with MEMBER instead of waiting on the store, and rank writes are kept in memory. Once it is
+     * available again, the kept writes are replayed and every rank that was answered with MEMBER is reloaded.
+     *
+     * @param available Whether the rank store is reachable
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public synchronized void setStoreAvailable(boolean available)
+    {
+        if (storeAvailable == available)
+        {
+            return;
+        }
+
+        storeAvailable = available;
+
+        if (!available)
+        {
+            Bukkit.getLogger().warning(ChatFormatter.formatConsoleMessage("Core", "The rank store is unavailable; " +
+                    "serving cached ranks, MEMBER for anyone else, and keeping rank changes for later.", true));
+            return;
+        }
+
+        int replayCount = _replayWrites.size();
+
+        // Replay first, so the reload below reads what was written during the outage
+        replayWrites().thenCompose(result -> reloadDegradedEntries()).whenComplete((reloaded, ex) ->
+        {
+            if (ex != null)
+            {
+                Bukkit.getLogger().warning(ChatFormatter.formatConsoleMessage("Core", "Failed to recover from " +
+                        "the rank store outage: " + ex.getMessage(), true));
+                return;
+            }
+
+            Bukkit.getLogger().info(ChatFormatter.formatConsoleMessage("Core", "The rank store is available " +
+                    "again; replayed " + replayCount + " rank changes and reloaded " + reloaded + " ranks.", false));
+        });
+    }
+
+    /**
+     * Returns whether the orchestrator is in degraded mode.
+     *
+     * @return True if the rank store is unavailable
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public boolean isDegraded()
+    {
+        return !storeAvailable;
+    }
+
+    private PermissionRank serveDegradedRank(UUID playerUUID)
+    {
+        degradedLookups.increment();
+
+        PermissionRank cachedRank = _playerPermissions.putIfAbsent(playerUUID, PermissionRank.MEMBER);
+
+        if (cachedRank != null)
+        {
+            return cachedRank;
+        }
+
+        // Marked only once resident, so a reload that picks the mark up always finds the MEMBER rank to replace
+        _degradedEntries.add(playerUUID);
+
+        return PermissionRank.MEMBER;
+    }
+
+    private boolean queueReplayWrite(UUID playerUUID, PermissionRank rank, boolean replaceNewer)
+    {
+        // A write that failed in flight must not replace one queued after it
+        if (replaceNewer)
+        {
+            _replayWrites.put(playerUUID, rank);
+        }
+        else if (_replayWrites.putIfAbsent(playerUUID, rank) != null)
+        {
+            return true;
+        }
+
+        updateResidentRank(playerUUID, rank);
+        _degradedEntries.remove(playerUUID);
+
+        return true;
+    }
+
+    private CompletableFuture<Void> replayWrites()
+    {
+        Map<UUID, PermissionRank> writes = new HashMap<>(_replayWrites);
+
+        if (writes.isEmpty())
+        {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // Only remove what was replayed; a write queued meanwhile is newer and waits for the next replay
+        return rankStore.saveRanks(writes).thenRun(() -> writes.forEach(_replayWrites::remove));
+    }
+
+    private CompletableFuture<Integer> reloadDegradedEntries()
+    {
+        Set<UUID> playerUUIDs = new HashSet<>(_degradedEntries);
+
+        if (playerUUIDs.isEmpty())
+        {
+            return CompletableFuture.completedFuture(0);
+        }
+
+        return batchLoader.loadAll(playerUUIDs).thenCompose(ranks ->
+        {
+            Map<UUID, PermissionRank> newPlayers = new HashMap<>();
+
+            for (UUID playerUUID : playerUUIDs)
+            {
+                // Skip anyone whose rank was written since; that write is newer than the store
+                if (!_degradedEntries.remove(playerUUID) || hasPendingWrite(playerUUID))
+                {
+                    continue;
+                }
+
+                PermissionRank storedRank = ranks.get(playerUUID);
+
+                if (storedRank == null)
+                {
+                    // Never stored, so this is a new player; persist their MEMBER rank as seeding would have
+                    newPlayers.put(playerUUID, PermissionRank.MEMBER);
+                }
+                else if (_playerPermissions.replace(playerUUID, PermissionRank.MEMBER, storedRank))
+                {
+                    notifyRankListeners(playerUUID);
+                }
+            }
+
+            if (newPlayers.isEmpty())
+            {
+                return CompletableFuture.completedFuture(playerUUIDs.size());
+            }
+
+            return rankStore.saveRanks(newPlayers).thenApply(result -> playerUUIDs.size());
+        });
+    }
+
+    private boolean hasPendingWrite(UUID playerUUID)
+    {
+        return _replayWrites.containsKey(playerUUID) ||
+                (writeBehindQueue != null && writeBehindQueue.getPendingRank(playerUUID).isPresent());
+    }
+
+    private <T> CompletableFuture<T> orDegraded(CompletableFuture<T> future, Supplier<T> fallback)
+    {
+        return future.handle((result, ex) ->
+        {
+            if (ex == null)
+            {
+                return result;
+            }
+
+            // The store went down while this was in flight; answer as if it had been down all along
+            if (!storeAvailable)
+            {
+                return fallback.get();
+            }
+
+            throw ex instanceof CompletionException ? (CompletionException) ex : new CompletionException(ex);
+        });
+    }
+
+    /**
+     * Returns the number of rank lookups answered by the in-memory value store.
+     *
+     * @return The counter value since the orchestrator was created
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public long getCacheHits()
+    {
+        return cacheHits.sum();
+    }
+
+    /**
+     * Returns the number of rank lookups that missed the in-memory value store.
+     *
+     * @return The counter value since the orchestrator was created
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public long getCacheMisses()
+    {
+        return cacheMisses.sum();
+    }
+
+    /**
+     * Returns the number of ranks resident in the in-memory value store.
+     *
+     * @return Number of resident ranks
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public int getCacheSize()
+    {
+        return _playerPermissions.size();
+    }
+
+    @Override
+    public void collectMetrics(PrometheusTextBuilder builder)
+    {
+        builder.counter("pixelsmp_permission_cache_hits_total", "Rank lookups answered by the in-memory cache.",
+                        cacheHits.sum())
+                .counter("pixelsmp_permission_cache_misses_total", "Rank lookups that missed the in-memory cache.",
+                        cacheMisses.sum())
+                .gauge("pixelsmp_permission_cache_size", "Ranks resident in the in-memory cache.",
+                        _playerPermissions.size())
+                .gauge("pixelsmp_permission_cache_bytes", "Estimated memory held by the in-memory cache.",
+                        _playerPermissions.estimateFootprintBytes())
+                .gauge("pixelsmp_permission_cache_warm_entries", "Ranks warmed from a snapshot and not yet evicted.",
+                        _warmEntries.size())
+                .gauge("pixelsmp_permission_session_holds", "Players whose rank is held resident by a session.",
+                        _sessionHolds.size())
+                .gauge("pixelsmp_permission_online_indexed", "Online players in the index of players by rank.",
+                        onlineRankIndex.size())
+                .gauge("pixelsmp_permission_degraded",
+                        "Whether ranks are served without the rank store (1) or not (0).", storeAvailable ? 0 : 1)
+                .counter("pixelsmp_permission_degraded_lookups_total",
+                        "Rank lookups answered with MEMBER because the rank store was unavailable.",
+                        degradedLookups.sum())
+                .gauge("pixelsmp_permission_degraded_entries", "Ranks served as MEMBER that await a reload.",
+                        _degradedEntries.size())
+                .gauge("pixelsmp_permission_replay_writes", "Rank changes waiting for the rank store to come back.",
+                        _replayWrites.size());
     }
 }
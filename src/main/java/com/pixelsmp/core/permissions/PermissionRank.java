@@ -4,28 +4,55 @@ import java.util.Arrays;
 
 public enum PermissionRank
 {
-    OWNER("OWNER", '4', 100),
-    ENGINEER("ENGINEER", '5', 95), // This is a developer rank (not a staff rank)
-    ADMINISTRATOR("ADMINISTRATOR", 'c', 90),
-    MODERATOR("MODERATOR", '6', 80),
-    HELPER("HELPER", '9', 40),
-    BUILDER("BUILDER", '1', 30),
-    MEDIA("MEDIA", 'd', 25),
-    MVP_PLUS("MVP+", 'b', 20),
-    MVP("MVP", '3', 15),
-    VIP_PLUS("VIP+", 'a', 10),
-    VIP("VIP", '2', 5),
-    MEMBER("MEMBER", '8', 0);
+    OWNER("OWNER", '4', 100, 11),
+    ENGINEER("ENGINEER", '5', 95, 10), // This is a developer rank (not a staff rank)
+    ADMINISTRATOR("ADMINISTRATOR", 'c', 90, 9),
+    MODERATOR("MODERATOR", '6', 80, 8),
+    HELPER("HELPER", '9', 40, 7),
+    BUILDER("BUILDER", '1', 30, 6),
+    MEDIA("MEDIA", 'd', 25, 5),
+    MVP_PLUS("MVP+", 'b', 20, 4),
+    MVP("MVP", '3', 15, 3),
+    VIP_PLUS("VIP+", 'a', 10, 2),
+    VIP("VIP", '2', 5, 1),
+    MEMBER("MEMBER", '8', 0, 0);
+
+    // Indexed by id, so decoding a stored rank is a single array load
+    private static final PermissionRank[] BY_ID;
+
+    static
+    {
+        int maxId = 0;
+
+        for (PermissionRank rank : values())
+        {
+            maxId = Math.max(maxId, rank.id);
+        }
+
+        BY_ID = new PermissionRank[maxId + 1];
+
+        for (PermissionRank rank : values())
+        {
+            if (BY_ID[rank.id] != null)
+            {
+                throw new IllegalStateException(rank + " and " + BY_ID[rank.id] + " share the id " + rank.id + "!");
+            }
+
+            BY_ID[rank.id] = rank;
+        }
+    }
 
     private final char colorCode;
     private final int permissionLevel;
     private final String name;
+    private final int id;
 
-    PermissionRank(String name, char colorCode, int permissionLevel)
+    PermissionRank(String name, char colorCode, int permissionLevel, int id)
     {
         this.name = name;
         this.colorCode = colorCode;
         this.permissionLevel = permissionLevel;
+        this.id = id;
     }
 
     /**
@@ -70,6 +97,46 @@ public enum PermissionRank
         return name;
     }
 
+    /**
+     * Returns the id the permission rank is stored under. Unlike the ordinal, the id never changes when ranks are
+     * added or reordered, so it is safe to persist.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @return The stored id of the permission rank
+     */
+    public int getId()
+    {
+        return id;
+    }
+
+    /**
+     * Gets the permission rank stored under the given id.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     *
+     * @since 1.2.0
+     *
+     * @param id The stored id of the permission rank
+     *
+     * @return The permission rank with the given id
+     *
+     * @throws IllegalArgumentException If no permission rank has the given id
+     */
+    public static PermissionRank fromId(int id)
+    {
+        PermissionRank rank = id >= 0 && id < BY_ID.length ? BY_ID[id] : null;
+
+        if (rank == null)
+        {
+            throw new IllegalArgumentException("No permission rank has the id " + id + "!");
+        }
+
+        return rank;
+    }
+
     /**
      * Gets all permission ranks with a level greater than or equal to the given level.
      *
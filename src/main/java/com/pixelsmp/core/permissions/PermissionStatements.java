@@ -0,0 +1,131 @@
+package com.pixelsmp.core.permissions;
+
+import com.pixelsmp.core.database.sql.SQLPriority;
+import com.pixelsmp.core.database.sql.SQLStatement;
+import com.pixelsmp.core.database.sql.SQLStatementRegistry;
+
+public final class PermissionStatements
+{
+    // The tables themselves are created and upgraded by PermissionMigrations
+
+    // Rank lookups almost always come from a player logging in
+    public static final SQLStatement SELECT_RANK = SQLStatementRegistry.register("permissions.selectRank",
+            SQLPriority.JOIN_CRITICAL,
+            "SELECT player_uuid, rank_id FROM core_permissions WHERE player_uuid = ?;", byte[].class);
+
+    // VALUES(rank_id) rather than a third parameter, so Connector/J can rewrite batches into one multi-row insert.
+    // A permanent rank replaces any temporary one, so the expiry is cleared as well
+    public static final SQLStatement UPSERT_RANK = SQLStatementRegistry.register("permissions.upsertRank",
+            SQLPriority.INTERACTIVE,
+            "INSERT INTO core_permissions (player_uuid, rank_id) VALUES (?, ?) ON DUPLICATE KEY UPDATE rank_id = VALUES(rank_id), expires_at = NULL, fallback_rank_id = NULL;",
+            byte[].class, Integer.class);
+
+    // The fallback is assigned first and from the old row: the permanent rank the player held, or the fallback of the
+    // temporary rank being replaced, so stacked temporary ranks still revert to the last permanent one
+    public static final SQLStatement UPSERT_TEMPORARY_RANK = SQLStatementRegistry.register(
+            "permissions.upsertTemporaryRank", SQLPriority.INTERACTIVE,
+            "INSERT INTO core_permissions (player_uuid, rank_id, expires_at, fallback_rank_id) VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE fallback_rank_id = CASE WHEN expires_at IS NULL THEN rank_id ELSE fallback_rank_id END, rank_id = VALUES(rank_id), expires_at = VALUES(expires_at);",
+            byte[].class, Integer.class, Long.class, Integer.class);
+
+    // Permanent ranks have no expiry and never match, so this is a range scan of the expiry index. The index also
+    // holds the primary key, so ties are already in player order and the keyset cursor needs no sort
+    public static final SQLStatement SELECT_EXPIRING = SQLStatementRegistry.register("permissions.selectExpiring",
+            SQLPriority.BACKGROUND,
+            "SELECT player_uuid, expires_at FROM core_permissions WHERE expires_at < ? AND (expires_at > ? OR (expires_at = ? AND player_uuid > ?)) ORDER BY expires_at, player_uuid LIMIT ?;",
+            Long.class, Long.class, Long.class, byte[].class, Integer.class);
+
+    // Locks the expired rows, so a second server expiring at the same moment waits and then finds nothing left
+    public static final SQLStatement SELECT_EXPIRED_FOR_UPDATE = SQLStatementRegistry.register(
+            "permissions.selectExpiredForUpdate", SQLPriority.INTERACTIVE,
+            "SELECT player_uuid, expires_at, fallback_rank_id FROM core_permissions WHERE expires_at <= ? ORDER BY expires_at LIMIT ? FOR UPDATE;",
+            Long.class, Integer.class);
+
+    public static final SQLStatement EXPIRE_RANK = SQLStatementRegistry.register("permissions.expireRank",
+            SQLPriority.INTERACTIVE,
+            "UPDATE core_permissions SET rank_id = fallback_rank_id, expires_at = NULL, fallback_rank_id = NULL WHERE player_uuid = ? AND expires_at = ?;",
+            byte[].class, Long.class);
+
+    // Every rank write appends here in the same transaction; other nodes poll it by version to refresh their caches
+    public static final SQLStatement INSERT_CHANGE = SQLStatementRegistry.register("permissions.insertChange",
+            SQLPriority.INTERACTIVE,
+            "INSERT INTO core_permission_changes (player_uuid, rank_id, changed_at) VALUES (?, ?, ?);",
+            byte[].class, Integer.class, Long.class);
+
+    // A range scan of the primary key, so polling stays cheap however large the log is
+    public static final SQLStatement SELECT_CHANGES_SINCE = SQLStatementRegistry.register(
+            "permissions.selectChangesSince", SQLPriority.BACKGROUND,
+            "SELECT version, player_uuid, rank_id, changed_at FROM core_permission_changes WHERE version > ? ORDER BY version LIMIT ?;",
+            Long.class, Integer.class);
+
+    public static final SQLStatement SELECT_LATEST_CHANGE = SQLStatementRegistry.register(
+            "permissions.selectLatestChange", SQLPriority.BACKGROUND,
+            "SELECT COALESCE(MAX(version), 0) AS version FROM core_permission_changes;");
+
+    // The log is bounded by retention, so an unindexed scan of changed_at once a minute is cheap enough
+    public static final SQLStatement PURGE_CHANGES = SQLStatementRegistry.register("permissions.purgeChanges",
+            SQLPriority.BACKGROUND,
+            "DELETE FROM core_permission_changes WHERE changed_at < ?;", Long.class);
+
+    private PermissionStatements()
+    {
+    }
+
+    /**
+     * Returns the statement that looks up the ranks of the given number of players at once.
+     *
+     * @param playerCount Number of player UUIDs in the IN (...) list
+     *
+     * @return The registered statement, "permissions.selectRank" for a single player
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public static SQLStatement selectRanks(int playerCount)
+    {
+        if (playerCount == 1)
+        {
+            return SELECT_RANK;
+        }
+
+        StringBuilder query = new StringBuilder(
+                "SELECT player_uuid, rank_id FROM core_permissions WHERE player_uuid IN (");
+        Class<?>[] parameterTypes = new Class<?>[playerCount];
+
+        for (int i = 0; i < playerCount; i++)
+        {
+            query.append(i == 0 ? "?" : ", ?");
+            parameterTypes[i] = byte[].class;
+        }
+
+        return SQLStatementRegistry.register("permissions.selectRanks." + playerCount, SQLPriority.JOIN_CRITICAL,
+                query.append(");").toString(), parameterTypes);
+    }
+
+    /**
+     * Returns the statement that lists every stored player holding one of the given number of ranks, for reports
+     * streamed over the whole table.
+     *
+     * @param rankCount Number of rank IDs in the IN (...) list
+     *
+     * @return The registered statement
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public static SQLStatement selectPlayersWithRank(int rankCount)
+    {
+        StringBuilder query = new StringBuilder(
+                "SELECT player_uuid, rank_id FROM core_permissions WHERE rank_id IN (");
+        Class<?>[] parameterTypes = new Class<?>[rankCount];
+
+        for (int i = 0; i < rankCount; i++)
+        {
+            query.append(i == 0 ? "?" : ", ?");
+            parameterTypes[i] = Integer.class;
+        }
+
+        // Reports are never urgent, so they yield to lookups players are waiting on
+        return SQLStatementRegistry.register("permissions.selectPlayersWithRank." + rankCount, SQLPriority.BACKGROUND,
+                query.append(");").toString(), parameterTypes);
+    }
+}
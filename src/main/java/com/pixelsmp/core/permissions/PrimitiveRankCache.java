@@ -0,0 +1,563 @@
+package com.pixelsmp.core.permissions;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiConsumer;
+
+public class PrimitiveRankCache implements RankCache
+{
+    private static final PermissionRank[] RANKS = PermissionRank.values();
+
+    // Picked by the top bits of the hash, while the slot within a segment is picked by the bottom bits
+    private static final int SEGMENT_BITS = 6;
+    private static final int SEGMENT_COUNT = 1 << SEGMENT_BITS;
+    private static final int MIN_SEGMENT_CAPACITY = 16;
+    private static final int MAX_SEGMENT_CAPACITY = 1 << 26;
+
+    // Ranks are stored as their ordinal plus one, so an all-zero slot is empty
+    private static final int EMPTY = 0;
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+    private final boolean offHeap;
+
+    /**
+     * Initializes a new rank cache that stores each rank as the two halves of the player's UUID and a single byte,
+     * in open-addressed tables split into independently locked segments. An entry costs 17 bytes plus the free
+     * slots kept for probing, against about 72 for a {@link java.util.concurrent.ConcurrentHashMap}, and
+     * leaves no objects behind for the garbage collector to trace. Lookups take no lock unless they race a write to
+     * the same segment.
+     *
+     * @param expectedSize Number of ranks the cache is expected to hold; it grows past this as needed
+     * @param offHeap Whether the tables are kept in direct memory rather than on the heap, which keeps a large cache
+     *                out of the heap entirely but needs enough -XX:MaxDirectMemorySize to hold it
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public PrimitiveRankCache(int expectedSize, boolean offHeap)
+    {
+        this.offHeap = offHeap;
+
+        int segmentCapacity = MIN_SEGMENT_CAPACITY;
+
+        // Size each segment so the expected entries fit without growing past three quarters full
+        while (segmentCapacity < MAX_SEGMENT_CAPACITY
+                && (long) segmentCapacity * SEGMENT_COUNT * 3 < (long) Math.max(0, expectedSize) * 4)
+        {
+            segmentCapacity <<= 1;
+        }
+
+        for (int i = 0; i < SEGMENT_COUNT; i++)
+        {
+            segments[i] = new Segment(offHeap ? new DirectTable(segmentCapacity) : new HeapTable(segmentCapacity));
+        }
+    }
+
+    /**
+     * Returns whether the tables are kept in direct memory.
+     *
+     * @return True if the cache lives off the heap
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public boolean isOffHeap()
+    {
+        return offHeap;
+    }
+
+    @Override
+    public PermissionRank get(UUID playerUUID)
+    {
+        long high = playerUUID.getMostSignificantBits();
+        long low = playerUUID.getLeastSignificantBits();
+        long hash = hash(high, low);
+
+        return toRank(segmentFor(hash).get(high, low, hash));
+    }
+
+    @Override
+    public PermissionRank putIfAbsent(UUID playerUUID, PermissionRank rank)
+    {
+        long high = playerUUID.getMostSignificantBits();
+        long low = playerUUID.getLeastSignificantBits();
+        long hash = hash(high, low);
+
+        return toRank(segmentFor(hash).put(high, low, hash, EMPTY, fromRank(rank), true));
+    }
+
+    @Override
+    public PermissionRank replace(UUID playerUUID, PermissionRank rank)
+    {
+        long high = playerUUID.getMostSignificantBits();
+        long low = playerUUID.getLeastSignificantBits();
+        long hash = hash(high, low);
+
+        return toRank(segmentFor(hash).put(high, low, hash, EMPTY, fromRank(rank), false));
+    }
+
+    @Override
+    public boolean replace(UUID playerUUID, PermissionRank expectedRank, PermissionRank rank)
+    {
+        long high = playerUUID.getMostSignificantBits();
+        long low = playerUUID.getLeastSignificantBits();
+        long hash = hash(high, low);
+        int expected = fromRank(expectedRank);
+
+        return segmentFor(hash).put(high, low, hash, expected, fromRank(rank), false) == expected;
+    }
+
+    @Override
+    public PermissionRank remove(UUID playerUUID)
+    {
+        long high = playerUUID.getMostSignificantBits();
+        long low = playerUUID.getLeastSignificantBits();
+        long hash = hash(high, low);
+
+        return toRank(segmentFor(hash).remove(high, low, hash));
+    }
+
+    @Override
+    public int size()
+    {
+        int size = 0;
+
+        for (Segment segment : segments)
+        {
+            size += segment.size;
+        }
+
+        return size;
+    }
+
+    @Override
+    public void forEach(BiConsumer<UUID, PermissionRank> action)
+    {
+        for (Segment segment : segments)
+        {
+            segment.forEach(action);
+        }
+    }
+
+    @Override
+    public long estimateFootprintBytes()
+    {
+        long footprint = 0;
+
+        for (Segment segment : segments)
+        {
+            footprint += segment.footprintBytes();
+        }
+
+        return footprint;
+    }
+
+    private Segment segmentFor(long hash)
+    {
+        return segments[(int) (hash >>> (Long.SIZE - SEGMENT_BITS))];
+    }
+
+    private static long hash(long high, long low)
+    {
+        // Offline-mode UUIDs share their version bits, so mix both halves thoroughly before taking any bits
+        long hash = (high ^ Long.rotateLeft(low, 32)) * 0x9E3779B97F4A7C15L;
+
+        return hash ^ (hash >>> 29);
+    }
+
+    private static int fromRank(PermissionRank rank)
+    {
+        return rank.ordinal() + 1;
+    }
+
+    private static PermissionRank toRank(int storedRank)
+    {
+        return storedRank == EMPTY ? null : RANKS[storedRank - 1];
+    }
+
+    private static final class Segment
+    {
+        private final StampedLock lock = new StampedLock();
+        private Table table;
+        private volatile int size;
+
+        private Segment(Table table)
+        {
+            this.table = table;
+        }
+
+        private int get(long high, long low, long hash)
+        {
+            long stamp = lock.tryOptimisticRead();
+
+            // The table is only ever read here; a torn read is thrown away when the stamp fails to validate
+            int storedRank = read(table, high, low, hash);
+
+            if (lock.validate(stamp))
+            {
+                return storedRank;
+            }
+
+            stamp = lock.readLock();
+
+            try
+            {
+                return read(table, high, low, hash);
+            }
+            finally
+            {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private int put(long high, long low, long hash, int expectedRank, int storedRank, boolean onlyIfAbsent)
+        {
+            long stamp = lock.writeLock();
+
+            try
+            {
+                int slot = find(table, high, low, hash);
+
+                if (slot >= 0)
+                {
+                    int previousRank = table.rank(slot);
+
+                    // Only replace the expected rank, or whatever is there when no rank is expected
+                    if (!onlyIfAbsent && (expectedRank == EMPTY || expectedRank == previousRank))
+                    {
+                        table.setRank(slot, storedRank);
+                    }
+
+                    return previousRank;
+                }
+
+                if (onlyIfAbsent)
+                {
+                    if ((size + 1) * 4L > table.capacity() * 3L)
+                    {
+                        grow();
+                    }
+
+                    insert(table, high, low, hash, storedRank);
+                    size++;
+                }
+
+                return EMPTY;
+            }
+            finally
+            {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private int remove(long high, long low, long hash)
+        {
+            long stamp = lock.writeLock();
+
+            try
+            {
+                int hole = find(table, high, low, hash);
+
+                if (hole < 0)
+                {
+                    return EMPTY;
+                }
+
+                int previousRank = table.rank(hole);
+                int mask = table.capacity() - 1;
+
+                // Shift later entries of the probe run back into the hole, so lookups never need tombstones
+                for (int slot = (hole + 1) & mask; table.rank(slot) != EMPTY; slot = (slot + 1) & mask)
+                {
+                    int home = (int) hash(table.high(slot), table.low(slot)) & mask;
+
+                    // An entry may only move back if the hole lies between its home slot and where it sits now
+                    if (((slot - home) & mask) >= ((slot - hole) & mask))
+                    {
+                        table.set(hole, table.high(slot), table.low(slot), table.rank(slot));
+                        hole = slot;
+                    }
+                }
+
+                table.setRank(hole, EMPTY);
+                size--;
+
+                return previousRank;
+            }
+            finally
+            {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private void forEach(BiConsumer<UUID, PermissionRank> action)
+        {
+            long[] highs;
+            long[] lows;
+            int[] storedRanks;
+            int count = 0;
+            long stamp = lock.readLock();
+
+            // Copy out under the lock, then call the action without it
+            try
+            {
+                highs = new long[size];
+                lows = new long[size];
+                storedRanks = new int[size];
+
+                for (int slot = 0; slot < table.capacity() && count < highs.length; slot++)
+                {
+                    if (table.rank(slot) != EMPTY)
+                    {
+                        highs[count] = table.high(slot);
+                        lows[count] = table.low(slot);
+                        storedRanks[count++] = table.rank(slot);
+                    }
+                }
+            }
+            finally
+            {
+                lock.unlockRead(stamp);
+            }
+
+            for (int i = 0; i < count; i++)
+            {
+                action.accept(new UUID(highs[i], lows[i]), toRank(storedRanks[i]));
+            }
+        }
+
+        private long footprintBytes()
+        {
+            long stamp = lock.readLock();
+
+            try
+            {
+                return table.footprintBytes();
+            }
+            finally
+            {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private void grow()
+        {
+            if (table.capacity() >= MAX_SEGMENT_CAPACITY)
+            {
+                throw new IllegalStateException("The rank cache cannot hold any more ranks!");
+            }
+
+            Table grownTable = table.allocate(table.capacity() << 1);
+
+            for (int slot = 0; slot < table.capacity(); slot++)
+            {
+                if (table.rank(slot) != EMPTY)
+                {
+                    long high = table.high(slot);
+                    long low = table.low(slot);
+
+                    insert(grownTable, high, low, hash(high, low), table.rank(slot));
+                }
+            }
+
+            table = grownTable;
+        }
+
+        private static int read(Table table, long high, long low, long hash)
+        {
+            int slot = find(table, high, low, hash);
+
+            return slot < 0 ? EMPTY : table.rank(slot);
+        }
+
+        private static int find(Table table, long high, long low, long hash)
+        {
+            int mask = table.capacity() - 1;
+            int slot = (int) hash & mask;
+
+            // Bounded, so an optimistic read of a table mid-write can never spin forever
+            for (int probes = 0; probes < table.capacity(); probes++)
+            {
+                if (table.rank(slot) == EMPTY)
+                {
+                    return -1;
+                }
+
+                if (table.high(slot) == high && table.low(slot) == low)
+                {
+                    return slot;
+                }
+
+                slot = (slot + 1) & mask;
+            }
+
+            return -1;
+        }
+
+        private static void insert(Table table, long high, long low, long hash, int storedRank)
+        {
+            int mask = table.capacity() - 1;
+            int slot = (int) hash & mask;
+
+            while (table.rank(slot) != EMPTY)
+            {
+                slot = (slot + 1) & mask;
+            }
+
+            table.set(slot, high, low, storedRank);
+        }
+    }
+
+    private abstract static class Table
+    {
+        abstract int capacity();
+
+        abstract long high(int slot);
+
+        abstract long low(int slot);
+
+        abstract int rank(int slot);
+
+        abstract void set(int slot, long high, long low, int storedRank);
+
+        abstract void setRank(int slot, int storedRank);
+
+        abstract Table allocate(int capacity);
+
+        abstract long footprintBytes();
+    }
+
+    private static final class HeapTable extends Table
+    {
+        // Three parallel arrays rather than one of objects, so the whole table is three allocations
+        private final long[] highs;
+        private final long[] lows;
+        private final byte[] ranks;
+
+        private HeapTable(int capacity)
+        {
+            this.highs = new long[capacity];
+            this.lows = new long[capacity];
+            this.ranks = new byte[capacity];
+        }
+
+        @Override
+        int capacity()
+        {
+            return ranks.length;
+        }
+
+        @Override
+        long high(int slot)
+        {
+            return highs[slot];
+        }
+
+        @Override
+        long low(int slot)
+        {
+            return lows[slot];
+        }
+
+        @Override
+        int rank(int slot)
+        {
+            return ranks[slot];
+        }
+
+        @Override
+        void set(int slot, long high, long low, int storedRank)
+        {
+            highs[slot] = high;
+            lows[slot] = low;
+            ranks[slot] = (byte) storedRank;
+        }
+
+        @Override
+        void setRank(int slot, int storedRank)
+        {
+            ranks[slot] = (byte) storedRank;
+        }
+
+        @Override
+        Table allocate(int capacity)
+        {
+            return new HeapTable(capacity);
+        }
+
+        @Override
+        long footprintBytes()
+        {
+            // 16 bytes of header per array
+            return (long) ranks.length * (Long.BYTES * 2 + 1) + 48;
+        }
+    }
+
+    private static final class DirectTable extends Table
+    {
+        // Each slot is the high half, the low half and the rank, back to back
+        private static final int SLOT_BYTES = Long.BYTES * 2 + 1;
+
+        private final ByteBuffer slots;
+        private final int capacity;
+
+        private DirectTable(int capacity)
+        {
+            this.capacity = capacity;
+            this.slots = ByteBuffer.allocateDirect(capacity * SLOT_BYTES).order(ByteOrder.nativeOrder());
+        }
+
+        @Override
+        int capacity()
+        {
+            return capacity;
+        }
+
+        @Override
+        long high(int slot)
+        {
+            return slots.getLong(slot * SLOT_BYTES);
+        }
+
+        @Override
+        long low(int slot)
+        {
+            return slots.getLong(slot * SLOT_BYTES + Long.BYTES);
+        }
+
+        @Override
+        int rank(int slot)
+        {
+            return slots.get(slot * SLOT_BYTES + Long.BYTES * 2);
+        }
+
+        @Override
+        void set(int slot, long high, long low, int storedRank)
+        {
+            slots.putLong(slot * SLOT_BYTES, high);
+            slots.putLong(slot * SLOT_BYTES + Long.BYTES, low);
+            slots.put(slot * SLOT_BYTES + Long.BYTES * 2, (byte) storedRank);
+        }
+
+        @Override
+        void setRank(int slot, int storedRank)
+        {
+            slots.put(slot * SLOT_BYTES + Long.BYTES * 2, (byte) storedRank);
+        }
+
+        @Override
+        Table allocate(int capacity)
+        {
+            // The old buffer's memory is released once the garbage collector finds it unreachable
+            return new DirectTable(capacity);
+        }
+
+        @Override
+        long footprintBytes()
+        {
+            return (long) capacity * SLOT_BYTES;
+        }
+    }
+}
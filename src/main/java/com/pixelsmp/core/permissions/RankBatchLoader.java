@@ -0,0 +1,227 @@
+package com.pixelsmp.core.permissions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RankBatchLoader
+{
+    private final ConcurrentHashMap<UUID, CompletableFuture<Optional<PermissionRank>>> _inFlight =
+            new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<UUID> _pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger(0);
+    private final AtomicBoolean dispatchScheduled = new AtomicBoolean(false);
+    private final ScheduledExecutorService dispatchScheduler;
+    private final RankStore rankStore;
+    private final long windowMillis;
+    private final int maxBatchSize;
+
+    private volatile boolean closed = false;
+
+    /**
+     * Initializes a new batch loader for player ranks. Rank lookups arriving within the same window are resolved
+     * together with a single store lookup, and concurrent lookups for the same player share one result.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     *
+     * @param rankStore Store the ranks are loaded from
+     * @param windowMillis Time, in milliseconds, to wait for more lookups before querying
+     * @param maxBatchSize Maximum number of players resolved by a single lookup
+     */
+    public RankBatchLoader(RankStore rankStore, long windowMillis, int maxBatchSize)
+    {
+        this.rankStore = rankStore;
+        this.windowMillis = Math.max(0, windowMillis);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+
+        this.dispatchScheduler = Executors.newSingleThreadScheduledExecutor(runnable ->
+        {
+            Thread thread = new Thread(runnable, "PixelSMP-Core-RankBatchLoader");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    /**
+     * Loads the provided player's rank from the store as part of the next batch.
+     *
+     * @param playerUUID Player to load the rank for
+     *
+     * @return CompletableFuture-wrapped rank, empty if the player has no stored rank
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public CompletableFuture<Optional<PermissionRank>> load(UUID playerUUID)
+    {
+        // Checked before registering, so a lookup after close never leaves a future behind that nothing completes
+        if (closed)
+        {
+            return CompletableFuture.failedFuture(new IllegalStateException("RankBatchLoader has been closed!"));
+        }
+
+        // Join a lookup that is already queued or running for this player
+        CompletableFuture<Optional<PermissionRank>> future = new CompletableFuture<>();
+        CompletableFuture<Optional<PermissionRank>> existing = _inFlight.putIfAbsent(playerUUID, future);
+
+        if (existing != null)
+        {
+            return existing;
+        }
+
+        _pending.add(playerUUID);
+
+        try
+        {
+            if (pendingCount.incrementAndGet() >= maxBatchSize)
+            {
+                // A full batch is waiting, no reason to sit out the rest of the window
+                dispatchScheduler.execute(this::dispatch);
+            }
+            else if (dispatchScheduled.compareAndSet(false, true))
+            {
+                dispatchScheduler.schedule(this::dispatch, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        catch (RejectedExecutionException e)
+        {
+            failPending(playerUUID, future, new IllegalStateException("RankBatchLoader has been closed!", e));
+        }
+
+        // Closed while registering: close() may already have drained the pending lookups without seeing this one
+        if (closed)
+        {
+            failPending(playerUUID, future, new IllegalStateException("RankBatchLoader has been closed!"));
+        }
+
+        return future;
+    }
+
+    /**
+     * Loads the ranks of all provided players, batching them into as few lookups as possible.
+     *
+     * @param playerUUIDs Players to load ranks for
+     *
+     * @return CompletableFuture-wrapped map of every player that has a stored rank
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public CompletableFuture<Map<UUID, PermissionRank>> loadAll(Collection<UUID> playerUUIDs)
+    {
+        Map<UUID, CompletableFuture<Optional<PermissionRank>>> futures = new HashMap<>();
+
+        for (UUID playerUUID : playerUUIDs)
+        {
+            futures.put(playerUUID, load(playerUUID));
+        }
+
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])).thenApply(ignored ->
+        {
+            Map<UUID, PermissionRank> ranks = new HashMap<>();
+
+            futures.forEach((playerUUID, future) -> future.join().ifPresent(rank -> ranks.put(playerUUID, rank)));
+
+            return ranks;
+        });
+    }
+
+    /**
+     * Stops the dispatch thread. Lookups that have not been dispatched yet are failed.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public void close()
+    {
+        closed = true;
+        dispatchScheduler.shutdownNow();
+
+        IllegalStateException closedException = new IllegalStateException("RankBatchLoader has been closed!");
+        UUID playerUUID;
+
+        while ((playerUUID = _pending.poll()) != null)
+        {
+            CompletableFuture<Optional<PermissionRank>> future = _inFlight.remove(playerUUID);
+
+            if (future != null)
+            {
+                future.completeExceptionally(closedException);
+            }
+        }
+    }
+
+    private void failPending(UUID playerUUID, CompletableFuture<Optional<PermissionRank>> future,
+                             IllegalStateException closedException)
+    {
+        _pending.remove(playerUUID);
+        _inFlight.remove(playerUUID, future);
+        future.completeExceptionally(closedException);
+    }
+
+    private void dispatch()
+    {
+        dispatchScheduled.set(false);
+
+        List<UUID> batch = new ArrayList<>();
+        UUID playerUUID;
+
+        while ((playerUUID = _pending.poll()) != null)
+        {
+            pendingCount.decrementAndGet();
+            batch.add(playerUUID);
+
+            if (batch.size() == maxBatchSize)
+            {
+                queryBatch(batch);
+                batch = new ArrayList<>();
+            }
+        }
+
+        if (!batch.isEmpty())
+        {
+            queryBatch(batch);
+        }
+    }
+
+    private void queryBatch(List<UUID> batch)
+    {
+        rankStore.loadRanks(batch).whenComplete((ranks, ex) ->
+        {
+            for (UUID playerUUID : batch)
+            {
+                // Remove before completing so later lookups read fresh data instead of this result
+                CompletableFuture<Optional<PermissionRank>> future = _inFlight.remove(playerUUID);
+
+                if (future == null)
+                {
+                    continue;
+                }
+
+                if (ex != null)
+                {
+                    future.completeExceptionally(ex);
+                }
+                else
+                {
+                    future.complete(Optional.ofNullable(ranks.get(playerUUID)));
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,87 @@
+package com.pixelsmp.core.permissions;
+
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * In-memory value store holding the resident rank of each player. Every operation is atomic and safe to call from
+ * any thread, with the same semantics as the matching {@link java.util.concurrent.ConcurrentMap} method, so the
+ * orchestrator can run on top of a plain {@link java.util.concurrent.ConcurrentHashMap} or a compact primitive map
+ * without knowing which.
+ *
+ * @author Bradley Hooten (bradleyah02@gmail.com)
+ * @since 1.2.0
+ */
+public interface RankCache
+{
+    /**
+     * Returns the player's resident rank.
+     *
+     * @param playerUUID Player to look up
+     *
+     * @return The player's rank, or null if it is not resident
+     */
+    PermissionRank get(UUID playerUUID);
+
+    /**
+     * Makes the player's rank resident unless a rank already is.
+     *
+     * @param playerUUID Player whose rank is being stored
+     * @param rank Rank to store
+     *
+     * @return The rank that was already resident, or null if the provided rank was stored
+     */
+    PermissionRank putIfAbsent(UUID playerUUID, PermissionRank rank);
+
+    /**
+     * Replaces the player's resident rank, but only if one is resident.
+     *
+     * @param playerUUID Player whose rank is being replaced
+     * @param rank Rank to store
+     *
+     * @return The rank that was replaced, or null if none was resident and nothing was stored
+     */
+    PermissionRank replace(UUID playerUUID, PermissionRank rank);
+
+    /**
+     * Replaces the player's resident rank, but only if it is still the expected one.
+     *
+     * @param playerUUID Player whose rank is being replaced
+     * @param expectedRank Rank that must currently be resident
+     * @param rank Rank to store
+     *
+     * @return True if the rank was replaced
+     */
+    boolean replace(UUID playerUUID, PermissionRank expectedRank, PermissionRank rank);
+
+    /**
+     * Evicts the player's resident rank.
+     *
+     * @param playerUUID Player whose rank is being evicted
+     *
+     * @return The rank that was evicted, or null if none was resident
+     */
+    PermissionRank remove(UUID playerUUID);
+
+    /**
+     * Returns the number of resident ranks.
+     *
+     * @return Number of resident ranks
+     */
+    int size();
+
+    /**
+     * Passes every resident rank to the provided action. Ranks written while this runs may or may not be seen, and
+     * the action must not write to this cache.
+     *
+     * @param action Action receiving each player and their rank
+     */
+    void forEach(BiConsumer<UUID, PermissionRank> action);
+
+    /**
+     * Estimates the memory held by the cache, including capacity reserved for future entries.
+     *
+     * @return Estimated footprint in bytes
+     */
+    long estimateFootprintBytes();
+}
@@ -0,0 +1,214 @@
+package com.pixelsmp.core.permissions;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+public final class RankCacheSnapshot
+{
+    private static final int MAGIC = 0x50524353; // "PRCS"
+    private static final short FORMAT_VERSION = 1;
+
+    // Most significant bits, least significant bits, index into the rank table
+    private static final int RECORD_BYTES = Long.BYTES * 2 + 1;
+
+    private final Map<UUID, PermissionRank> ranks;
+    private final long savedAtMillis;
+
+    private RankCacheSnapshot(Map<UUID, PermissionRank> ranks, long savedAtMillis)
+    {
+        this.ranks = ranks;
+        this.savedAtMillis = savedAtMillis;
+    }
+
+    /**
+     * Writes the provided ranks to a snapshot file. The file starts with a header holding the format version and a
+     * table of rank names, followed by one fixed-width record per player, so a snapshot stays readable when ranks
+     * are added or reordered. The file is written next to its destination and moved into place, so a crash while
+     * saving never leaves a truncated snapshot behind.
+     *
+     * @param file File to write
+     * @param ranks Ranks to save, keyed by player
+     *
+     * @throws IOException If the file could not be written
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public static void save(Path file, Map<UUID, PermissionRank> ranks) throws IOException
+    {
+        PermissionRank[] rankTable = PermissionRank.values();
+        byte[][] rankNames = new byte[rankTable.length][];
+        int headerBytes = Integer.BYTES + Short.BYTES + Long.BYTES + 1 + Integer.BYTES;
+
+        for (int i = 0; i < rankTable.length; i++)
+        {
+            rankNames[i] = rankTable[i].name().getBytes(StandardCharsets.US_ASCII);
+            headerBytes += 1 + rankNames[i].length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(headerBytes + ranks.size() * RECORD_BYTES);
+        buffer.putInt(MAGIC).putShort(FORMAT_VERSION).putLong(System.currentTimeMillis());
+        buffer.put((byte) rankTable.length);
+
+        for (byte[] rankName : rankNames)
+        {
+            buffer.put((byte) rankName.length).put(rankName);
+        }
+
+        buffer.putInt(ranks.size());
+
+        for (Map.Entry<UUID, PermissionRank> entry : ranks.entrySet())
+        {
+            buffer.putLong(entry.getKey().getMostSignificantBits())
+                    .putLong(entry.getKey().getLeastSignificantBits())
+                    .put((byte) entry.getValue().ordinal());
+        }
+
+        buffer.flip();
+
+        Path absoluteFile = file.toAbsolutePath();
+        Path temporaryFile = absoluteFile.resolveSibling(absoluteFile.getFileName() + ".tmp");
+        Files.createDirectories(absoluteFile.getParent());
+
+        try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))
+        {
+            while (buffer.hasRemaining())
+            {
+                channel.write(buffer);
+            }
+
+            channel.force(true);
+        }
+
+        Files.move(temporaryFile, absoluteFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a snapshot file written by {@link #save(Path, Map)}. The file is memory-mapped, so only the pages that
+     * are read are loaded. Records of ranks that no longer exist are skipped.
+     *
+     * @param file File to read
+     *
+     * @return The snapshot, or null if the file does not exist
+     *
+     * @throws IOException If the file could not be read or is not a valid snapshot
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public static RankCacheSnapshot load(Path file) throws IOException
+    {
+        if (!Files.exists(file))
+        {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt() != MAGIC)
+            {
+                throw new IOException(file + " is not a rank cache snapshot!");
+            }
+
+            short formatVersion = buffer.getShort();
+
+            if (formatVersion != FORMAT_VERSION)
+            {
+                throw new IOException(file + " uses unsupported snapshot format " + formatVersion + "!");
+            }
+
+            long savedAtMillis = buffer.getLong();
+
+            // Map the saved rank table onto the current ranks by name, in case ranks were reordered since
+            PermissionRank[] rankTable = new PermissionRank[buffer.get() & 0xFF];
+
+            for (int i = 0; i < rankTable.length; i++)
+            {
+                byte[] rankName = new byte[buffer.get() & 0xFF];
+                buffer.get(rankName);
+
+                rankTable[i] = rankByName(new String(rankName, StandardCharsets.US_ASCII));
+            }
+
+            int recordCount = buffer.getInt();
+
+            if (recordCount < 0 || buffer.remaining() != (long) recordCount * RECORD_BYTES)
+            {
+                throw new IOException(file + " is truncated!");
+            }
+
+            Map<UUID, PermissionRank> ranks = new HashMap<>(recordCount * 2);
+
+            for (int i = 0; i < recordCount; i++)
+            {
+                UUID playerUUID = new UUID(buffer.getLong(), buffer.getLong());
+                int rankIndex = buffer.get() & 0xFF;
+
+                if (rankIndex < rankTable.length && rankTable[rankIndex] != null)
+                {
+                    ranks.put(playerUUID, rankTable[rankIndex]);
+                }
+            }
+
+            return new RankCacheSnapshot(Collections.unmodifiableMap(ranks), savedAtMillis);
+        }
+        catch (BufferUnderflowException e)
+        {
+            throw new IOException(file + " is truncated!", e);
+        }
+    }
+
+    /**
+     * Returns the ranks held by the snapshot.
+     *
+     * @return Unmodifiable map of ranks, keyed by player
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public Map<UUID, PermissionRank> getRanks()
+    {
+        return ranks;
+    }
+
+    /**
+     * Returns the time the snapshot was saved.
+     *
+     * @return Milliseconds since the epoch
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public long getSavedAtMillis()
+    {
+        return savedAtMillis;
+    }
+
+    private static PermissionRank rankByName(String name)
+    {
+        for (PermissionRank rank : PermissionRank.values())
+        {
+            if (rank.name().equals(name))
+            {
+                return rank;
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,70 @@
+package com.pixelsmp.core.permissions;
+
+import java.util.Locale;
+
+public enum RankCacheType
+{
+    /**
+     * Ranks are cached in a ConcurrentHashMap, which costs about 72 bytes of heap per rank.
+     */
+    CONCURRENT,
+
+    /**
+     * Ranks are cached in a {@link PrimitiveRankCache} on the heap, at a fraction of the memory per rank.
+     */
+    PRIMITIVE,
+
+    /**
+     * Ranks are cached in a {@link PrimitiveRankCache} in direct memory, outside the heap entirely.
+     */
+    OFFHEAP;
+
+    /**
+     * Creates an empty rank cache of this type.
+     *
+     * @param expectedSize Number of ranks the cache is expected to hold
+     *
+     * @return The new rank cache
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public RankCache create(int expectedSize)
+    {
+        switch (this)
+        {
+            case PRIMITIVE:
+                return new PrimitiveRankCache(expectedSize, false);
+            case OFFHEAP:
+                return new PrimitiveRankCache(expectedSize, true);
+            default:
+                return new ConcurrentRankCache(expectedSize);
+        }
+    }
+
+    /**
+     * Parses a cache type as written in the configuration file, ignoring case.
+     *
+     * @param type The configured type, for example "concurrent", "primitive" or "offheap"
+     *
+     * @return The matching cache type, CONCURRENT if the value is missing or unknown
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public static RankCacheType fromConfig(String type)
+    {
+        if (type != null)
+        {
+            for (RankCacheType cacheType : values())
+            {
+                if (cacheType.name().equals(type.trim().toUpperCase(Locale.ROOT)))
+                {
+                    return cacheType;
+                }
+            }
+        }
+
+        return CONCURRENT;
+    }
+}
@@ -0,0 +1,82 @@
+package com.pixelsmp.core.permissions;
+
+import java.util.UUID;
+
+public final class RankChange
+{
+    private final long version;
+    private final UUID playerUUID;
+    private final PermissionRank rank;
+    private final long changedAtMillis;
+
+    /**
+     * Initializes a new entry of the rank change log.
+     *
+     * @param version Position of the change in the log; versions only ever increase
+     * @param playerUUID Player whose rank changed
+     * @param rank The rank the player was given
+     * @param changedAtMillis Time of the change, in milliseconds since the epoch
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public RankChange(long version, UUID playerUUID, PermissionRank rank, long changedAtMillis)
+    {
+        this.version = version;
+        this.playerUUID = playerUUID;
+        this.rank = rank;
+        this.changedAtMillis = changedAtMillis;
+    }
+
+    /**
+     * Returns the position of the change in the log.
+     *
+     * @return Version of the change
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public long getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * Returns the player whose rank changed.
+     *
+     * @return Player UUID
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public UUID getPlayerUUID()
+    {
+        return playerUUID;
+    }
+
+    /**
+     * Returns the rank the player was given.
+     *
+     * @return The new rank
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public PermissionRank getRank()
+    {
+        return rank;
+    }
+
+    /**
+     * Returns the time of the change.
+     *
+     * @return Milliseconds since the epoch
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public long getChangedAtMillis()
+    {
+        return changedAtMillis;
+    }
+}
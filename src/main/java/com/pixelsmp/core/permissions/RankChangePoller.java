@@ -0,0 +1,241 @@
+package com.pixelsmp.core.permissions;
+
+import com.pixelsmp.core.chat.ChatFormatter;
+import com.pixelsmp.core.metrics.MetricsSource;
+import com.pixelsmp.core.metrics.PrometheusTextBuilder;
+import org.bukkit.Bukkit;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class RankChangePoller implements MetricsSource
+{
+    // Retention only needs to be enforced roughly, so the log is not purged on every poll
+    private static final long PURGE_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final LongAdder changesApplied = new LongAdder();
+    private final LongAdder pollFailures = new LongAdder();
+    private final ScheduledExecutorService pollScheduler;
+    private final RankStore rankStore;
+    private final long pollIntervalMillis;
+    private final int batchSize;
+    private final long gapTimeoutMillis;
+    private final long retentionMillis;
+
+    // Only touched on the poll thread once polling has started
+    private PermissionOrchestrator orchestrator;
+    private volatile long lastVersion = 0;
+    private long highestAppliedVersion = 0;
+    private long gapVersion = -1;
+    private long gapDetectedAtMillis = 0;
+    private long lastPurgeMillis = 0;
+    private boolean failureLogged = false;
+
+    /**
+     * Initializes a new poller for the rank change log. Each poll reads the changes newer than the last one seen
+     * with a single primary key range scan and applies them to the orchestrator's cache, so a rank changed on
+     * another server sharing the database is picked up within one poll interval.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     *
+     * @param rankStore Store holding the change log
+     * @param pollIntervalMillis Time, in milliseconds, between polls
+     * @param batchSize Maximum number of changes read by a single query
+     * @param gapTimeoutMillis Time, in milliseconds, to wait for a missing version to commit before skipping it
+     * @param retentionMillis Age, in milliseconds, after which changes are deleted from the log
+     */
+    public RankChangePoller(RankStore rankStore, long pollIntervalMillis, int batchSize, long gapTimeoutMillis,
+                            long retentionMillis)
+    {
+        this.rankStore = rankStore;
+        this.pollIntervalMillis = Math.max(1, pollIntervalMillis);
+        this.batchSize = Math.max(1, batchSize);
+        this.gapTimeoutMillis = Math.max(0, gapTimeoutMillis);
+        this.retentionMillis = retentionMillis;
+
+        this.pollScheduler = Executors.newSingleThreadScheduledExecutor(runnable ->
+        {
+            Thread thread = new Thread(runnable, "PixelSMP-Core-RankChangePoller");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    /**
+     * Starts polling from the newest change in the log. Must be called before the orchestrator seeds its cache, so
+     * no change made while seeding can be missed.
+     *
+     * @param orchestrator Orchestrator whose cache the changes are applied to
+     *
+     * @return CompletableFuture that completes once the starting version is known and polling has been scheduled
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public CompletableFuture<Void> start(PermissionOrchestrator orchestrator)
+    {
+        return rankStore.getLatestChangeVersion().thenAccept(version ->
+        {
+            this.orchestrator = orchestrator;
+            this.lastVersion = version;
+            this.highestAppliedVersion = version;
+
+            // A fixed delay rather than rate, so a slow poll is never overlapped by the next one
+            pollScheduler.scheduleWithFixedDelay(this::poll, pollIntervalMillis, pollIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        });
+    }
+
+    /**
+     * Stops polling. A poll that is already running finishes on its own.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public void close()
+    {
+        pollScheduler.shutdownNow();
+    }
+
+    /**
+     * Returns the version of the newest change applied without any earlier version still outstanding.
+     *
+     * @return The last seen change version
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public long getLastVersion()
+    {
+        return lastVersion;
+    }
+
+    /**
+     * Returns the number of changes from the log applied to the cache.
+     *
+     * @return The counter value since the poller was created
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public long getChangesApplied()
+    {
+        return changesApplied.sum();
+    }
+
+    @Override
+    public void collectMetrics(PrometheusTextBuilder builder)
+    {
+        builder.counter("pixelsmp_permission_changes_applied_total",
+                        "Rank changes read from the change log and applied to the cache.", changesApplied.sum())
+                .counter("pixelsmp_permission_change_poll_failures_total", "Polls of the rank change log that failed.",
+                        pollFailures.sum())
+                .gauge("pixelsmp_permission_change_log_version", "Newest change log version seen by this server.",
+                        lastVersion);
+    }
+
+    private void poll()
+    {
+        try
+        {
+            List<RankChange> changes;
+
+            // Keep reading while full batches come back, so a burst of changes is caught up in one poll
+            do
+            {
+                changes = rankStore.loadChangesSince(lastVersion, batchSize).get();
+            }
+            while (apply(changes) && changes.size() == batchSize);
+
+            long now = System.currentTimeMillis();
+
+            if (retentionMillis > 0 && now - lastPurgeMillis >= PURGE_INTERVAL_MILLIS)
+            {
+                lastPurgeMillis = now;
+                rankStore.purgeChangesBefore(now - retentionMillis).get();
+            }
+
+            failureLogged = false;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch (Exception e)
+        {
+            pollFailures.increment();
+
+            // Log once per outage rather than on every poll
+            if (!failureLogged)
+            {
+                failureLogged = true;
+                Bukkit.getLogger().warning(ChatFormatter.formatConsoleMessage("Core",
+                        "Failed to poll the rank change log: " + e.getMessage(), true));
+            }
+        }
+    }
+
+    private boolean apply(List<RankChange> changes)
+    {
+        long contiguousVersion = lastVersion;
+        long firstVersionAfterGap = -1;
+
+        // Apply in version order, so the newest change for a player always wins
+        for (RankChange change : changes)
+        {
+            if (firstVersionAfterGap < 0)
+            {
+                if (change.getVersion() == contiguousVersion + 1)
+                {
+                    contiguousVersion = change.getVersion();
+                }
+                else
+                {
+                    firstVersionAfterGap = change.getVersion();
+                }
+            }
+
+            orchestrator.applyRankChange(change.getPlayerUUID(), change.getRank());
+
+            // Changes after a gap are re-applied on every poll until it closes, but only counted once
+            if (change.getVersion() > highestAppliedVersion)
+            {
+                highestAppliedVersion = change.getVersion();
+                changesApplied.increment();
+            }
+        }
+
+        if (firstVersionAfterGap < 0)
+        {
+            lastVersion = contiguousVersion;
+            gapVersion = -1;
+
+            return true;
+        }
+
+        // Versions are handed out before commit, so a missing one may belong to a transaction that has not committed
+        // yet. Stay behind it and re-read what follows until it shows up or, since rolled back and purged versions
+        // never do, until it has been missing for too long.
+        long now = System.currentTimeMillis();
+
+        if (gapVersion != contiguousVersion)
+        {
+            gapVersion = contiguousVersion;
+            gapDetectedAtMillis = now;
+            lastVersion = contiguousVersion;
+        }
+        else if (now - gapDetectedAtMillis >= gapTimeoutMillis)
+        {
+            gapVersion = -1;
+            lastVersion = firstVersionAfterGap - 1;
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,258 @@
+package com.pixelsmp.core.permissions;
+
+import com.pixelsmp.core.chat.ChatFormatter;
+import com.pixelsmp.core.metrics.MetricsSource;
+import com.pixelsmp.core.metrics.PrometheusTextBuilder;
+import org.bukkit.Bukkit;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class RankExpiryScheduler implements MetricsSource
+{
+    private final LongAdder ranksExpired = new LongAdder();
+    private final LongAdder expiryBatches = new LongAdder();
+    private final LongAdder expiryFailures = new LongAdder();
+    private final ScheduledExecutorService expiryScheduler;
+    private final RankStore rankStore;
+    private final RankExpiryWheel wheel;
+    private final long tickMillis;
+    private final long horizonMillis;
+    private final long refreshIntervalMillis;
+    private final int batchSize;
+
+    // Only touched on the expiry thread once expiry has started
+    private PermissionOrchestrator orchestrator;
+    private long lastRefreshMillis = 0;
+    private boolean expiryPending = false;
+    private boolean failureLogged = false;
+
+    /**
+     * Initializes a new scheduler for temporary ranks. Only the ranks expiring within the horizon are read from the
+     * store, and they are kept in a {@link RankExpiryWheel} rather than polled for; the store is only queried again
+     * once the horizon has moved on by the refresh interval, or when ranks are actually due. Due ranks are reverted
+     * together in batches.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     *
+     * @param rankStore Store holding the temporary ranks
+     * @param tickMillis Time, in milliseconds, between advances of the wheel; ranks expire at most this late
+     * @param horizonMillis How far ahead, in milliseconds, expirations are read into memory
+     * @param refreshIntervalMillis Time, in milliseconds, between reads of upcoming expirations
+     * @param batchSize Maximum number of ranks read or reverted by a single query
+     */
+    public RankExpiryScheduler(RankStore rankStore, long tickMillis, long horizonMillis, long refreshIntervalMillis,
+                               int batchSize)
+    {
+        this.rankStore = rankStore;
+        this.tickMillis = Math.max(1, tickMillis);
+        this.horizonMillis = Math.max(this.tickMillis, horizonMillis);
+
+        // A refresh must land before the previous one's horizon runs out
+        this.refreshIntervalMillis = Math.max(1, Math.min(refreshIntervalMillis, this.horizonMillis / 2));
+        this.batchSize = Math.max(1, batchSize);
+        this.wheel = new RankExpiryWheel(this.tickMillis, this.horizonMillis, System.currentTimeMillis());
+
+        this.expiryScheduler = Executors.newSingleThreadScheduledExecutor(runnable ->
+        {
+            Thread thread = new Thread(runnable, "PixelSMP-Core-RankExpiry");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    /**
+     * Reverts every rank that expired while no server was running, reads the upcoming expirations and starts
+     * advancing the wheel. Must be called before the orchestrator seeds its cache, so nobody is seeded with a rank
+     * that has already expired.
+     *
+     * @param orchestrator Orchestrator whose cache reverted ranks are applied to
+     *
+     * @return CompletableFuture that completes once expired ranks have been reverted and expiry has been scheduled
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public CompletableFuture<Void> start(PermissionOrchestrator orchestrator)
+    {
+        return CompletableFuture.runAsync(() ->
+        {
+            this.orchestrator = orchestrator;
+            this.expiryPending = true;
+
+            tick();
+
+            // A fixed delay rather than rate, so a slow batch is never overlapped by the next tick
+            expiryScheduler.scheduleWithFixedDelay(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        }, expiryScheduler);
+    }
+
+    /**
+     * Stops expiring ranks. A batch that is already running finishes on its own.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public void close()
+    {
+        expiryScheduler.shutdownNow();
+    }
+
+    /**
+     * Schedules the expiry of a temporary rank written through this server. Expirations beyond the horizon are left
+     * to a later refresh.
+     *
+     * @param playerUUID Player whose rank expires
+     * @param expiresAtMillis Time the rank expires, in milliseconds since the epoch
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public void schedule(UUID playerUUID, long expiresAtMillis)
+    {
+        if (expiresAtMillis < System.currentTimeMillis() + horizonMillis)
+        {
+            synchronized (wheel)
+            {
+                wheel.schedule(playerUUID, expiresAtMillis);
+            }
+        }
+    }
+
+    /**
+     * Cancels the scheduled expiry of a player whose rank was made permanent through this server.
+     *
+     * @param playerUUID Player whose rank no longer expires
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public void cancel(UUID playerUUID)
+    {
+        synchronized (wheel)
+        {
+            wheel.cancel(playerUUID);
+        }
+    }
+
+    /**
+     * Returns the number of temporary ranks reverted by this server.
+     *
+     * @return The counter value since the scheduler was created
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public long getRanksExpired()
+    {
+        return ranksExpired.sum();
+    }
+
+    @Override
+    public void collectMetrics(PrometheusTextBuilder builder)
+    {
+        int scheduled;
+
+        synchronized (wheel)
+        {
+            scheduled = wheel.size();
+        }
+
+        builder.gauge("pixelsmp_permission_expiry_scheduled", "Temporary rank expirations held in the timing wheel.",
+                        scheduled)
+                .counter("pixelsmp_permission_ranks_expired_total",
+                        "Temporary ranks reverted to their fallback rank by this server.", ranksExpired.sum())
+                .counter("pixelsmp_permission_expiry_batches_total", "Batches of due ranks sent to the rank store.",
+                        expiryBatches.sum())
+                .counter("pixelsmp_permission_expiry_failures_total",
+                        "Refreshes or expiry batches that failed and will be retried.", expiryFailures.sum());
+    }
+
+    private void tick()
+    {
+        try
+        {
+            long now = System.currentTimeMillis();
+
+            if (now - lastRefreshMillis >= refreshIntervalMillis)
+            {
+                refresh(now);
+                lastRefreshMillis = now;
+            }
+
+            synchronized (wheel)
+            {
+                expiryPending |= !wheel.advance(now).isEmpty();
+            }
+
+            // Every due rank is reverted by one query per batch, whichever players the wheel handed back
+            while (expiryPending)
+            {
+                Map<UUID, PermissionRank> reverted = rankStore.expireRanks(now, batchSize).get();
+
+                expiryBatches.increment();
+                ranksExpired.add(reverted.size());
+                orchestrator.applyExpiredRanks(reverted);
+
+                expiryPending = reverted.size() == batchSize;
+            }
+
+            failureLogged = false;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch (Exception e)
+        {
+            expiryFailures.increment();
+
+            // Log once per outage rather than on every tick; a pending batch is retried on the next one
+            if (!failureLogged)
+            {
+                failureLogged = true;
+                Bukkit.getLogger().warning(ChatFormatter.formatConsoleMessage("Core",
+                        "Failed to expire temporary ranks: " + e.getMessage(), true));
+            }
+        }
+    }
+
+    private void refresh(long now) throws Exception
+    {
+        // Picks up ranks made temporary on other servers, and anything the wheel lost to a failed batch
+        long afterExpiresAtMillis = Long.MIN_VALUE;
+        UUID afterPlayerUUID = null;
+
+        // Page through the whole horizon, so a rank given to thousands of players at once is not read piecemeal
+        // over later refreshes and expired late
+        while (true)
+        {
+            Map<UUID, Long> expirations = rankStore.loadExpiringBefore(now + horizonMillis, afterExpiresAtMillis,
+                    afterPlayerUUID, batchSize).get();
+
+            synchronized (wheel)
+            {
+                expirations.forEach(wheel::schedule);
+            }
+
+            if (expirations.size() < batchSize)
+            {
+                return;
+            }
+
+            // Resume after the last rank of this page
+            for (Map.Entry<UUID, Long> expiration : expirations.entrySet())
+            {
+                afterPlayerUUID = expiration.getKey();
+                afterExpiresAtMillis = expiration.getValue();
+            }
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.pixelsmp.core.permissions;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public final class RankExpiryWheel
+{
+    // 64 slots per level; each level's slot spans a whole turn of the level below it
+    private static final int SLOT_BITS = 6;
+    private static final int SLOT_COUNT = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOT_COUNT - 1;
+
+    private final Map<UUID, Entry> entries = new HashMap<>();
+    private final long tickMillis;
+    private final int levels;
+
+    // Indexed by level, then slot; each slot is the head of a singly linked list of entries
+    private final Entry[][] slots;
+
+    // Every tick up to and including this one has been processed
+    private long currentTick;
+
+    /**
+     * Initializes a new hierarchical timing wheel for rank expirations. Scheduling and cancelling an expiration take
+     * constant time, and advancing the wheel by one tick only touches the entries due in it, plus, once per turn of
+     * a level, the entries cascading down from the level above. A wheel holding tens of thousands of expirations
+     * therefore costs next to nothing on ticks where none are due.
+     *
+     * @param tickMillis Resolution of the wheel in milliseconds; expirations fire at most this late
+     * @param horizonMillis Furthest ahead, in milliseconds, that expirations are scheduled; the wheel grows enough
+     *                      levels to cover it, and anything later is held in the top level until it comes in range
+     * @param nowMillis The current time, in milliseconds since the epoch
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public RankExpiryWheel(long tickMillis, long horizonMillis, long nowMillis)
+    {
+        this.tickMillis = Math.max(1, tickMillis);
+
+        long horizonTicks = Math.max(1, horizonMillis / this.tickMillis);
+        int levelCount = 1;
+
+        while (levelCount < 63 / SLOT_BITS && horizonTicks >= span(levelCount))
+        {
+            levelCount++;
+        }
+
+        this.levels = levelCount;
+        this.slots = new Entry[levels][SLOT_COUNT];
+        this.currentTick = nowMillis / this.tickMillis;
+    }
+
+    /**
+     * Schedules the player's rank to expire at the given time, replacing any expiration already scheduled for them.
+     * An expiration in the past fires on the next tick.
+     *
+     * @param playerUUID Player whose rank expires
+     * @param expiresAtMillis Time the rank expires, in milliseconds since the epoch
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public void schedule(UUID playerUUID, long expiresAtMillis)
+    {
+        // Round up, so an expiration never fires before its time
+        long deadlineTick = Math.max(currentTick + 1, Math.floorDiv(expiresAtMillis + tickMillis - 1, tickMillis));
+        Entry existing = entries.get(playerUUID);
+
+        if (existing != null)
+        {
+            if (existing.deadlineTick == deadlineTick)
+            {
+                return;
+            }
+
+            // Unlinking would need a walk of the slot, so the old entry is just skipped when its slot comes up
+            existing.cancelled = true;
+        }
+
+        Entry entry = new Entry(playerUUID, deadlineTick);
+        entries.put(playerUUID, entry);
+        place(entry);
+    }
+
+    /**
+     * Cancels the expiration scheduled for the player, if any.
+     *
+     * @param playerUUID Player whose rank no longer expires
+     *
+     * @return True if an expiration was scheduled
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public boolean cancel(UUID playerUUID)
+    {
+        Entry entry = entries.remove(playerUUID);
+
+        if (entry == null)
+        {
+            return false;
+        }
+
+        entry.cancelled = true;
+
+        return true;
+    }
+
+    /**
+     * Advances the wheel to the given time and returns every player whose rank expired since the last advance.
+     *
+     * @param nowMillis The current time, in milliseconds since the epoch
+     *
+     * @return The players whose ranks are due, earliest tick first
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public List<UUID> advance(long nowMillis)
+    {
+        List<UUID> due = new ArrayList<>();
+        long targetTick = nowMillis / tickMillis;
+
+        while (currentTick < targetTick)
+        {
+            currentTick++;
+
+            // Higher levels first, so entries cascading through several levels at once land in the right slot
+            for (int level = levels - 1; level > 0; level--)
+            {
+                if ((currentTick & (span(level) - 1)) == 0)
+                {
+                    cascade(level);
+                }
+            }
+
+            int slot = (int) (currentTick & SLOT_MASK);
+            Entry entry = slots[0][slot];
+            slots[0][slot] = null;
+
+            for (; entry != null; entry = entry.next)
+            {
+                if (!entry.cancelled)
+                {
+                    entries.remove(entry.playerUUID);
+                    due.add(entry.playerUUID);
+                }
+            }
+        }
+
+        return due;
+    }
+
+    /**
+     * Returns the number of scheduled expirations.
+     *
+     * @return Number of scheduled expirations
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public int size()
+    {
+        return entries.size();
+    }
+
+    private void cascade(int level)
+    {
+        int slot = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        Entry entry = slots[level][slot];
+        slots[level][slot] = null;
+
+        while (entry != null)
+        {
+            Entry next = entry.next;
+
+            if (!entry.cancelled)
+            {
+                place(entry);
+            }
+
+            entry = next;
+        }
+    }
+
+    private void place(Entry entry)
+    {
+        long delta = Math.max(0, entry.deadlineTick - currentTick);
+        int level = 0;
+
+        while (level < levels - 1 && delta >= span(level + 1))
+        {
+            level++;
+        }
+
+        // Beyond the top level's reach; park it in the furthest slot and let the cascade place it again later
+        long slotTick = delta >= span(levels) ? currentTick + span(levels) - 1 : entry.deadlineTick;
+        int slot = (int) ((slotTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+
+        entry.next = slots[level][slot];
+        slots[level][slot] = entry;
+    }
+
+    private static long span(int level)
+    {
+        // Ticks covered by the given number of levels
+        return 1L << (SLOT_BITS * level);
+    }
+
+    private static final class Entry
+    {
+        private final UUID playerUUID;
+        private final long deadlineTick;
+        private Entry next;
+        private boolean cancelled;
+
+        private Entry(UUID playerUUID, long deadlineTick)
+        {
+            this.playerUUID = playerUUID;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
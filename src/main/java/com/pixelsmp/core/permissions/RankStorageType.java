@@ -0,0 +1,47 @@
+package com.pixelsmp.core.permissions;
+
+import java.util.Locale;
+
+public enum RankStorageType
+{
+    /**
+     * Ranks are stored on the MySQL server configured under mysql.*, shared by every server connected to it.
+     */
+    MYSQL,
+
+    /**
+     * Ranks are stored in an H2 database file on local disk, for single-node servers.
+     */
+    EMBEDDED,
+
+    /**
+     * Ranks are kept in memory only and are lost when the server stops, for test and throwaway servers.
+     */
+    MEMORY;
+
+    /**
+     * Parses a storage type as written in the configuration file, ignoring case.
+     *
+     * @param type The configured type, for example "mysql", "embedded" or "memory"
+     *
+     * @return The matching storage type, MYSQL if the value is missing or unknown
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public static RankStorageType fromConfig(String type)
+    {
+        if (type != null)
+        {
+            for (RankStorageType storageType : values())
+            {
+                if (storageType.name().equals(type.trim().toUpperCase(Locale.ROOT)))
+                {
+                    return storageType;
+                }
+            }
+        }
+
+        return MYSQL;
+    }
+}
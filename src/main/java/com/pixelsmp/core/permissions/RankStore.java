@@ -0,0 +1,130 @@
+package com.pixelsmp.core.permissions;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+/**
+ * Durable storage for player ranks. The orchestrator's cache, batch loader and write-behind queue all sit on top of
+ * a store, so the same code runs against a remote MySQL server, an embedded database file or plain memory.
+ *
+ * @author Bradley Hooten (bradleyah02@gmail.com)
+ * @since 1.2.0
+ */
+public interface RankStore
+{
+    /**
+     * Prepares the store for use, for example by creating its tables.
+     *
+     * @return CompletableFuture that completes once the store is ready
+     */
+    CompletableFuture<Void> initialize();
+
+    /**
+     * Loads the stored ranks of the provided players.
+     *
+     * @param playerUUIDs Players to load ranks for
+     *
+     * @return CompletableFuture-wrapped map of every player that has a stored rank
+     */
+    CompletableFuture<Map<UUID, PermissionRank>> loadRanks(Collection<UUID> playerUUIDs);
+
+    /**
+     * Stores a single player's rank.
+     *
+     * @param playerUUID Player whose rank is being written
+     * @param rank Rank to write
+     *
+     * @return CompletableFuture-wrapped boolean indicating success or failure
+     */
+    CompletableFuture<Boolean> saveRank(UUID playerUUID, PermissionRank rank);
+
+    /**
+     * Stores many players' ranks as a single unit: either every rank is written or none are.
+     *
+     * @param ranks Ranks to write, keyed by player
+     *
+     * @return CompletableFuture that completes once the ranks are durable
+     */
+    CompletableFuture<Void> saveRanks(Map<UUID, PermissionRank> ranks);
+
+    /**
+     * Stores a rank that expires at the provided time. When it expires, the player reverts to the rank they held
+     * before their first temporary rank, or MEMBER if they had none. Storing a permanent rank through
+     * {@link #saveRank(UUID, PermissionRank)} or {@link #saveRanks(Map)} clears the expiry.
+     *
+     * @param playerUUID Player whose rank is being written
+     * @param rank Rank to write
+     * @param expiresAtMillis Time the rank expires, in milliseconds since the epoch
+     *
+     * @return CompletableFuture-wrapped boolean indicating success or failure
+     */
+    CompletableFuture<Boolean> saveTemporaryRank(UUID playerUUID, PermissionRank rank, long expiresAtMillis);
+
+    /**
+     * Loads a page of the temporary ranks expiring before the provided time, soonest first, including any already
+     * expired. Ranks expiring at the same time are ordered by player, comparing their UUIDs as unsigned bytes, and a
+     * page resumes right after the last rank of the one before it, so paging never skips or repeats a rank.
+     *
+     * @param timestampMillis Exclusive upper bound, in milliseconds since the epoch
+     * @param afterExpiresAtMillis Expiry of the last rank on the previous page, or Long.MIN_VALUE for the first page
+     * @param afterPlayerUUID Player of the last rank on the previous page, or null for the first page
+     * @param limit Maximum number of ranks to load
+     *
+     * @return CompletableFuture-wrapped map of player to the time their rank expires, iterated in page order
+     */
+    CompletableFuture<Map<UUID, Long>> loadExpiringBefore(long timestampMillis, long afterExpiresAtMillis,
+                                                          UUID afterPlayerUUID, int limit);
+
+    /**
+     * Reverts the temporary ranks that have expired by the provided time to their fallback ranks, as a single
+     * unit. Safe to call from several servers at once; each expired rank is reverted exactly once.
+     *
+     * @param timestampMillis Ranks expiring at or before this time, in milliseconds since the epoch, are reverted
+     * @param limit Maximum number of ranks to revert
+     *
+     * @return CompletableFuture-wrapped map of every reverted player to their fallback rank
+     */
+    CompletableFuture<Map<UUID, PermissionRank>> expireRanks(long timestampMillis, int limit);
+
+    /**
+     * Streams every stored player whose rank is at or above the provided rank, with backpressure.
+     *
+     * @param minimumRank The lowest rank to include
+     * @param fetchSize Number of players read from storage at a time
+     *
+     * @return Single-subscriber publisher of player UUIDs and their stored ranks
+     */
+    Flow.Publisher<Map.Entry<UUID, PermissionRank>> streamPlayersWithRankAtLeast(PermissionRank minimumRank,
+                                                                                 int fetchSize);
+
+    /**
+     * Returns the version of the newest entry in the rank change log, or 0 if the log is empty or the store keeps
+     * no log. Polling from this version onwards sees every change made after the call.
+     *
+     * @return CompletableFuture-wrapped latest change version
+     */
+    CompletableFuture<Long> getLatestChangeVersion();
+
+    /**
+     * Loads the entries of the rank change log newer than the provided version, oldest first.
+     *
+     * @param version Version of the newest change already seen
+     * @param limit Maximum number of changes to load
+     *
+     * @return CompletableFuture-wrapped list of changes, empty if the store keeps no log
+     */
+    CompletableFuture<List<RankChange>> loadChangesSince(long version, int limit);
+
+    /**
+     * Deletes the entries of the rank change log made before the provided time.
+     *
+     * @param timestampMillis Changes older than this, in milliseconds since the epoch, are deleted
+     *
+     * @return CompletableFuture-wrapped number of deleted changes
+     */
+    CompletableFuture<Integer> purgeChangesBefore(long timestampMillis);
+}
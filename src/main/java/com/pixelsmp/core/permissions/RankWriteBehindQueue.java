@@ -0,0 +1,251 @@
+package com.pixelsmp.core.permissions;
+
+import com.pixelsmp.core.chat.ChatFormatter;
+import org.bukkit.Bukkit;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class RankWriteBehindQueue
+{
+    private final ConcurrentHashMap<UUID, PendingWrite> _pendingWrites = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushQueued = new AtomicBoolean(false);
+    private final ScheduledExecutorService flushScheduler;
+    private final RankStore rankStore;
+    private final int batchSize;
+
+    private CompletableFuture<Void> flushChain = CompletableFuture.completedFuture(null);
+    private volatile boolean closed = false;
+
+    /**
+     * Initializes a new write-behind queue for player ranks. Writes are coalesced per player, so only the most
+     * recent rank for a player is written, and flushed to the store in batches whenever the queue reaches the batch
+     * size or the flush interval elapses, whichever happens first.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     *
+     * @param rankStore Store the batches are written to
+     * @param batchSize Maximum number of rows written per batch; reaching it triggers an early flush
+     * @param flushIntervalMillis Interval, in milliseconds, between time-triggered flushes
+     */
+    public RankWriteBehindQueue(RankStore rankStore, int batchSize, long flushIntervalMillis)
+    {
+        this.rankStore = rankStore;
+        this.batchSize = Math.max(1, batchSize);
+
+        this.flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable ->
+        {
+            Thread thread = new Thread(runnable, "PixelSMP-Core-RankWriteBehind");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+        this.flushScheduler.scheduleAtFixedRate(() ->
+        {
+            if (!_pendingWrites.isEmpty())
+            {
+                flush();
+            }
+        }, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues a rank write for the provided player. If a write for the player is already pending, its rank is
+     * replaced and both callers share the same future.
+     *
+     * @param uuid Player whose rank is being written
+     * @param rank Rank to write
+     *
+     * @return CompletableFuture-wrapped boolean that completes once the batch containing the write has committed,
+     *         or fails if the queue has been closed
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public CompletableFuture<Boolean> enqueue(UUID uuid, PermissionRank rank)
+    {
+        // Failed through the future, since callers only handle failures there
+        if (closed)
+        {
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("RankWriteBehindQueue has already been closed!"));
+        }
+
+        // Last write wins; the future is carried over so earlier callers complete with the same batch, unless that
+        // batch is already being written without this rank
+        PendingWrite write = _pendingWrites.compute(uuid, (key, existing) ->
+                new PendingWrite(rank, existing == null || existing.inFlight
+                        ? new CompletableFuture<>() : existing.future, false));
+
+        // Flush early if enough writes have piled up to fill a batch
+        if (_pendingWrites.size() >= batchSize)
+        {
+            flushScheduler.execute(this::flush);
+        }
+
+        return write.future;
+    }
+
+    /**
+     * Returns the rank waiting to be written for the provided player, if any. Reads should consult this before
+     * the database so a player's rank never appears to go backwards while a write is pending.
+     *
+     * @param uuid Player to look up
+     *
+     * @return The pending rank, if a write is queued
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public Optional<PermissionRank> getPendingRank(UUID uuid)
+    {
+        PendingWrite write = _pendingWrites.get(uuid);
+
+        return write == null ? Optional.empty() : Optional.of(write.rank);
+    }
+
+    /**
+     * Flushes every pending write. Flushes are chained so that a write for a player can never be committed before
+     * an earlier write for the same player; at most one flush is waiting behind the one currently running.
+     *
+     * @return CompletableFuture that completes once the flush has finished
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public synchronized CompletableFuture<Void> flush()
+    {
+        // A queued flush has not drained yet, so it will pick up everything that is pending now
+        if (!flushQueued.compareAndSet(false, true))
+        {
+            return flushChain;
+        }
+
+        flushChain = flushChain.handle((result, ex) -> null).thenCompose(ignored -> drainAndWrite());
+
+        return flushChain;
+    }
+
+    /**
+     * Stops the flush timer and performs a final flush, waiting up to the provided timeout for it to commit.
+     *
+     * @param timeoutMillis Maximum time, in milliseconds, to wait for the final flush
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public void close(long timeoutMillis)
+    {
+        closed = true;
+        flushScheduler.shutdownNow();
+
+        try
+        {
+            flush().get(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        catch (Exception e)
+        {
+            Bukkit.getLogger().severe(ChatFormatter.formatConsoleMessage("Core",
+                    "Failed to flush pending rank writes during shutdown: " + e.getMessage(), true));
+        }
+    }
+
+    private CompletableFuture<Void> drainAndWrite()
+    {
+        flushQueued.set(false);
+
+        // Mark each entry in flight atomically rather than removing it, so its rank is still served until the batch
+        // commits; writes arriving mid-drain replace the marked entry and wait for the next flush
+        List<UUID> drainedUUIDs = new ArrayList<>(_pendingWrites.size());
+        List<PendingWrite> drainedWrites = new ArrayList<>(_pendingWrites.size());
+
+        for (Map.Entry<UUID, PendingWrite> entry : _pendingWrites.entrySet())
+        {
+            PendingWrite write = entry.getValue();
+
+            if (write.inFlight)
+            {
+                continue;
+            }
+
+            PendingWrite inFlightWrite = new PendingWrite(write.rank, write.future, true);
+
+            if (_pendingWrites.replace(entry.getKey(), write, inFlightWrite))
+            {
+                drainedUUIDs.add(entry.getKey());
+                drainedWrites.add(inFlightWrite);
+            }
+        }
+
+        List<CompletableFuture<?>> batches = new ArrayList<>();
+
+        for (int start = 0; start < drainedWrites.size(); start += batchSize)
+        {
+            int end = Math.min(start + batchSize, drainedWrites.size());
+            batches.add(writeBatch(drainedUUIDs.subList(start, end), drainedWrites.subList(start, end)));
+        }
+
+        return CompletableFuture.allOf(batches.toArray(new CompletableFuture[0]));
+    }
+
+    private CompletableFuture<Void> writeBatch(List<UUID> uuids, List<PendingWrite> writes)
+    {
+        Map<UUID, PermissionRank> ranks = new LinkedHashMap<>(writes.size() * 2);
+
+        for (int i = 0; i < writes.size(); i++)
+        {
+            ranks.put(uuids.get(i), writes.get(i).rank);
+        }
+
+        return rankStore.saveRanks(ranks).handle((result, ex) ->
+        {
+            if (ex != null)
+            {
+                Bukkit.getLogger().severe(ChatFormatter.formatConsoleMessage("Core",
+                        "Failed to write a batch of " + writes.size() + " player ranks: " + ex.getMessage(),
+                        true));
+            }
+
+            // Drop the entries only now, and only those no newer write has replaced, so the batch's ranks never
+            // disappear from getPendingRank() before the store holds them
+            for (int i = 0; i < writes.size(); i++)
+            {
+                _pendingWrites.remove(uuids.get(i), writes.get(i));
+            }
+
+            // The batch is committed (or rolled back) as a unit, so every write shares its outcome
+            for (PendingWrite write : writes)
+            {
+                write.future.complete(ex == null);
+            }
+
+            return null;
+        });
+    }
+
+    private static final class PendingWrite
+    {
+        private final PermissionRank rank;
+        private final CompletableFuture<Boolean> future;
+        private final boolean inFlight;
+
+        private PendingWrite(PermissionRank rank, CompletableFuture<Boolean> future, boolean inFlight)
+        {
+            this.rank = rank;
+            this.future = future;
+            this.inFlight = inFlight;
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package com.pixelsmp.core.permissions;
+
+import com.pixelsmp.core.database.sql.SQLConnectionManager;
+import com.pixelsmp.core.database.sql.SQLMigrator;
+import com.pixelsmp.core.database.sql.SQLPriority;
+import com.pixelsmp.core.database.sql.SQLStatement;
+import com.pixelsmp.core.util.UUIDUtils;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+public class SQLRankStore implements RankStore
+{
+    private final SQLConnectionManager sqlConnectionManager;
+    private final int maxBatchSize;
+    private final boolean changeLogEnabled;
+    private final SQLStatement[] batchStatements;
+
+    /**
+     * Initializes a new rank store on a SQL database that keeps no change log. The statements are written for
+     * MySQL and also run unchanged on an embedded H2 database in MySQL mode.
+     *
+     * @param sqlConnectionManager Connection manager holding the permissions table
+     * @param maxBatchSize Maximum number of players looked up by a single query
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public SQLRankStore(SQLConnectionManager sqlConnectionManager, int maxBatchSize)
+    {
+        this(sqlConnectionManager, maxBatchSize, false);
+    }
+
+    /**
+     * Initializes a new rank store on a SQL database. When the change log is enabled, every rank write also appends
+     * to the core_permission_changes table in the same transaction, so other servers sharing the database can
+     * refresh their caches with a {@link RankChangePoller}.
+     *
+     * @param sqlConnectionManager Connection manager holding the permissions table
+     * @param maxBatchSize Maximum number of players looked up by a single query
+     * @param changeLogEnabled Whether rank writes are recorded in the change log
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public SQLRankStore(SQLConnectionManager sqlConnectionManager, int maxBatchSize, boolean changeLogEnabled)
+    {
+        this.sqlConnectionManager = sqlConnectionManager;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.changeLogEnabled = changeLogEnabled;
+
+        // IN (...) lists are padded up to a power of two, so only a handful of distinct statements ever exist
+        List<SQLStatement> statements = new ArrayList<>();
+
+        for (int size = 1; ; size = Math.min(size << 1, this.maxBatchSize))
+        {
+            statements.add(PermissionStatements.selectRanks(size));
+
+            if (size == this.maxBatchSize)
+            {
+                break;
+            }
+        }
+
+        this.batchStatements = statements.toArray(new SQLStatement[0]);
+    }
+
+    @Override
+    public CompletableFuture<Void> initialize()
+    {
+        // The change log table is created either way, so it is already there if the log is enabled later
+        return new SQLMigrator(sqlConnectionManager, PermissionMigrations.ALL).migrate().thenApply(result -> null);
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, PermissionRank>> loadRanks(Collection<UUID> playerUUIDs)
+    {
+        List<UUID> remaining = new ArrayList<>(playerUUIDs);
+        List<CompletableFuture<Map<UUID, PermissionRank>>> chunks = new ArrayList<>();
+
+        for (int start = 0; start < remaining.size(); start += maxBatchSize)
+        {
+            chunks.add(queryChunk(remaining.subList(start, Math.min(start + maxBatchSize, remaining.size()))));
+        }
+
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).thenApply(ignored ->
+        {
+            Map<UUID, PermissionRank> ranks = new HashMap<>();
+
+            for (CompletableFuture<Map<UUID, PermissionRank>> chunk : chunks)
+            {
+                ranks.putAll(chunk.join());
+            }
+
+            return ranks;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> saveRank(UUID playerUUID, PermissionRank rank)
+    {
+        if (!changeLogEnabled)
+        {
+            return sqlConnectionManager.executeUpdateAsync(PermissionStatements.UPSERT_RANK,
+                    UUIDUtils.toBytes(playerUUID), rank.getId()).thenApply(result -> result > 0);
+        }
+
+        return sqlConnectionManager.executeTransactionAsync(SQLPriority.INTERACTIVE, "permissions.saveRank",
+                transaction ->
+                {
+                    byte[] playerUUIDBytes = UUIDUtils.toBytes(playerUUID);
+                    int result = transaction.executeUpdate(PermissionStatements.UPSERT_RANK, playerUUIDBytes,
+                            rank.getId());
+                    transaction.executeUpdate(PermissionStatements.INSERT_CHANGE, playerUUIDBytes, rank.getId(),
+                            System.currentTimeMillis());
+
+                    return result > 0;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Void> saveRanks(Map<UUID, PermissionRank> ranks)
+    {
+        // Nothing to write, so don't take a connection for an empty transaction
+        if (ranks.isEmpty())
+        {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        List<Object[]> parameterSets = new ArrayList<>(ranks.size());
+
+        ranks.forEach((playerUUID, rank) ->
+                parameterSets.add(new Object[]{UUIDUtils.toBytes(playerUUID), rank.getId()}));
+
+        if (!changeLogEnabled)
+        {
+            return sqlConnectionManager.executeBatchAsync(PermissionStatements.UPSERT_RANK, parameterSets)
+                    .thenApply(result -> null);
+        }
+
+        // The log rows share the upserts' transaction, so another server can never see one without the other
+        Long changedAtMillis = System.currentTimeMillis();
+        List<Object[]> changeSets = new ArrayList<>(parameterSets.size());
+
+        for (Object[] parameters : parameterSets)
+        {
+            changeSets.add(new Object[]{parameters[0], parameters[1], changedAtMillis});
+        }
+
+        return sqlConnectionManager.executeTransactionAsync(SQLPriority.INTERACTIVE, "permissions.saveRanks",
+                transaction ->
+                {
+                    transaction.executeBatch(PermissionStatements.UPSERT_RANK, parameterSets);
+                    transaction.executeBatch(PermissionStatements.INSERT_CHANGE, changeSets);
+
+                    return null;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> saveTemporaryRank(UUID playerUUID, PermissionRank rank, long expiresAtMillis)
+    {
+        return sqlConnectionManager.executeTransactionAsync(SQLPriority.INTERACTIVE, "permissions.saveTemporaryRank",
+                transaction ->
+                {
+                    byte[] playerUUIDBytes = UUIDUtils.toBytes(playerUUID);
+                    int result = transaction.executeUpdate(PermissionStatements.UPSERT_TEMPORARY_RANK,
+                            playerUUIDBytes, rank.getId(), expiresAtMillis, PermissionRank.MEMBER.getId());
+
+                    if (changeLogEnabled)
+                    {
+                        transaction.executeUpdate(PermissionStatements.INSERT_CHANGE, playerUUIDBytes, rank.getId(),
+                                System.currentTimeMillis());
+                    }
+
+                    return result > 0;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, Long>> loadExpiringBefore(long timestampMillis, long afterExpiresAtMillis,
+                                                                 UUID afterPlayerUUID, int limit)
+    {
+        // On the first page the player is NULL, which no tie matches; every rank after Long.MIN_VALUE does anyway
+        byte[] afterPlayerBytes = afterPlayerUUID == null ? null : UUIDUtils.toBytes(afterPlayerUUID);
+
+        return sqlConnectionManager.executeQueryAsync(PermissionStatements.SELECT_EXPIRING, rs ->
+        {
+            Map<UUID, Long> expirations = new LinkedHashMap<>();
+
+            while (rs.next())
+            {
+                expirations.put(UUIDUtils.fromBytes(rs.getBytes("player_uuid")), rs.getLong("expires_at"));
+            }
+
+            return expirations;
+        }, timestampMillis, afterExpiresAtMillis, afterExpiresAtMillis, afterPlayerBytes, limit);
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, PermissionRank>> expireRanks(long timestampMillis, int limit)
+    {
+        return sqlConnectionManager.executeTransactionAsync(SQLPriority.INTERACTIVE, "permissions.expireRanks",
+                transaction ->
+                {
+                    List<Object[]> expired = transaction.executeQuery(PermissionStatements.SELECT_EXPIRED_FOR_UPDATE,
+                            rs ->
+                            {
+                                List<Object[]> rows = new ArrayList<>();
+
+                                while (rs.next())
+                                {
+                                    rows.add(new Object[]{rs.getBytes("player_uuid"), rs.getLong("expires_at"),
+                                            rs.getInt("fallback_rank_id")});
+                                }
+
+                                return rows;
+                            }, timestampMillis, limit);
+
+                    Map<UUID, PermissionRank> reverted = new HashMap<>();
+
+                    if (expired.isEmpty())
+                    {
+                        return reverted;
+                    }
+
+                    // The rows are locked, so every update applies; expires_at is matched anyway as a safeguard
+                    List<Object[]> expireSets = new ArrayList<>(expired.size());
+                    List<Object[]> changeSets = new ArrayList<>(expired.size());
+                    Long changedAtMillis = System.currentTimeMillis();
+
+                    for (Object[] row : expired)
+                    {
+                        expireSets.add(new Object[]{row[0], row[1]});
+                        changeSets.add(new Object[]{row[0], row[2], changedAtMillis});
+                        reverted.put(UUIDUtils.fromBytes((byte[]) row[0]), PermissionRank.fromId((Integer) row[2]));
+                    }
+
+                    transaction.executeBatch(PermissionStatements.EXPIRE_RANK, expireSets);
+
+                    if (changeLogEnabled)
+                    {
+                        transaction.executeBatch(PermissionStatements.INSERT_CHANGE, changeSets);
+                    }
+
+                    return reverted;
+                });
+    }
+
+    @Override
+    public Flow.Publisher<Map.Entry<UUID, PermissionRank>> streamPlayersWithRankAtLeast(PermissionRank minimumRank,
+                                                                                        int fetchSize)
+    {
+        PermissionRank[] ranks = PermissionRank.getRanksWithLevelGreaterThan(minimumRank.getPermissionLevel());
+
+        return sqlConnectionManager.streamQueryAsync(PermissionStatements.selectPlayersWithRank(ranks.length),
+                fetchSize, rs -> new AbstractMap.SimpleImmutableEntry<>(UUIDUtils.fromBytes(rs.getBytes("player_uuid")),
+                        PermissionRank.fromId(rs.getInt("rank_id"))),
+                Arrays.stream(ranks).map(PermissionRank::getId).toArray());
+    }
+
+    @Override
+    public CompletableFuture<Long> getLatestChangeVersion()
+    {
+        if (!changeLogEnabled)
+        {
+            return CompletableFuture.completedFuture(0L);
+        }
+
+        return sqlConnectionManager.executeQueryAsync(PermissionStatements.SELECT_LATEST_CHANGE,
+                rs -> rs.next() ? rs.getLong("version") : 0L);
+    }
+
+    @Override
+    public CompletableFuture<List<RankChange>> loadChangesSince(long version, int limit)
+    {
+        if (!changeLogEnabled)
+        {
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+
+        return sqlConnectionManager.executeQueryAsync(PermissionStatements.SELECT_CHANGES_SINCE, rs ->
+        {
+            List<RankChange> changes = new ArrayList<>();
+
+            while (rs.next())
+            {
+                changes.add(new RankChange(rs.getLong("version"), UUIDUtils.fromBytes(rs.getBytes("player_uuid")),
+                        PermissionRank.fromId(rs.getInt("rank_id")), rs.getLong("changed_at")));
+            }
+
+            return changes;
+        }, version, limit);
+    }
+
+    @Override
+    public CompletableFuture<Integer> purgeChangesBefore(long timestampMillis)
+    {
+        if (!changeLogEnabled)
+        {
+            return CompletableFuture.completedFuture(0);
+        }
+
+        return sqlConnectionManager.executeUpdateAsync(PermissionStatements.PURGE_CHANGES, timestampMillis);
+    }
+
+    private CompletableFuture<Map<UUID, PermissionRank>> queryChunk(List<UUID> chunk)
+    {
+        // Pick the smallest padded statement that fits, repeating the last UUID to fill the remaining slots
+        int bucket = 0;
+
+        while (Math.min(1 << bucket, maxBatchSize) < chunk.size())
+        {
+            bucket++;
+        }
+
+        int parameterCount = Math.min(1 << bucket, maxBatchSize);
+        Object[] parameters = new Object[parameterCount];
+
+        for (int i = 0; i < parameterCount; i++)
+        {
+            parameters[i] = UUIDUtils.toBytes(chunk.get(Math.min(i, chunk.size() - 1)));
+        }
+
+        // Logins block on these lookups, so the statements are scheduled ahead of background work
+        return sqlConnectionManager.executeQueryAsync(batchStatements[bucket], rs ->
+        {
+            Map<UUID, PermissionRank> ranks = new HashMap<>();
+
+            while (rs.next())
+            {
+                ranks.put(UUIDUtils.fromBytes(rs.getBytes("player_uuid")), PermissionRank.fromId(rs.getInt("rank_id")));
+            }
+
+            return ranks;
+        }, parameters);
+    }
+}
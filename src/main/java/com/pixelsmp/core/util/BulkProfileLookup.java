@@ -0,0 +1,254 @@
+package com.pixelsmp.core.util;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BulkProfileLookup
+{
+    public static final String DEFAULT_BULK_PROFILE_ENDPOINT =
+            "https://api.minecraftservices.com/minecraft/profile/lookup/bulk/byname";
+
+    private final HttpClient client;
+    private final URI bulkProfileEndpoint;
+    private final Duration requestTimeout;
+    private final long windowMillis;
+    private final int maxNamesPerRequest;
+    private final TokenBucket rateLimiter;
+
+    private final ConcurrentHashMap<String, CompletableFuture<UUID>> _pending = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<String> _queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedCount = new AtomicInteger(0);
+    private final AtomicBoolean dispatchScheduled = new AtomicBoolean(false);
+    private final ScheduledExecutorService dispatchScheduler;
+
+    /**
+     * Initializes a new bulk profile lookup. Names queued within the same window are sent together to the bulk
+     * profile endpoint, in groups of at most maxNamesPerRequest, and requests are paced by the given rate limiter.
+     *
+     * @param client HTTP client used for profile requests
+     * @param bulkProfileEndpoint URL of the bulk endpoint; for example, {@value #DEFAULT_BULK_PROFILE_ENDPOINT}
+     * @param requestTimeoutMillis Timeout, in milliseconds, for a single bulk request
+     * @param windowMillis Time, in milliseconds, to wait for more names before sending a request
+     * @param maxNamesPerRequest Maximum number of names the endpoint accepts per request
+     * @param rateLimiter Token bucket consulted before each request
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public BulkProfileLookup(HttpClient client, String bulkProfileEndpoint, long requestTimeoutMillis,
+                             long windowMillis, int maxNamesPerRequest, TokenBucket rateLimiter)
+    {
+        this.client = client;
+        this.bulkProfileEndpoint = URI.create(bulkProfileEndpoint);
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMillis);
+        this.windowMillis = Math.max(0, windowMillis);
+        this.maxNamesPerRequest = Math.max(1, maxNamesPerRequest);
+        this.rateLimiter = rateLimiter;
+
+        this.dispatchScheduler = Executors.newSingleThreadScheduledExecutor(runnable ->
+        {
+            Thread thread = new Thread(runnable, "PixelSMP-Core-BulkProfileLookup");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    /**
+     * Queues a username for the next bulk request. Callers should check their own caches first; this always goes
+     * to the endpoint, although concurrent lookups of the same name share a slot in the request.
+     *
+     * @param username The username of the player to resolve
+     *
+     * @return The UUID of the player, or null if no player has that name
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public CompletableFuture<UUID> lookup(String username)
+    {
+        String key = username.toLowerCase(Locale.ROOT);
+
+        CompletableFuture<UUID> future = new CompletableFuture<>();
+        CompletableFuture<UUID> existing = _pending.putIfAbsent(key, future);
+
+        if (existing != null)
+        {
+            return existing;
+        }
+
+        _queue.add(key);
+
+        if (queuedCount.incrementAndGet() >= maxNamesPerRequest)
+        {
+            // A full request is ready, there's no reason to wait out the window
+            dispatchScheduler.execute(this::dispatch);
+        }
+        else if (dispatchScheduled.compareAndSet(false, true))
+        {
+            dispatchScheduler.schedule(this::dispatch, windowMillis, TimeUnit.MILLISECONDS);
+        }
+
+        return future;
+    }
+
+    /**
+     * Stops the dispatch thread and fails every lookup that has not been sent yet.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public void close()
+    {
+        dispatchScheduler.shutdownNow();
+
+        IllegalStateException closed = new IllegalStateException("BulkProfileLookup has been closed!");
+        String key;
+
+        while ((key = _queue.poll()) != null)
+        {
+            CompletableFuture<UUID> future = _pending.remove(key);
+
+            if (future != null)
+            {
+                future.completeExceptionally(closed);
+            }
+        }
+    }
+
+    private void dispatch()
+    {
+        dispatchScheduled.set(false);
+
+        while (!_queue.isEmpty())
+        {
+            // Out of tokens -- come back when the next one is due rather than spinning or hitting a 429
+            if (!rateLimiter.tryAcquire())
+            {
+                if (dispatchScheduled.compareAndSet(false, true))
+                {
+                    dispatchScheduler.schedule(this::dispatch, Math.max(1, rateLimiter.nanosUntilNextToken()),
+                            TimeUnit.NANOSECONDS);
+                }
+
+                return;
+            }
+
+            List<String> names = new ArrayList<>(maxNamesPerRequest);
+            String key;
+
+            while (names.size() < maxNamesPerRequest && (key = _queue.poll()) != null)
+            {
+                queuedCount.decrementAndGet();
+                names.add(key);
+            }
+
+            if (!names.isEmpty())
+            {
+                send(names);
+            }
+        }
+    }
+
+    private void send(List<String> names)
+    {
+        JsonArray body = new JsonArray();
+
+        for (String name : names)
+        {
+            body.add(name);
+        }
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(bulkProfileEndpoint)
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenApply(response ->
+        {
+            if (response.statusCode() != 200)
+            {
+                throw new IllegalStateException("Bulk profile lookup failed with HTTP status " +
+                        response.statusCode() + ".");
+            }
+
+            return parseProfiles(response.body());
+        }).whenComplete((profiles, ex) ->
+        {
+            for (String name : names)
+            {
+                CompletableFuture<UUID> future = _pending.remove(name);
+
+                if (future == null)
+                {
+                    continue;
+                }
+
+                if (ex != null)
+                {
+                    future.completeExceptionally(ex);
+                }
+                else
+                {
+                    // Names missing from the response don't belong to any player
+                    future.complete(profiles.get(name));
+                }
+            }
+        });
+    }
+
+    private static Map<String, UUID> parseProfiles(String body)
+    {
+        Map<String, UUID> profiles = new HashMap<>();
+
+        try
+        {
+            JsonElement response = JsonParser.parseString(body);
+
+            if (!response.isJsonArray())
+            {
+                throw new IOException("Expected a JSON array from the bulk profile endpoint.");
+            }
+
+            for (JsonElement element : response.getAsJsonArray())
+            {
+                JsonObject profile = element.getAsJsonObject();
+
+                profiles.put(profile.get("name").getAsString().toLowerCase(Locale.ROOT),
+                        PlayerUtils.parseUndashedUUID(profile.get("id").getAsString()));
+            }
+        }
+        catch (IOException | JsonParseException | IllegalStateException | IllegalArgumentException e)
+        {
+            throw new IllegalStateException("Received a malformed bulk profile response.", e);
+        }
+
+        return profiles;
+    }
+}
@@ -0,0 +1,114 @@
+package com.pixelsmp.core.util;
+
+import java.util.concurrent.TimeUnit;
+
+public final class DurationUtils
+{
+    private DurationUtils()
+    {
+    }
+
+    /**
+     * Parses a duration made of one or more amounts with a unit, such as "30d", "12h" or "1d12h30m". The units are
+     * w (weeks), d (days), h (hours), m (minutes) and s (seconds), in any case.
+     *
+     * @param duration The duration to parse
+     *
+     * @return The duration in milliseconds
+     *
+     * @throws IllegalArgumentException If the duration is empty, malformed, zero or too long
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public static long parseMillis(String duration)
+    {
+        long totalMillis = 0;
+        long amount = -1;
+
+        try
+        {
+            for (int i = 0; i < duration.length(); i++)
+            {
+                char c = duration.charAt(i);
+
+                if (c >= '0' && c <= '9')
+                {
+                    amount = Math.addExact(Math.multiplyExact(Math.max(amount, 0), 10), c - '0');
+                    continue;
+                }
+
+                if (amount < 0)
+                {
+                    throw new IllegalArgumentException("Expected a number before '" + c + "' in " + duration + "!");
+                }
+
+                totalMillis = Math.addExact(totalMillis, Math.multiplyExact(amount, unitMillis(c, duration)));
+                amount = -1;
+            }
+        }
+        catch (ArithmeticException e)
+        {
+            throw new IllegalArgumentException("The duration " + duration + " is too long!");
+        }
+
+        if (amount >= 0 || totalMillis <= 0)
+        {
+            throw new IllegalArgumentException("Invalid duration " + duration + "; use e.g. 30d or 1d12h!");
+        }
+
+        return totalMillis;
+    }
+
+    /**
+     * Formats a duration the way {@link #parseMillis(String)} reads it, down to the minute, such as "1d12h".
+     *
+     * @param millis The duration in milliseconds
+     *
+     * @return The formatted duration, or "0m" for anything under a minute
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public static String format(long millis)
+    {
+        long minutes = TimeUnit.MILLISECONDS.toMinutes(millis);
+        StringBuilder formatted = new StringBuilder();
+
+        if (minutes >= TimeUnit.DAYS.toMinutes(1))
+        {
+            formatted.append(minutes / TimeUnit.DAYS.toMinutes(1)).append('d');
+        }
+
+        if (minutes % TimeUnit.DAYS.toMinutes(1) >= 60)
+        {
+            formatted.append(minutes % TimeUnit.DAYS.toMinutes(1) / 60).append('h');
+        }
+
+        if (minutes % 60 != 0 || formatted.length() == 0)
+        {
+            formatted.append(minutes % 60).append('m');
+        }
+
+        return formatted.toString();
+    }
+
+    private static long unitMillis(char unit, String duration)
+    {
+        switch (Character.toLowerCase(unit))
+        {
+            case 'w':
+                return TimeUnit.DAYS.toMillis(7);
+            case 'd':
+                return TimeUnit.DAYS.toMillis(1);
+            case 'h':
+                return TimeUnit.HOURS.toMillis(1);
+            case 'm':
+                return TimeUnit.MINUTES.toMillis(1);
+            case 's':
+                return TimeUnit.SECONDS.toMillis(1);
+            default:
+                throw new IllegalArgumentException("Unknown unit '" + unit + "' in " + duration + "!");
+        }
+    }
+}
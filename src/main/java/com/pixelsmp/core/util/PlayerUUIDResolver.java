@@ -0,0 +1,408 @@
+package com.pixelsmp.core.util;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.pixelsmp.core.metrics.MetricsSource;
+import com.pixelsmp.core.metrics.PrometheusTextBuilder;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+public class PlayerUUIDResolver implements MetricsSource
+{
+    public static final String DEFAULT_PROFILE_ENDPOINT = "https://api.mojang.com/users/profiles/minecraft/";
+
+    private static final Pattern USERNAME_PATTERN = Pattern.compile("[A-Za-z0-9_]{1,16}");
+
+    private final HttpClient client;
+    private final BulkProfileLookup bulkLookup;
+    private final String profileEndpoint;
+    private final Duration requestTimeout;
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+
+    private final Map<String, CachedLookup> _cache;
+    private final Map<String, Long> _negativeCache;
+    private final ConcurrentHashMap<String, CompletableFuture<UUID>> _inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder onlineHits = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder negativeCacheHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+
+    /**
+     * Initializes a new resolver for player names. Lookups check online players first, then a bounded cache of
+     * recent results, then a negative cache of unknown names, and only then call the profile endpoint. Concurrent
+     * lookups of the same name share a single request.
+     *
+     * @param client HTTP client used for profile requests
+     * @param profileEndpoint Base URL the username is appended to; for example, {@value #DEFAULT_PROFILE_ENDPOINT}
+     * @param requestTimeoutMillis Timeout, in milliseconds, for a single profile request
+     * @param maximumSize Maximum number of names held by each cache
+     * @param ttlMillis Time, in milliseconds, a resolved name is cached
+     * @param negativeTtlMillis Time, in milliseconds, an unknown name is cached
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public PlayerUUIDResolver(HttpClient client, String profileEndpoint, long requestTimeoutMillis, int maximumSize,
+                              long ttlMillis, long negativeTtlMillis)
+    {
+        this(client, null, profileEndpoint, requestTimeoutMillis, maximumSize, ttlMillis, negativeTtlMillis);
+    }
+
+    /**
+     * Initializes a new resolver for player names that sends the misses of {@link #resolveAll(Collection)} through
+     * the given bulk lookup instead of one request per name.
+     *
+     * @param client HTTP client used for profile requests
+     * @param bulkLookup Bulk lookup used by resolveAll, or null to resolve every name individually
+     * @param profileEndpoint Base URL the username is appended to; for example, {@value #DEFAULT_PROFILE_ENDPOINT}
+     * @param requestTimeoutMillis Timeout, in milliseconds, for a single profile request
+     * @param maximumSize Maximum number of names held by each cache
+     * @param ttlMillis Time, in milliseconds, a resolved name is cached
+     * @param negativeTtlMillis Time, in milliseconds, an unknown name is cached
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public PlayerUUIDResolver(HttpClient client, BulkProfileLookup bulkLookup, String profileEndpoint,
+                              long requestTimeoutMillis, int maximumSize, long ttlMillis, long negativeTtlMillis)
+    {
+        this.client = client;
+        this.bulkLookup = bulkLookup;
+        this.profileEndpoint = profileEndpoint.endsWith("/") ? profileEndpoint : profileEndpoint + "/";
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMillis);
+        this.ttlMillis = ttlMillis;
+        this.negativeTtlMillis = negativeTtlMillis;
+        this._cache = createLruMap(maximumSize);
+        this._negativeCache = createLruMap(maximumSize);
+    }
+
+    /**
+     * Resolves the UUID of a player by their username.
+     *
+     * @param username The username of the player to resolve
+     *
+     * @return The UUID of the player, or null if no player has that name
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public CompletableFuture<UUID> resolve(String username)
+    {
+        return resolve(username, false);
+    }
+
+    /**
+     * Resolves the UUIDs of many players at once. Names that miss every cache are batched through the bulk
+     * lookup, if one was configured, and each name still shares any request already running for it.
+     *
+     * @param usernames The usernames of the players to resolve
+     *
+     * @return Map of every username that belongs to a player to its UUID, keyed as passed in
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public CompletableFuture<Map<String, UUID>> resolveAll(Collection<String> usernames)
+    {
+        Map<String, CompletableFuture<UUID>> futures = new LinkedHashMap<>();
+
+        for (String username : usernames)
+        {
+            futures.computeIfAbsent(username, name -> resolve(name, bulkLookup != null));
+        }
+
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])).thenApply(ignored ->
+        {
+            Map<String, UUID> uuids = new LinkedHashMap<>();
+
+            futures.forEach((username, future) ->
+            {
+                UUID uuid = future.join();
+
+                if (uuid != null)
+                {
+                    uuids.put(username, uuid);
+                }
+            });
+
+            return uuids;
+        });
+    }
+
+    private CompletableFuture<UUID> resolve(String username, boolean viaBulkLookup)
+    {
+        // Names that can't exist are never worth a request
+        if (username == null || !USERNAME_PATTERN.matcher(username).matches())
+        {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // An online player with this exact name is authoritative
+        if (Bukkit.getServer() != null)
+        {
+            Player player = Bukkit.getPlayerExact(username);
+
+            if (player != null)
+            {
+                onlineHits.increment();
+                return CompletableFuture.completedFuture(player.getUniqueId());
+            }
+        }
+
+        String key = username.toLowerCase(Locale.ROOT);
+        long now = System.currentTimeMillis();
+
+        CachedLookup cached = _cache.get(key);
+
+        if (cached != null && cached.expiresAt > now)
+        {
+            cacheHits.increment();
+            return CompletableFuture.completedFuture(cached.uuid);
+        }
+
+        Long negativeExpiresAt = _negativeCache.get(key);
+
+        if (negativeExpiresAt != null && negativeExpiresAt > now)
+        {
+            negativeCacheHits.increment();
+            return CompletableFuture.completedFuture(null);
+        }
+
+        misses.increment();
+
+        // Join the request already running for this name, or start one
+        CompletableFuture<UUID> future = new CompletableFuture<>();
+        CompletableFuture<UUID> existing = _inFlight.putIfAbsent(key, future);
+
+        if (existing != null)
+        {
+            return existing;
+        }
+
+        (viaBulkLookup ? bulkLookup.lookup(key) : fetch(key)).whenComplete((uuid, ex) ->
+        {
+            // Cache the answer before leaving the in-flight map, so a lookup arriving in between always finds one
+            // or the other and never sends a second request
+            if (ex == null)
+            {
+                cache(key, uuid);
+            }
+
+            _inFlight.remove(key, future);
+
+            if (ex != null)
+            {
+                future.completeExceptionally(ex);
+            }
+            else
+            {
+                future.complete(uuid);
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Stores a name to UUID mapping in the cache, for example one learned from another source.
+     *
+     * @param username The username of the player
+     * @param uuid The UUID of the player, or null if no player has that name
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public void cache(String username, UUID uuid)
+    {
+        String key = username.toLowerCase(Locale.ROOT);
+        long now = System.currentTimeMillis();
+
+        if (uuid == null)
+        {
+            _negativeCache.put(key, now + negativeTtlMillis);
+        }
+        else
+        {
+            _negativeCache.remove(key);
+            _cache.put(key, new CachedLookup(uuid, now + ttlMillis));
+        }
+    }
+
+    /**
+     * Returns the number of lookups answered by an online player.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     *
+     * @return The counter value since the resolver was created
+     */
+    public long getOnlineHits()
+    {
+        return onlineHits.sum();
+    }
+
+    /**
+     * Returns the number of lookups answered by the cache of resolved names.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     *
+     * @return The counter value since the resolver was created
+     */
+    public long getCacheHits()
+    {
+        return cacheHits.sum();
+    }
+
+    /**
+     * Returns the number of lookups answered by the cache of unknown names.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     *
+     * @return The counter value since the resolver was created
+     */
+    public long getNegativeCacheHits()
+    {
+        return negativeCacheHits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that had to wait on a profile request, including shared ones.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     *
+     * @return The counter value since the resolver was created
+     */
+    public long getMisses()
+    {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of profile requests actually sent.
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     *
+     * @return The counter value since the resolver was created
+     */
+    public long getRequests()
+    {
+        return requests.sum();
+    }
+
+    @Override
+    public void collectMetrics(PrometheusTextBuilder builder)
+    {
+        String help = "Player name lookups, by where they were answered.";
+
+        builder.counter("pixelsmp_profile_lookups_total", help, onlineHits.sum(), "source", "online")
+                .counter("pixelsmp_profile_lookups_total", help, cacheHits.sum(), "source", "cache")
+                .counter("pixelsmp_profile_lookups_total", help, negativeCacheHits.sum(), "source", "negative_cache")
+                .counter("pixelsmp_profile_lookups_total", help, misses.sum(), "source", "remote")
+                .counter("pixelsmp_profile_requests_total", "Single-name profile requests sent.", requests.sum());
+    }
+
+    private CompletableFuture<UUID> fetch(String key)
+    {
+        requests.increment();
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(profileEndpoint + URLEncoder.encode(key, StandardCharsets.UTF_8)))
+                .timeout(requestTimeout)
+                .GET()
+                .build();
+
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenApply(response ->
+        {
+            // Mojang answers unknown names with 204 (older API) or 404 (newer API)
+            if (response.statusCode() == 204 || response.statusCode() == 404)
+            {
+                return null;
+            }
+
+            if (response.statusCode() != 200)
+            {
+                // Rate limits and outages are not evidence the name doesn't exist, so nothing is cached
+                throw new CompletionException(new IOException("Profile lookup for " + key +
+                        " failed with HTTP status " + response.statusCode() + "."));
+            }
+
+            return parseProfileUUID(response.body());
+        });
+    }
+
+    private static UUID parseProfileUUID(String body)
+    {
+        if (body == null || body.isEmpty())
+        {
+            return null; // No data returned
+        }
+
+        try
+        {
+            JsonElement profile = JsonParser.parseString(body);
+
+            if (!profile.isJsonObject() || !profile.getAsJsonObject().has("id"))
+            {
+                return null;
+            }
+
+            return PlayerUtils.parseUndashedUUID(profile.getAsJsonObject().get("id").getAsString());
+        }
+        catch (JsonParseException | IllegalStateException | IllegalArgumentException e)
+        {
+            throw new CompletionException(new IOException("Received a malformed profile response.", e));
+        }
+    }
+
+    private static <V> Map<String, V> createLruMap(int maximumSize)
+    {
+        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest)
+            {
+                return size() > maximumSize;
+            }
+        });
+    }
+
+    private static final class CachedLookup
+    {
+        private final UUID uuid;
+        private final long expiresAt;
+
+        private CachedLookup(UUID uuid, long expiresAt)
+        {
+            this.uuid = uuid;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
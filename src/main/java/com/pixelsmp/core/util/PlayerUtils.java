@@ -1,19 +1,21 @@
 package com.pixelsmp.core.util;
 
-import java.net.URI;
 import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.util.Collection;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
 public class PlayerUtils
 {
     private static final HttpClient client;
+    private static volatile PlayerUUIDResolver resolver;
 
     static
     {
         client = HttpClient.newHttpClient();
+        resolver = new PlayerUUIDResolver(client, PlayerUUIDResolver.DEFAULT_PROFILE_ENDPOINT, 5000, 1000,
+                600000, 60000);
     }
 
     /**
@@ -28,55 +30,82 @@ public class PlayerUtils
      */
     public static CompletableFuture<UUID> fetchUUIDbyNameAsync(String username)
     {
-        String url = "https://api.mojang.com/users/profiles/minecraft/" + username;
-        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(url)).GET().build();
+        return resolver.resolve(username);
+    }
 
-        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenApply(HttpResponse::body).thenApply(body ->
-        {
-            if (body == null || body.isEmpty())
-            {
-                return null; // No data returned
-            }
-            String uuidStr = extractUUID(body);
-            if (uuidStr != null)
-            {
-                return UUID.fromString(insertDashUUID(uuidStr));
-            }
-            return null;
-        });
+    /**
+     * Get the UUIDs of many players by their usernames asynchronously. Names that aren't cached are resolved
+     * through the bulk profile endpoint, several names per request.
+     *
+     * @param usernames The usernames of the players to fetch the UUIDs of
+     *
+     * @return Map of every username that belongs to a player to its UUID
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public static CompletableFuture<Map<String, UUID>> fetchUUIDsByNamesAsync(Collection<String> usernames)
+    {
+        return resolver.resolveAll(usernames);
     }
 
-    private static String extractUUID(String jsonResponse)
+    /**
+     * Returns the HTTP client shared by the player lookups.
+     *
+     * @return Shared HTTP client
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public static HttpClient getHttpClient()
     {
-        // Simplified extraction logic assuming response is a simple JSON with id as a key
-        // Example JSON: {"id":"uuidwithoutdashes","name":"playerName"}
-        // A real implementation should use a JSON parser
-        try
-        {
-            String[] parts = jsonResponse.split("\"");
-            int index = -1;
-            for (int i = 0; i < parts.length; i++)
-            {
-                if ("id".equals(parts[i]))
-                {
-                    index = i + 2;
-                    break;
-                }
-            }
-            if (index != -1 && index < parts.length)
-            {
-                return parts[index];
-            }
-        } catch (Exception e)
-        {
-            e.printStackTrace();
-        }
-        return null;
+        return client;
+    }
+
+    /**
+     * Returns the resolver used for name to UUID lookups.
+     *
+     * @return Name to UUID resolver
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public static PlayerUUIDResolver getResolver()
+    {
+        return resolver;
     }
 
-    private static String insertDashUUID(String uuid)
+    /**
+     * Replaces the resolver used for name to UUID lookups, for example with one built from the configuration.
+     *
+     * @param playerUUIDResolver The resolver to use
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public static void setResolver(PlayerUUIDResolver playerUUIDResolver)
     {
-        // Insert dashes into UUID because the Mojang API returns UUID without dashes
-        return uuid.replaceFirst("(\\p{XDigit}{8})(\\p{XDigit}{4})(\\p{XDigit}{4})(\\p{XDigit}{4})(\\p{XDigit}+)", "$1-$2-$3-$4-$5");
+        resolver = playerUUIDResolver;
+    }
+
+    /**
+     * Parses a UUID written without dashes, as returned by the Mojang API.
+     *
+     * @param uuid The 32 hexadecimal digit UUID
+     *
+     * @return The parsed UUID
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public static UUID parseUndashedUUID(String uuid)
+    {
+        if (uuid == null || uuid.length() != 32)
+        {
+            throw new IllegalArgumentException("Invalid undashed UUID: " + uuid);
+        }
+
+        return new UUID(Long.parseUnsignedLong(uuid.substring(0, 16), 16),
+                Long.parseUnsignedLong(uuid.substring(16), 16));
     }
 }
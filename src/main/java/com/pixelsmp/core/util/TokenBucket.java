@@ -0,0 +1,84 @@
+package com.pixelsmp.core.util;
+
+import java.util.concurrent.TimeUnit;
+
+public class TokenBucket
+{
+    private final long capacity;
+    private final long nanosPerToken;
+
+    private long availableTokens;
+    private long lastRefillNanos;
+
+    /**
+     * Initializes a new token bucket that starts full.
+     *
+     * @param capacity Maximum number of tokens the bucket can hold, i.e. the largest burst allowed
+     * @param refillPerSecond Number of tokens added back to the bucket every second
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public TokenBucket(long capacity, double refillPerSecond)
+    {
+        if (capacity < 1 || refillPerSecond <= 0)
+        {
+            throw new IllegalArgumentException("A token bucket needs a positive capacity and refill rate!");
+        }
+
+        this.capacity = capacity;
+        this.nanosPerToken = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond));
+        this.availableTokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Takes a token from the bucket, if one is available.
+     *
+     * @return True if a token was taken, false if the caller must wait
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public synchronized boolean tryAcquire()
+    {
+        refill();
+
+        if (availableTokens > 0)
+        {
+            availableTokens--;
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns how long the caller has to wait before a token becomes available.
+     *
+     * @return Nanoseconds until the next token, 0 if one is available now
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public synchronized long nanosUntilNextToken()
+    {
+        refill();
+
+        return availableTokens > 0 ? 0 : nanosPerToken - (System.nanoTime() - lastRefillNanos);
+    }
+
+    private void refill()
+    {
+        long now = System.nanoTime();
+        long newTokens = (now - lastRefillNanos) / nanosPerToken;
+
+        if (newTokens > 0)
+        {
+            availableTokens = Math.min(capacity, availableTokens + newTokens);
+
+            // Carry the partial token over instead of discarding it, unless the bucket is full
+            lastRefillNanos = availableTokens == capacity ? now : lastRefillNanos + newTokens * nanosPerToken;
+        }
+    }
+}
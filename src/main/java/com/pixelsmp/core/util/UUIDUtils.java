@@ -0,0 +1,53 @@
+package com.pixelsmp.core.util;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+public final class UUIDUtils
+{
+    private UUIDUtils()
+    {
+    }
+
+    /**
+     * Converts a UUID to the 16 bytes stored in a BINARY(16) column, most significant bits first.
+     *
+     * @param uuid The UUID to convert
+     *
+     * @return The UUID as 16 big-endian bytes
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public static byte[] toBytes(UUID uuid)
+    {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    /**
+     * Converts 16 bytes read from a BINARY(16) column back to a UUID.
+     *
+     * @param bytes The UUID as 16 big-endian bytes
+     *
+     * @return The UUID
+     *
+     * @throws IllegalArgumentException If the value is not exactly 16 bytes long
+     *
+     * @author Bradley Hooten (bradleyah02@gmail.com)
+     * @since 1.2.0
+     */
+    public static UUID fromBytes(byte[] bytes)
+    {
+        if (bytes == null || bytes.length != 16)
+        {
+            throw new IllegalArgumentException("A UUID must be exactly 16 bytes long!");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}